@@ -38,6 +38,7 @@ public class FeudalTactics extends Game {
 	public void dispose() {
 		// shutdown executor services to kill all background threads
 		component.getBotAiExecutor().shutdownNow();
+		component.getBotComputeExecutor().shutdownNow();
 		component.getCopyButtonExecutor().shutdownNow();
 		super.dispose();
 	}
@@ -0,0 +1,15 @@
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package de.sesu8642.feudaltactics.dagger;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+import javax.inject.Qualifier;
+
+/** Binding annotation. **/
+@Qualifier
+@Retention(RetentionPolicy.RUNTIME)
+public @interface BotComputeParallelismProperty {
+
+}
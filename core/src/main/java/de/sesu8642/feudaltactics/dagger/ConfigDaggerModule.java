@@ -4,10 +4,13 @@ package de.sesu8642.feudaltactics.dagger;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Locale;
 import java.util.Properties;
 
 import javax.inject.Singleton;
 
+import com.badlogic.gdx.Gdx;
+
 import dagger.Module;
 import dagger.Provides;
 import de.sesu8642.feudaltactics.exceptions.InitializationException;
@@ -56,4 +59,18 @@ public class ConfigDaggerModule {
 		return Boolean.parseBoolean(config.getProperty("enable_deep_water_rendering"));
 	}
 
+	@Provides
+	@Singleton
+	@BotComputeParallelismProperty
+	static int provideBotComputeParallelismProperty(Properties config) {
+		// the value for the current platform takes precedence
+		String platformKey = "bot_compute_parallelism_" + Gdx.app.getType().name().toLowerCase(Locale.ROOT);
+		int parallelism = Integer
+				.parseInt(config.getProperty(platformKey, config.getProperty("bot_compute_parallelism")));
+		if (parallelism <= 0) {
+			parallelism = Runtime.getRuntime().availableProcessors();
+		}
+		return parallelism;
+	}
+
 }
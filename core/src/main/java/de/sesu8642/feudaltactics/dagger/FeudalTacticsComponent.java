@@ -10,6 +10,7 @@ import javax.inject.Singleton;
 import dagger.Component;
 import de.sesu8642.feudaltactics.GameInitializer;
 import de.sesu8642.feudaltactics.editor.dagger.EditorDaggerModule;
+import de.sesu8642.feudaltactics.ingame.dagger.BotComputeExecutor;
 import de.sesu8642.feudaltactics.ingame.dagger.IngameDaggerModule;
 import de.sesu8642.feudaltactics.menu.about.dagger.AboutDaggerModule;
 import de.sesu8642.feudaltactics.menu.changelog.dagger.ChangelogDaggerModule;
@@ -36,6 +37,9 @@ public interface FeudalTacticsComponent {
 
 	ExecutorService getBotAiExecutor();
 
+	@BotComputeExecutor
+	ExecutorService getBotComputeExecutor();
+
 	ScheduledExecutorService getCopyButtonExecutor();
 
 	GameCrasher getGameCrasher();
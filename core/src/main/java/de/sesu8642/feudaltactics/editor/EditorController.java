@@ -7,7 +7,6 @@ import java.util.ArrayList;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
-import com.badlogic.gdx.math.Vector2;
 import com.google.common.eventbus.EventBus;
 
 import de.sesu8642.feudaltactics.events.GameStateChangeEvent;
@@ -49,8 +48,8 @@ public class EditorController {
 	}
 
 	/** Creates a tile. */
-	public void createTile(Vector2 hexCoords) {
-		HexTile existingTile = gameState.getMap().get(hexCoords);
+	public void createTile(long hexCoords) {
+		HexTile existingTile = gameState.getMap().getTile(hexCoords);
 		int newTilePlayerIndex = 0;
 		if (existingTile != null) {
 			newTilePlayerIndex = gameState.getPlayers().indexOf(existingTile.getPlayer()) + 1;
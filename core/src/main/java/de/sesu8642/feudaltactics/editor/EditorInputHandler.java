@@ -5,7 +5,6 @@ package de.sesu8642.feudaltactics.editor;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
-import com.badlogic.gdx.math.Vector2;
 import com.google.common.eventbus.Subscribe;
 
 import de.sesu8642.feudaltactics.events.TapInputEvent;
@@ -34,7 +33,7 @@ public class EditorInputHandler {
 	 */
 	@Subscribe
 	public void handleTapInput(TapInputEvent event) {
-		Vector2 hexCoords = HexMapHelper.worldCoordsToHexCoords(event.getWorldCoords());
+		long hexCoords = HexMapHelper.worldCoordsToHexCoords(event.getWorldCoords());
 		editorController.createTile(hexCoords);
 	}
 
@@ -2,6 +2,8 @@
 
 package de.sesu8642.feudaltactics.ingame;
 
+import de.sesu8642.feudaltactics.lib.gamestate.MapGenerationMode;
+
 /** Parameter class for map generation. Immutable class. */
 public class MapParameters {
 	private int humanPlayerNo;
@@ -9,6 +11,7 @@ public class MapParameters {
 	private Long seed;
 	private int landMass;
 	private float density;
+	private MapGenerationMode generationMode;
 
 	/**
 	 * Constructor.
@@ -20,11 +23,27 @@ public class MapParameters {
 	 * @param density       map density to use for generation
 	 */
 	public MapParameters(int humanPlayerNo, int botPlayerNo, Long seed, int landMass, float density) {
+		this(humanPlayerNo, botPlayerNo, seed, landMass, density, MapGenerationMode.COMPATIBLE);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param humanPlayerNo  number of human players that play
+	 * @param botPlayerNo    number of bot players that play
+	 * @param seed           map seed to use for generating the map
+	 * @param landMass       number of tiles to generate
+	 * @param density        map density to use for generation
+	 * @param generationMode way of placing the tiles
+	 */
+	public MapParameters(int humanPlayerNo, int botPlayerNo, Long seed, int landMass, float density,
+			MapGenerationMode generationMode) {
 		this.humanPlayerNo = humanPlayerNo;
 		this.botPlayerNo = botPlayerNo;
 		this.seed = seed;
 		this.landMass = landMass;
 		this.density = density;
+		this.generationMode = generationMode;
 	}
 
 	/**
@@ -40,6 +59,7 @@ public class MapParameters {
 		this.seed = seed;
 		this.landMass = landMass;
 		this.density = density;
+		this.generationMode = MapGenerationMode.COMPATIBLE;
 	}
 
 	public int getHumanPlayerNo() {
@@ -62,10 +82,15 @@ public class MapParameters {
 		return density;
 	}
 
+	public MapGenerationMode getGenerationMode() {
+		return generationMode;
+	}
+
 	@Override
 	public String toString() {
-		return String.format("MapParameters [humanPlayerNo=%s, botPlayerNo=%s, seed=%s, landMass=%s, density=%s]",
-				humanPlayerNo, botPlayerNo, seed, landMass, density);
+		return String.format(
+				"MapParameters [humanPlayerNo=%s, botPlayerNo=%s, seed=%s, landMass=%s, density=%s, generationMode=%s]",
+				humanPlayerNo, botPlayerNo, seed, landMass, density, generationMode);
 	}
 
 }
@@ -18,6 +18,7 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import dagger.Module;
 import dagger.Provides;
+import de.sesu8642.feudaltactics.dagger.BotComputeParallelismProperty;
 import de.sesu8642.feudaltactics.dagger.EnableDeepWaterRenderingProperty;
 import de.sesu8642.feudaltactics.dagger.PreferencesPrefixProperty;
 import de.sesu8642.feudaltactics.ingame.AutoSaveRepository;
@@ -38,8 +39,10 @@ public class IngameDaggerModule {
 
 	@Provides
 	@Singleton
-	static BotAi provideBoaAi(EventBus eventBus, MainPreferencesDao mainPrefsDao) {
-		return new BotAi(eventBus, mainPrefsDao);
+	static BotAi provideBoaAi(EventBus eventBus, MainPreferencesDao mainPrefsDao,
+			@BotComputeExecutor ExecutorService botComputeExecutor,
+			@BotComputeParallelismProperty int botComputeParallelism) {
+		return new BotAi(eventBus, mainPrefsDao, botComputeExecutor, botComputeParallelism);
 	}
 
 	@Provides
@@ -88,4 +91,13 @@ public class IngameDaggerModule {
 		return Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("botai-%d").build());
 	}
 
+	@Provides
+	@Singleton
+	@BotComputeExecutor
+	static ExecutorService provideBotComputeExecutor(@BotComputeParallelismProperty int botComputeParallelism) {
+		// the thread doing the bot turn does some of the work itself
+		return Executors.newFixedThreadPool(Math.max(botComputeParallelism - 1, 1),
+				new ThreadFactoryBuilder().setNameFormat("botai-compute-%d").build());
+	}
+
 }
@@ -2,14 +2,11 @@
 
 package de.sesu8642.feudaltactics.input;
 
-import java.util.Map;
 import java.util.Optional;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
-import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.utils.reflect.ClassReflection;
 import com.google.common.eventbus.Subscribe;
 
 import de.sesu8642.feudaltactics.events.RegenerateMapEvent;
@@ -21,7 +18,6 @@ import de.sesu8642.feudaltactics.events.moves.EndTurnEvent;
 import de.sesu8642.feudaltactics.events.moves.GameStartEvent;
 import de.sesu8642.feudaltactics.events.moves.UndoMoveEvent;
 import de.sesu8642.feudaltactics.ingame.AutoSaveRepository;
-import de.sesu8642.feudaltactics.lib.gamestate.Blocking;
 import de.sesu8642.feudaltactics.lib.gamestate.Castle;
 import de.sesu8642.feudaltactics.lib.gamestate.GameStateHelper;
 import de.sesu8642.feudaltactics.lib.gamestate.HexMapHelper;
@@ -77,14 +73,13 @@ public class LocalIngameInputHandler {
 	 */
 	@Subscribe
 	public void handleTapInput(TapInputEvent event) {
-		Vector2 hexCoords = HexMapHelper.worldCoordsToHexCoords(event.getWorldCoords());
+		long hexCoords = HexMapHelper.worldCoordsToHexCoords(event.getWorldCoords());
 		Optional<Player> playerOptional = GameStateHelper.determineActingLocalPlayer(gameController.getGameState());
 		if (!playerOptional.isPresent()) {
 			return;
 		}
 		Player player = playerOptional.get();
-		Map<Vector2, HexTile> map = gameController.getGameState().getMap();
-		HexTile tile = map.get(hexCoords);
+		HexTile tile = gameController.getGameState().getMap().getTile(hexCoords);
 		// print info
 		gameController.printTileInfo(hexCoords);
 		if (InputValidationHelper.checkChangeActiveKingdom(gameController.getGameState(), player, tile)) {
@@ -217,7 +212,7 @@ public class LocalIngameInputHandler {
 			// place object
 			if (tile.getPlayer() != null && tile.getPlayer() == player) {
 				if (tile.getContent() == null
-						|| ClassReflection.isAssignableFrom(Blocking.class, tile.getContent().getClass())) {
+						|| tile.getContentKind().isBlocking()) {
 					return TapAction.PLACE_OWN;
 				} else {
 					return TapAction.COMBINE_UNITS;
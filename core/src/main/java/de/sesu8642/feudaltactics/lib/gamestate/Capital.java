@@ -11,6 +11,9 @@ public class Capital implements MapObject {
 	public static final String SPRITE_NAME = "capital";
 	public static final int STRENGTH = 1;
 
+	// shared instance; the savings belong to the kingdom, so capitals have no state
+	public static final Capital INSTANCE = new Capital();
+
 	@Override
 	public String getSpriteName() {
 		return SPRITE_NAME;
@@ -21,9 +24,15 @@ public class Capital implements MapObject {
 		return STRENGTH;
 	}
 
+	@Override
+	public MapObjectKind getKind() {
+		return MapObjectKind.CAPITAL;
+	}
+
 	@Override
 	public Capital getCopy() {
-		return new Capital();
+		// no state to copy
+		return this;
 	}
 
 	@Override
@@ -9,6 +9,9 @@ public class Castle implements MapObject {
 	public static final String SPRITE_NAME = "castle";
 	public static final int STRENGTH = 2;
 
+	// shared instance; castles have no state
+	public static final Castle INSTANCE = new Castle();
+
 	@Override
 	public String getSpriteName() {
 		return SPRITE_NAME;
@@ -19,9 +22,15 @@ public class Castle implements MapObject {
 		return STRENGTH;
 	}
 
+	@Override
+	public MapObjectKind getKind() {
+		return MapObjectKind.CASTLE;
+	}
+
 	@Override
 	public Castle getCopy() {
-		return new Castle();
+		// no state to copy
+		return this;
 	}
 
 	@Override
@@ -0,0 +1,67 @@
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package de.sesu8642.feudaltactics.lib.gamestate;
+
+import java.util.Objects;
+
+/**
+ * Helper for calculating game state fingerprints in the style of Zobrist
+ * hashing: every tile contributes a pseudo-random key derived from its state,
+ * and the keys are combined with XOR. Because of that, the map can update the
+ * fingerprint in constant time when a tile changes. All the keys only depend
+ * on values, never on object identities, so equal game states have the same
+ * fingerprint in every run.
+ **/
+class FingerprintHelper {
+
+	// prevent instantiation
+	private FingerprintHelper() {
+		throw new AssertionError();
+	}
+
+	/**
+	 * Scrambles a value so that similar inputs give very different outputs. This
+	 * is the finalizer of the SplitMix64 generator.
+	 * 
+	 * @param value value to scramble
+	 * @return scrambled value
+	 */
+	static long mix(long value) {
+		long result = value + 0x9E3779B97F4A7C15L;
+		result = (result ^ (result >>> 30)) * 0xBF58476D1CE4E5B9L;
+		result = (result ^ (result >>> 27)) * 0x94D049BB133111EBL;
+		return result ^ (result >>> 31);
+	}
+
+	/**
+	 * Calculates the key of a tile with its current owner and content.
+	 * 
+	 * @param tile tile
+	 * @return key
+	 */
+	static long getTileKey(HexTile tile) {
+		long stateKey = mix(getPlayerKey(tile.getPlayer()) * 31 + TileChunks.encodeContent(tile.getContent()));
+		return mix(tile.getCoords() ^ stateKey);
+	}
+
+	/**
+	 * Calculates the key of a kingdom with its current owner, savings and size.
+	 * 
+	 * @param kingdom kingdom
+	 * @return key
+	 */
+	static long getKingdomKey(Kingdom kingdom) {
+		long key = mix(getPlayerKey(kingdom.getPlayer()) + kingdom.getSavings());
+		return mix(key + kingdom.getTiles().size() * 2L + (kingdom.isDoneMoving() ? 1 : 0));
+	}
+
+	private static long getPlayerKey(Player player) {
+		if (player == null) {
+			return 0;
+		}
+		// the defeated flag is left out on purpose: it would change the keys of all
+		// the player's tiles at once
+		return Objects.hash(player.getColor(), player.getType() == null ? null : player.getType().toString());
+	}
+
+}
@@ -3,11 +3,10 @@
 package de.sesu8642.feudaltactics.lib.gamestate;
 
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
-
-import com.badlogic.gdx.math.Vector2;
+import java.util.Set;
 
 import de.sesu8642.feudaltactics.lib.ingame.botai.Intelligence;
 
@@ -18,12 +17,14 @@ public class GameState {
 	private Player winner = null;
 	private int playerTurn = 0;
 	// need a map with fix iteration order to avoid randomness
-	private LinkedHashMap<Vector2, HexTile> map = new LinkedHashMap<>();
-	private List<Kingdom> kingdoms;
+	private HexMap map = new HexMap();
+	private KingdomList kingdoms;
 	private Kingdom activeKingdom = null;
 	private MapObject heldObject = null;
 	private Intelligence botIntelligence = Intelligence.LEVEL_1;
 	private Long seed;
+	// journal recording the changes; null if there is none
+	private transient GameStateJournal journal;
 
 	/** A round consists of one turn per player. */
 	private int round = 0;
@@ -37,6 +38,13 @@ public class GameState {
 	}
 
 	public void setPlayers(List<Player> players) {
+		if (journal != null) {
+			List<Player> oldPlayers = this.players;
+			journal.record(() -> setPlayers(oldPlayers));
+			for (Player player : players) {
+				player.setJournal(journal);
+			}
+		}
 		this.players = players;
 	}
 
@@ -45,6 +53,10 @@ public class GameState {
 	}
 
 	public void setWinner(Player winner) {
+		if (journal != null) {
+			Player oldWinner = this.winner;
+			journal.record(() -> setWinner(oldWinner));
+		}
 		this.winner = winner;
 	}
 
@@ -53,14 +65,23 @@ public class GameState {
 	}
 
 	public void setPlayerTurn(int playerTurn) {
+		if (journal != null) {
+			int oldPlayerTurn = this.playerTurn;
+			journal.record(() -> setPlayerTurn(oldPlayerTurn));
+		}
 		this.playerTurn = playerTurn;
 	}
 
-	public LinkedHashMap<Vector2, HexTile> getMap() {
+	public HexMap getMap() {
 		return map;
 	}
 
-	public void setMap(LinkedHashMap<Vector2, HexTile> map) {
+	public void setMap(HexMap map) {
+		if (journal != null) {
+			HexMap oldMap = this.map;
+			journal.record(() -> setMap(oldMap));
+			map.setJournal(journal);
+		}
 		this.map = map;
 	}
 
@@ -68,8 +89,65 @@ public class GameState {
 		return kingdoms;
 	}
 
+	/**
+	 * Replaces the kingdoms with a copy of the given ones.
+	 * 
+	 * @param kingdoms new kingdoms; may be null
+	 */
 	public void setKingdoms(List<Kingdom> kingdoms) {
-		this.kingdoms = kingdoms;
+		if (journal != null) {
+			KingdomList oldKingdoms = this.kingdoms;
+			journal.record(() -> this.kingdoms = oldKingdoms);
+		}
+		this.kingdoms = kingdoms == null ? null : new KingdomList(kingdoms);
+		if (journal != null && this.kingdoms != null) {
+			this.kingdoms.setJournal(journal);
+		}
+	}
+
+	/**
+	 * Returns the kingdoms of a player without scanning all of them.
+	 * 
+	 * @param player player to get the kingdoms of
+	 * @return unmodifiable list of the kingdoms in the order of
+	 *         {@link #getKingdoms()}
+	 */
+	public List<Kingdom> getKingdoms(Player player) {
+		if (kingdoms == null) {
+			return Collections.emptyList();
+		}
+		return kingdoms.getKingdoms(player);
+	}
+
+	/**
+	 * Returns the number of tiles that belong to any kingdom. This is maintained by
+	 * the map.
+	 * 
+	 * @return number of kingdom tiles
+	 */
+	public int getKingdomTileCount() {
+		return map.getKingdomTileCount();
+	}
+
+	/**
+	 * Returns the number of tiles of a player that belong to any kingdom.
+	 * 
+	 * @param player player to count the tiles of
+	 * @return number of kingdom tiles of the player
+	 */
+	public int getKingdomTileCount(Player player) {
+		return map.getKingdomTileCount(player);
+	}
+
+	/**
+	 * Returns the tiles of a player that belong to no kingdom, like single tiles
+	 * that were cut off.
+	 * 
+	 * @param player player to get the tiles of
+	 * @return unmodifiable set of tiles; it changes with the map
+	 */
+	public Set<HexTile> getUnattachedTiles(Player player) {
+		return map.getUnattachedTiles(player);
 	}
 
 	public Kingdom getActiveKingdom() {
@@ -77,6 +155,10 @@ public class GameState {
 	}
 
 	public void setActiveKingdom(Kingdom activeKingdom) {
+		if (journal != null) {
+			Kingdom oldActiveKingdom = this.activeKingdom;
+			journal.record(() -> setActiveKingdom(oldActiveKingdom));
+		}
 		this.activeKingdom = activeKingdom;
 	}
 
@@ -85,6 +167,10 @@ public class GameState {
 	}
 
 	public void setHeldObject(MapObject heldObject) {
+		if (journal != null) {
+			MapObject oldHeldObject = this.heldObject;
+			journal.record(() -> setHeldObject(oldHeldObject));
+		}
 		this.heldObject = heldObject;
 	}
 
@@ -97,6 +183,10 @@ public class GameState {
 	}
 
 	public void setBotIntelligence(Intelligence botIntelligence) {
+		if (journal != null) {
+			Intelligence oldBotIntelligence = this.botIntelligence;
+			journal.record(() -> setBotIntelligence(oldBotIntelligence));
+		}
 		this.botIntelligence = botIntelligence;
 	}
 
@@ -105,6 +195,10 @@ public class GameState {
 	}
 
 	public void setSeed(Long seed) {
+		if (journal != null) {
+			Long oldSeed = this.seed;
+			journal.record(() -> setSeed(oldSeed));
+		}
 		this.seed = seed;
 	}
 
@@ -113,9 +207,57 @@ public class GameState {
 	}
 
 	public void setRound(int round) {
+		if (journal != null) {
+			int oldRound = this.round;
+			journal.record(() -> setRound(oldRound));
+		}
 		this.round = round;
 	}
 
+	GameStateJournal getJournal() {
+		return journal;
+	}
+
+	/**
+	 * Sets the journal that records the changes of this game state, its tiles,
+	 * kingdoms and players.
+	 * 
+	 * @param journal journal; null to stop recording
+	 */
+	void setJournal(GameStateJournal journal) {
+		this.journal = journal;
+		for (Player player : players) {
+			player.setJournal(journal);
+		}
+		map.setJournal(journal);
+		if (kingdoms != null) {
+			kingdoms.setJournal(journal);
+		}
+	}
+
+	/**
+	 * Returns a fingerprint of the tiles, kingdoms, turn and round. Equal game
+	 * states have the same fingerprint, also across runs, so it can be used as a
+	 * seed. The tiles part is maintained by the map while the game is played, so
+	 * this only takes time proportional to the number of kingdoms.
+	 * 
+	 * @return fingerprint
+	 */
+	public long getFingerprint() {
+		long fingerprint = map.getTileFingerprint();
+		if (kingdoms != null) {
+			for (Kingdom kingdom : kingdoms) {
+				// adding the keys makes the order of the kingdoms irrelevant
+				fingerprint += FingerprintHelper.getKingdomKey(kingdom);
+			}
+		}
+		fingerprint = FingerprintHelper.mix(fingerprint ^ FingerprintHelper.mix(((long) round << 32) | playerTurn));
+		if (seed != null) {
+			fingerprint = FingerprintHelper.mix(fingerprint ^ seed);
+		}
+		return fingerprint;
+	}
+
 	@Override
 	public int hashCode() {
 		// calculating with enum strings because the hashcode must be consistent across
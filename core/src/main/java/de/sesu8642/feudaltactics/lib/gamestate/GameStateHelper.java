@@ -3,23 +3,22 @@
 package de.sesu8642.feudaltactics.lib.gamestate;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedHashMap;
-import java.util.LinkedList;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Random;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.utils.reflect.ClassReflection;
+import com.badlogic.gdx.utils.LongArray;
 
 import de.sesu8642.feudaltactics.lib.gamestate.Player.Type;
 import de.sesu8642.feudaltactics.lib.gamestate.Unit.UnitTypes;
@@ -50,47 +49,47 @@ public class GameStateHelper {
 	public static GameState getCopy(GameState original) {
 		GameState result = new GameState();
 
-		List<Player> copiedPlayers = new ArrayList<>();
+		// map the original objects to their copies by identity
+		Map<Player, Player> copiedPlayers = new IdentityHashMap<>();
+		result.setPlayers(new ArrayList<>());
 		for (Player originalPlayer : original.getPlayers()) {
 			Player newPlayer = Player.copyOf(originalPlayer);
-			copiedPlayers.add(newPlayer);
+			copiedPlayers.put(originalPlayer, newPlayer);
+			result.getPlayers().add(newPlayer);
 		}
-		result.setPlayers(copiedPlayers);
 		if (original.getWinner() != null) {
-			result.setWinner(copiedPlayers.get(original.getPlayers().indexOf(original.getWinner())));
+			result.setWinner(copiedPlayers.get(original.getWinner()));
 		}
 
-		List<Kingdom> copiedKingdoms = new ArrayList<>();
+		Map<Kingdom, Kingdom> copiedKingdoms = new IdentityHashMap<>();
+		result.setKingdoms(new ArrayList<>());
 		for (Kingdom originalKingdom : original.getKingdoms()) {
-			Kingdom newKingdom = new Kingdom(
-					copiedPlayers.get(original.getPlayers().indexOf(originalKingdom.getPlayer())));
+			Kingdom newKingdom = new Kingdom(copiedPlayers.get(originalKingdom.getPlayer()));
 			newKingdom.setSavings(originalKingdom.getSavings());
 			newKingdom.setDoneMoving(originalKingdom.isDoneMoving());
 			newKingdom.setWasActiveInCurrentTurn(originalKingdom.isWasActiveInCurrentTurn());
-			copiedKingdoms.add(newKingdom);
+			copiedKingdoms.put(originalKingdom, newKingdom);
+			result.getKingdoms().add(newKingdom);
 		}
-		result.setKingdoms(copiedKingdoms);
 
-		LinkedHashMap<Vector2, HexTile> copiedMap = new LinkedHashMap<>();
+		HexMap copiedMap = new HexMap();
 		// note: this potentially results in a different tile order in the new kingdom
 		// vs the other
-		for (Entry<Vector2, HexTile> originalTileEntry : original.getMap().entrySet()) {
-			HexTile originalTile = originalTileEntry.getValue();
-			HexTile newTile = new HexTile(copiedPlayers.get(original.getPlayers().indexOf(originalTile.getPlayer())),
-					new Vector2(originalTileEntry.getKey()));
+		for (HexTile originalTile : original.getMap().values()) {
+			HexTile newTile = new HexTile(copiedPlayers.get(originalTile.getPlayer()), originalTile.getCoords());
 			if (originalTile.getKingdom() != null) {
-				newTile.setKingdom(copiedKingdoms.get(original.getKingdoms().indexOf(originalTile.getKingdom())));
+				newTile.setKingdom(copiedKingdoms.get(originalTile.getKingdom()));
 				newTile.getKingdom().getTiles().add(newTile);
 			}
 			if (originalTile.getContent() != null) {
 				newTile.setContent(originalTile.getContent().getCopy());
 			}
-			copiedMap.put(newTile.getPosition(), newTile);
+			copiedMap.put(newTile);
 		}
 		result.setMap(copiedMap);
 
 		if (original.getActiveKingdom() != null) {
-			result.setActiveKingdom(copiedKingdoms.get(original.getKingdoms().indexOf(original.getActiveKingdom())));
+			result.setActiveKingdom(copiedKingdoms.get(original.getActiveKingdom()));
 		}
 
 		if (original.getHeldObject() != null) {
@@ -106,6 +105,30 @@ public class GameStateHelper {
 		return result;
 	}
 
+	/**
+	 * Takes an immutable snapshot of a game state. Unlike {@link #getCopy}, this
+	 * does not copy the tiles, so it is cheap enough to be done after every action.
+	 * 
+	 * @param gameState game state to take the snapshot of
+	 * @return snapshot
+	 */
+	public static GameStateSnapshot createSnapshot(GameState gameState) {
+		return new GameStateSnapshot(gameState);
+	}
+
+	/**
+	 * Starts recording the changes of a game state, so that moves can be tried out
+	 * and reversed in place. Unlike {@link #getCopy} or a snapshot, rolling back
+	 * only takes time proportional to the number of changes.
+	 *
+	 * @param gameState game state to record the changes of; must not have a
+	 *                  journal already
+	 * @return journal; stop it when it isn't needed anymore
+	 */
+	public static GameStateJournal startJournal(GameState gameState) {
+		return new GameStateJournal(gameState);
+	}
+
 	/**
 	 * Generates a map on a {@link GameState}.
 	 * 
@@ -121,6 +144,28 @@ public class GameStateHelper {
 	 */
 	public static void initializeMap(GameState gameState, List<Player> players, float landMass, float density,
 			Float vegetationDensity, Long mapSeed) {
+		initializeMap(gameState, players, landMass, density, vegetationDensity, mapSeed,
+				MapGenerationMode.COMPATIBLE);
+	}
+
+	/**
+	 * Generates a map on a {@link GameState}.
+	 * 
+	 * @param gameState         GameState to generate the map in
+	 * @param players           players that own tiles on the map
+	 * @param landMass          number of tiles to generate
+	 * @param density           Higher density means the map will be more clumpy and
+	 *                          lower means it will be more stringy. Values between
+	 *                          -3 and 3 produce good results.
+	 * @param vegetationDensity determines how many trees will be generated. 0.5 =
+	 *                          50% of empty tiles will have trees
+	 * @param mapSeed           map seed to use for generating the map
+	 * @param generationMode    way of placing the tiles; only
+	 *                          {@link MapGenerationMode#COMPATIBLE} produces the
+	 *                          same maps as previous versions for a seed
+	 */
+	public static void initializeMap(GameState gameState, List<Player> players, float landMass, float density,
+			Float vegetationDensity, Long mapSeed, MapGenerationMode generationMode) {
 		if (mapSeed == null) {
 			mapSeed = System.currentTimeMillis();
 		}
@@ -129,20 +174,20 @@ public class GameStateHelper {
 		}
 		gameState.setSeed(mapSeed);
 		gameState.setPlayers(players);
-		gameState.setMap(new LinkedHashMap<>());
+		gameState.setMap(new HexMap());
 		gameState.setKingdoms(new ArrayList<>());
 		if (landMass == 0) {
 			return;
 		}
 		Random random = new Random(mapSeed);
-		generateMap(gameState, players, landMass, density, vegetationDensity, random);
+		generateMap(gameState, players, landMass, density, vegetationDensity, random, generationMode);
 	}
 
 	private static void generateMap(GameState gameState, List<Player> players, float landMass, float density,
-			float vegetationDensity, Random random) {
+			float vegetationDensity, Random random, MapGenerationMode generationMode) {
 		// if not every player has at least one kingdom, try again
 		do {
-			generateTiles(gameState, players, landMass, density, random);
+			generateTiles(gameState, players, landMass, density, random, generationMode);
 			createInitialKingdoms(gameState);
 		} while (!doesEveryPlayerHaveKingdom(gameState));
 		createTrees(gameState, vegetationDensity, random);
@@ -152,28 +197,25 @@ public class GameStateHelper {
 	}
 
 	private static boolean doesEveryPlayerHaveKingdom(GameState gameState) {
-		List<Player> playersWithoutKingdoms = new ArrayList<>(gameState.getPlayers());
-		for (Kingdom kingdom : gameState.getKingdoms()) {
-			if (playersWithoutKingdoms.contains(kingdom.getPlayer())) {
-				playersWithoutKingdoms.remove(kingdom.getPlayer());
+		for (Player player : gameState.getPlayers()) {
+			if (gameState.getKingdoms(player).isEmpty()) {
+				return false;
 			}
 		}
-		return playersWithoutKingdoms.isEmpty();
+		return true;
 	}
 
 	private static void sortPlayersByIncome(GameState gameState) {
 		gameState.getPlayers().sort((a, b) -> {
 			// if they are the same, it doesn't matter
-			int incomeA = gameState.getKingdoms().stream().filter(kingdom -> kingdom.getPlayer() == a)
-					.mapToInt(GameStateHelper::getKingdomIncome).sum();
-			int incomeB = gameState.getKingdoms().stream().filter(kingdom -> kingdom.getPlayer() == b)
-					.mapToInt(GameStateHelper::getKingdomIncome).sum();
+			int incomeA = gameState.getKingdoms(a).stream().mapToInt(GameStateHelper::getKingdomIncome).sum();
+			int incomeB = gameState.getKingdoms(b).stream().mapToInt(GameStateHelper::getKingdomIncome).sum();
 			return incomeA > incomeB ? 1 : -1;
 		});
 	}
 
 	private static void generateTiles(GameState gameState, List<Player> players, float landMass, float density,
-			Random random) {
+			Random random, MapGenerationMode generationMode) {
 		// distribute the land mass evenly to all players
 		Map<Player, Integer> tileAmountsToGenerate = new HashMap<>();
 		// if there are tiles left, distribute them to random players
@@ -191,15 +233,21 @@ public class GameStateHelper {
 		// (because a random one can be selected)
 		ArrayList<Player> remainingPlayers = new ArrayList<>(players);
 		gameState.getMap().clear();
+		if (generationMode == MapGenerationMode.FRONTIER) {
+			generateTilesAtFrontier(gameState, tileAmountsToGenerate, remainingPlayers, density, random);
+			return;
+		}
 		// could be done recursively but stack size is uncertain
-		Vector2 nextTilePos = new Vector2(0, 0);
-		ArrayList<Vector2> positionHistory = new ArrayList<>(); // for backtracking
+		long nextTilePos = HexCoords.pack(0, 0);
+		LongArray positionHistory = new LongArray(); // for backtracking
+		long[] usableCoords = new long[HexMapHelper.NEIGHBOR_COUNT];
+		float[] scores = new float[HexMapHelper.NEIGHBOR_COUNT];
 		while (!remainingPlayers.isEmpty()) {
-			Vector2 currentTilePos = nextTilePos;
+			long currentTilePos = nextTilePos;
 			// place tile
 			Player player = remainingPlayers.get(random.nextInt(remainingPlayers.size()));
 			HexTile tile = new HexTile(player, currentTilePos);
-			gameState.getMap().put(currentTilePos, tile);
+			gameState.getMap().put(tile);
 			// remove player if no tiles are left
 			if (tileAmountsToGenerate.get(player) == 1) {
 				remainingPlayers.remove(player);
@@ -209,76 +257,148 @@ public class GameStateHelper {
 			// add to history
 			positionHistory.add(currentTilePos);
 			// get next tile position with empty neighboring tiles
-			List<Vector2> usableCoords = HexMapHelper.getUnusedNeighborCoords(gameState.getMap(), currentTilePos);
-			while (usableCoords.isEmpty()) {
+			int usableCoordsCount = HexMapHelper.getUnusedNeighborCoords(gameState.getMap(), currentTilePos,
+					usableCoords);
+			while (usableCoordsCount == 0) {
 				// backtrack until able to place a tile again
-				positionHistory.remove(positionHistory.size() - 1);
-				currentTilePos = positionHistory.get(positionHistory.size() - 1);
-				usableCoords = new ArrayList<>(
-						HexMapHelper.getUnusedNeighborCoords(gameState.getMap(), currentTilePos));
+				positionHistory.pop();
+				currentTilePos = positionHistory.peek();
+				usableCoordsCount = HexMapHelper.getUnusedNeighborCoords(gameState.getMap(), currentTilePos,
+						usableCoords);
 			}
 			// calculate a score for each neighboring tile for choosing the next one
-			ArrayList<Float> scores = new ArrayList<>();
 			float scoreSum = 0;
-			for (Vector2 candidate : usableCoords) {
+			for (int i = 0; i < usableCoordsCount; i++) {
 				// factor in density
-				int usableCoordsCountFromCandidate = HexMapHelper.getUnusedNeighborCoords(gameState.getMap(), candidate)
-						.size();
+				int usableCoordsCountFromCandidate = HexMapHelper.getUnusedNeighborCoords(gameState.getMap(),
+						usableCoords[i], null);
 				float score = (float) Math.pow(usableCoordsCountFromCandidate, density);
-				scores.add(score);
+				scores[i] = score;
 				scoreSum += score;
 			}
 			// select tile based on score and random
 			float randomScore = random.nextFloat() * scoreSum;
 			int index = 0;
-			float countedScore = scores.get(0);
+			float countedScore = scores[0];
 			while (countedScore < randomScore) {
 				index++;
-				countedScore += scores.get(index);
+				countedScore += scores[index];
+			}
+			nextTilePos = usableCoords[index];
+		}
+	}
+
+	private static void generateTilesAtFrontier(GameState gameState, Map<Player, Integer> tileAmountsToGenerate,
+			List<Player> remainingPlayers, float density, Random random) {
+		MapFrontier frontier = new MapFrontier(gameState.getMap(), density);
+		long nextTilePos = HexCoords.pack(0, 0);
+		while (true) {
+			Player player = remainingPlayers.get(random.nextInt(remainingPlayers.size()));
+			gameState.getMap().put(new HexTile(player, nextTilePos));
+			// remove player if no tiles are left
+			if (tileAmountsToGenerate.get(player) == 1) {
+				remainingPlayers.remove(player);
+				if (remainingPlayers.isEmpty()) {
+					return;
+				}
+			} else {
+				tileAmountsToGenerate.put(player, tileAmountsToGenerate.get(player) - 1);
 			}
-			nextTilePos = usableCoords.get(index);
+			frontier.addLand(nextTilePos);
+			nextTilePos = frontier.pick(random);
 		}
 	}
 
+	/**
+	 * Groups the tiles into kingdoms. The tiles are visited in map order and a
+	 * group is created whenever two neighboring tiles of the same player do not
+	 * belong to one yet. When two groups meet, the group of the visited tile
+	 * absorbs the other one and gets its tiles appended. Groups are tracked with a
+	 * union-find over tile ids and their tiles in linked lists, so merging is
+	 * cheap; the kingdoms are only created at the end, ordered by the creation of
+	 * their groups.
+	 */
 	private static void createInitialKingdoms(GameState gameState) {
 		gameState.getKingdoms().clear();
-		for (Entry<Vector2, HexTile> tileEntry : gameState.getMap().entrySet()) {
-			HexTile tile = tileEntry.getValue();
-			for (HexTile neighborTile : HexMapHelper.getNeighborTiles(gameState.getMap(), tile)) {
+		HexMap map = gameState.getMap();
+		int tileCount = map.size();
+		// group of every tile; -1 if the tile does not belong to any
+		int[] tileGroups = new int[tileCount];
+		Arrays.fill(tileGroups, -1);
+		// next tile of the same group; -1 for the last one
+		int[] nextTiles = new int[tileCount];
+		// there cannot be more groups than half the tiles
+		int[] groupParents = new int[tileCount / 2 + 1];
+		int[] groupFirstTiles = new int[groupParents.length];
+		int[] groupLastTiles = new int[groupParents.length];
+		int groupCount = 0;
+		HexTile[] tiles = new HexTile[tileCount];
+		for (HexTile tile : map.values()) {
+			tiles[tile.getId()] = tile;
+			for (int i = 0; i < HexMapHelper.NEIGHBOR_COUNT; i++) {
+				HexTile neighborTile = HexMapHelper.getNeighborTile(map, tile, i);
 				if (neighborTile == null || neighborTile.getPlayer() != tile.getPlayer()) {
 					// water or tile of a different player
 					continue;
 				}
-				// two neighboring tiles belong to the same player
-				if (tile.getKingdom() == null && neighborTile.getKingdom() == null) {
-					// none of the tiles already belong to a kingdom --> create a new one
-					Kingdom newKingdom = new Kingdom(tile.getPlayer());
-					gameState.getKingdoms().add(newKingdom);
-					newKingdom.getTiles().add(tile);
-					newKingdom.getTiles().add(neighborTile);
-					tile.setKingdom(newKingdom);
-					neighborTile.setKingdom(newKingdom);
-				} else if (tile.getKingdom() != null && neighborTile.getKingdom() == null) {
-					// tile belongs to a kingdom but neighbor does not -> add neighbor to existing
-					// kingdom
-					tile.getKingdom().getTiles().add(neighborTile);
-					neighborTile.setKingdom(tile.getKingdom());
-				} else if (tile.getKingdom() == null && neighborTile.getKingdom() != null) {
-					// neighbor belongs to a kingdom but tile does not -> add tile to existing
-					// kingdom
-					neighborTile.getKingdom().getTiles().add(tile);
-					tile.setKingdom(neighborTile.getKingdom());
-				} else if (tile.getKingdom() != null && neighborTile.getKingdom() != null
-						&& tile.getKingdom() != neighborTile.getKingdom()) {
-					// tile and neighbor belong to different kingdoms --> merge kingdoms
-					gameState.getKingdoms().remove(neighborTile.getKingdom());
-					for (HexTile neighborKingdomTile : neighborTile.getKingdom().getTiles()) {
-						neighborKingdomTile.setKingdom(tile.getKingdom());
-						tile.getKingdom().getTiles().add(neighborKingdomTile);
-					}
+				int tileId = tile.getId();
+				int neighborId = neighborTile.getId();
+				int group = findGroup(groupParents, tileGroups[tileId]);
+				int neighborGroup = findGroup(groupParents, tileGroups[neighborId]);
+				if (group == -1 && neighborGroup == -1) {
+					// none of the tiles already belong to a group --> create a new one
+					groupParents[groupCount] = groupCount;
+					groupFirstTiles[groupCount] = tileId;
+					groupLastTiles[groupCount] = neighborId;
+					nextTiles[tileId] = neighborId;
+					nextTiles[neighborId] = -1;
+					tileGroups[tileId] = groupCount;
+					tileGroups[neighborId] = groupCount;
+					groupCount++;
+				} else if (group != -1 && neighborGroup == -1) {
+					// tile belongs to a group but neighbor does not -> append neighbor
+					nextTiles[groupLastTiles[group]] = neighborId;
+					nextTiles[neighborId] = -1;
+					groupLastTiles[group] = neighborId;
+					tileGroups[neighborId] = group;
+				} else if (group == -1) {
+					// neighbor belongs to a group but tile does not -> append tile
+					nextTiles[groupLastTiles[neighborGroup]] = tileId;
+					nextTiles[tileId] = -1;
+					groupLastTiles[neighborGroup] = tileId;
+					tileGroups[tileId] = neighborGroup;
+				} else if (group != neighborGroup) {
+					// tile and neighbor belong to different groups --> merge them
+					groupParents[neighborGroup] = group;
+					nextTiles[groupLastTiles[group]] = groupFirstTiles[neighborGroup];
+					groupLastTiles[group] = groupLastTiles[neighborGroup];
 				}
 			}
 		}
+		for (int group = 0; group < groupCount; group++) {
+			if (groupParents[group] != group) {
+				// merged into another one
+				continue;
+			}
+			Kingdom kingdom = new Kingdom(tiles[groupFirstTiles[group]].getPlayer());
+			for (int tileId = groupFirstTiles[group]; tileId != -1; tileId = nextTiles[tileId]) {
+				kingdom.getTiles().add(tiles[tileId]);
+				tiles[tileId].setKingdom(kingdom);
+			}
+			gameState.getKingdoms().add(kingdom);
+		}
+	}
+
+	private static int findGroup(int[] groupParents, int group) {
+		if (group == -1) {
+			return -1;
+		}
+		while (groupParents[group] != group) {
+			// path halving
+			groupParents[group] = groupParents[groupParents[group]];
+			group = groupParents[group];
+		}
+		return group;
 	}
 
 	private static void createCapitals(GameState gameState) {
@@ -362,7 +482,7 @@ public class GameStateHelper {
 				}
 			}
 		}
-		newCapitalTile.setContent(new Capital());
+		newCapitalTile.setContent(Capital.INSTANCE);
 	}
 
 	/**
@@ -387,7 +507,7 @@ public class GameStateHelper {
 						String.format("The kingdom %s has no tiles which a capital could be placed on.", kingdom));
 			}
 		}
-		newCapitalTile.setContent(new Capital());
+		newCapitalTile.setContent(Capital.INSTANCE);
 	}
 
 	/**
@@ -396,9 +516,14 @@ public class GameStateHelper {
 	 */
 	private static boolean isCapitalCandidateDisconnected(GameState gameState, HexTile oldCapitalTile,
 			HexTile candidate) {
-		return HexMapHelper.getNeighborTiles(gameState.getMap(), candidate).stream().noneMatch(
-				(HexTile neighborsNeighbor) -> neighborsNeighbor != null && neighborsNeighbor != oldCapitalTile
-						&& neighborsNeighbor.getKingdom() == oldCapitalTile.getKingdom());
+		for (int i = 0; i < HexMapHelper.NEIGHBOR_COUNT; i++) {
+			HexTile neighborsNeighbor = HexMapHelper.getNeighborTile(gameState.getMap(), candidate, i);
+			if (neighborsNeighbor != null && neighborsNeighbor != oldCapitalTile
+					&& neighborsNeighbor.getKingdom() == oldCapitalTile.getKingdom()) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	/**
@@ -431,9 +556,8 @@ public class GameStateHelper {
 	 */
 	public static void placeOwn(GameState gameState, HexTile tile) {
 		// units can't act after removing blocking stuff
-		if (tile.getContent() != null
-				&& ClassReflection.isAssignableFrom(Blocking.class, tile.getContent().getClass())) {
-			((Unit) gameState.getHeldObject()).setCanAct(false);
+		if (tile.getContentKind().isBlocking()) {
+			gameState.setHeldObject(Unit.of(((Unit) gameState.getHeldObject()).getUnitType(), false));
 		}
 		placeObject(gameState, tile);
 	}
@@ -467,9 +591,7 @@ public class GameStateHelper {
 		default:
 			break;
 		}
-		Unit newUnit = new Unit(newUnitType);
-		newUnit.setCanAct(((Unit) tile.getContent()).isCanAct());
-		gameState.setHeldObject(newUnit);
+		gameState.setHeldObject(Unit.of(newUnitType, ((Unit) tile.getContent()).isCanAct()));
 		placeObject(gameState, tile);
 	}
 
@@ -482,13 +604,12 @@ public class GameStateHelper {
 	public static void conquer(GameState gameState, HexTile tile) {
 		Kingdom oldTileKingdom = tile.getKingdom();
 		// units can't act after conquering
-		((Unit) gameState.getHeldObject()).setCanAct(false);
+		gameState.setHeldObject(Unit.of(((Unit) gameState.getHeldObject()).getUnitType(), false));
 
 		// update kingdoms
 		if (tile.getKingdom() != null) {
 			// place new capital if old one is going to be destroyed
-			if (tile.getContent() != null
-					&& ClassReflection.isAssignableFrom(Capital.class, tile.getContent().getClass())
+			if (tile.getContentKind() == MapObjectKind.CAPITAL
 					&& tile.getKingdom().getTiles().size() > 2) {
 				tile.getKingdom().setSavings(0);
 				createCapital(gameState, tile);
@@ -526,49 +647,8 @@ public class GameStateHelper {
 				}
 			}
 		}
-		// find out whether kingdom was potentially split
-		boolean potentiallySplit = true;
-		switch (oldKingdomNeighborTiles.size()) {
-		case 2:
-			// both tiles next to to each other --> no split possible
-			if (HexMapHelper.getNeighborTiles(gameState.getMap(), oldKingdomNeighborTiles.get(0))
-					.contains(oldKingdomNeighborTiles.get(1))) {
-				potentiallySplit = false;
-			}
-			break;
-		case 3:
-			// if the first or the second tile is next to both of the other ones, they are
-			// all next to each other --> no split possible
-			if (((HexMapHelper.getNeighborTiles(gameState.getMap(), oldKingdomNeighborTiles.get(0))
-					.contains(oldKingdomNeighborTiles.get(1)))
-					&& (HexMapHelper.getNeighborTiles(gameState.getMap(), oldKingdomNeighborTiles.get(0))
-							.contains(oldKingdomNeighborTiles.get(2))))
-					|| ((HexMapHelper.getNeighborTiles(gameState.getMap(), oldKingdomNeighborTiles.get(1))
-							.contains(oldKingdomNeighborTiles.get(0)))
-							&& (HexMapHelper.getNeighborTiles(gameState.getMap(), oldKingdomNeighborTiles.get(1))
-									.contains(oldKingdomNeighborTiles.get(2))))) {
-				potentiallySplit = false;
-			}
-			break;
-		case 4:
-			// if the other tiles are next to each other, the 4 oldKingdomNeighborTiles must
-			// also be next to each other --> no split possible
-			ArrayList<HexTile> notOldKingdomNeighborTiles = new ArrayList<>(
-					HexMapHelper.getNeighborTiles(gameState.getMap(), tile));
-			notOldKingdomNeighborTiles.removeAll(oldKingdomNeighborTiles);
-			if (notOldKingdomNeighborTiles.get(0) != null && notOldKingdomNeighborTiles.get(1) != null
-					&& HexMapHelper.getNeighborTiles(gameState.getMap(), notOldKingdomNeighborTiles.get(0))
-							.contains(notOldKingdomNeighborTiles.get(1))) {
-				potentiallySplit = false;
-			}
-			break;
-		default:
-			// 1 or 5 means no split possible
-			potentiallySplit = false;
-			break;
-		}
-		if (potentiallySplit || (oldTileKingdom != null && oldTileKingdom.getTiles().size() < 2)) {
-			updateSplitKingdom(gameState, oldTileKingdom.getTiles());
+		if (oldTileKingdom != null) {
+			updateSplitKingdom(gameState, oldTileKingdom, oldKingdomNeighborTiles);
 		}
 		placeObject(gameState, tile);
 	}
@@ -590,8 +670,7 @@ public class GameStateHelper {
 				masterKingdom.getTiles().add(slaveKingdomTile);
 			}
 			slaveKingdomTile.setKingdom(masterKingdom);
-			MapObject content = slaveKingdomTile.getContent();
-			if (content != null && ClassReflection.isAssignableFrom(Capital.class, content.getClass())) {
+			if (slaveKingdomTile.getContentKind() == MapObjectKind.CAPITAL) {
 				// delete slave capital
 				slaveKingdomTile.setContent(null);
 			}
@@ -599,75 +678,96 @@ public class GameStateHelper {
 		gameState.getKingdoms().remove(slaveKingdom);
 	}
 
-	private static void updateSplitKingdom(GameState gameState, List<HexTile> tiles) {
-		if (tiles.isEmpty()) {
+	/**
+	 * Splits up a kingdom that lost a tile into its connected parts. Only the parts
+	 * that are separated from the biggest one are searched and moved into new
+	 * kingdoms, keeping the order of their tiles. The old kingdom keeps the rest of
+	 * its tiles. The part containing the capital takes over the savings and the
+	 * state of the old kingdom as well as its place in the kingdom list. Every
+	 * other part gets a new capital. Parts consisting of a single tile don't form a
+	 * kingdom.
+	 * 
+	 * @param gameState               game state
+	 * @param oldKingdom              kingdom that lost a tile
+	 * @param oldKingdomNeighborTiles tiles of the kingdom next to the lost tile
+	 */
+	private static void updateSplitKingdom(GameState gameState, Kingdom oldKingdom,
+			List<HexTile> oldKingdomNeighborTiles) {
+		if (oldKingdom.getTiles().size() == 1) {
+			dissolveKingdom(gameState, oldKingdom);
 			return;
 		}
-		Kingdom oldKingdom = tiles.get(0).getKingdom();
-		// try to find a capital
-		HexTile capitalTile = null;
-		for (HexTile kingdomTile : tiles) {
-			if (kingdomTile.getContent() != null
-					&& ClassReflection.isAssignableFrom(Capital.class, kingdomTile.getContent().getClass())) {
-				capitalTile = kingdomTile;
-				break;
+		List<List<HexTile>> fragments = KingdomSplitDetector.findSeparatedFragments(gameState.getMap(), oldKingdom,
+				oldKingdomNeighborTiles);
+		if (fragments.isEmpty()) {
+			return;
+		}
+		int fragmentTileCount = 0;
+		List<HexTile> biggestFragment = fragments.get(0);
+		for (List<HexTile> fragment : fragments) {
+			fragmentTileCount += fragment.size();
+			if (fragment.size() > biggestFragment.size()) {
+				biggestFragment = fragment;
 			}
 		}
-		HexTile startTile;
-		Kingdom newKingdom = null;
-		if (capitalTile != null) {
-			// capital exists --> keep it's kingdom
-			startTile = capitalTile;
-			newKingdom = startTile.getKingdom();
-			newKingdom.setTiles(new ArrayList<>());
-		} else {
-			// no capital exists --> create new kingdom
-			// start from some other tile
-			startTile = tiles.get(0);
-			newKingdom = new Kingdom(startTile.getPlayer());
-			gameState.getKingdoms().add(newKingdom);
-		}
-		// expand outwards from startTile to find connected tiles
-		LinkedList<HexTile> todoTiles = new LinkedList<>();
-		HashSet<HexTile> doneTiles = new HashSet<>();
-		todoTiles.add(startTile);
-		while (!todoTiles.isEmpty()) {
-			HexTile currentTile = todoTiles.removeFirst();
-			newKingdom.getTiles().add(currentTile);
-			currentTile.setKingdom(newKingdom);
-			doneTiles.add(currentTile);
-			for (HexTile expandTile : HexMapHelper.getNeighborTiles(gameState.getMap(), currentTile)) {
-				if (expandTile != null && !doneTiles.contains(expandTile) && !todoTiles.contains(expandTile)
-						&& expandTile.getKingdom() == oldKingdom) {
-					todoTiles.add(expandTile);
-				}
+		if (fragmentTileCount == oldKingdom.getTiles().size()) {
+			// all the parts were explored --> the biggest one stays in the old kingdom
+			fragments.remove(biggestFragment);
+		}
+		List<Kingdom> kingdoms = gameState.getKingdoms();
+		for (List<HexTile> fragment : fragments) {
+			// the kingdom must be added before its tiles so that the journal records them
+			Kingdom newKingdom = new Kingdom(oldKingdom.getPlayer());
+			kingdoms.add(newKingdom);
+			fragment.sort(Comparator.comparingInt(HexTile::getKingdomSequence));
+			boolean containsCapital = false;
+			for (HexTile fragmentTile : fragment) {
+				oldKingdom.getTiles().remove(fragmentTile);
+				fragmentTile.setKingdom(newKingdom);
+				newKingdom.getTiles().add(fragmentTile);
+				containsCapital |= fragmentTile.getContentKind() == MapObjectKind.CAPITAL;
+			}
+			if (containsCapital) {
+				// swap places so that the new kingdom continues the old one
+				newKingdom.setSavings(oldKingdom.getSavings());
+				newKingdom.setDoneMoving(oldKingdom.isDoneMoving());
+				newKingdom.setWasActiveInCurrentTurn(oldKingdom.isWasActiveInCurrentTurn());
+				kingdoms.set(kingdoms.indexOf(oldKingdom), newKingdom);
+				kingdoms.set(kingdoms.size() - 1, oldKingdom);
+			}
+			if (newKingdom.getTiles().size() < 2) {
+				dissolveKingdom(gameState, newKingdom);
+			} else if (!containsCapital) {
+				createCapital(newKingdom);
 			}
 		}
-		tiles.removeAll(newKingdom.getTiles());
+		if (oldKingdom.getTiles().size() < 2) {
+			dissolveKingdom(gameState, oldKingdom);
+		} else if (oldKingdom.getContentCount(MapObjectKind.CAPITAL) == 0) {
+			// the rest is like a new kingdom
+			oldKingdom.setSavings(0);
+			oldKingdom.setDoneMoving(false);
+			oldKingdom.setWasActiveInCurrentTurn(false);
+			createCapital(oldKingdom);
+		}
+	}
 
-		if (newKingdom.getTiles().size() < 2) {
-			// remove contents if kingdom is a single tile
-			for (HexTile tile : newKingdom.getTiles()) {
-				if (tile.getContent() != null) {
-					if (Capital.class.isAssignableFrom(tile.getContent().getClass())) {
-						spawnTree(gameState, tile);
-					} else if (Castle.class.isAssignableFrom(tile.getContent().getClass())) {
-						tile.setContent(null);
-					}
-				}
+	/** Removes a kingdom that is too small and the contents it doesn't need anymore. */
+	private static void dissolveKingdom(GameState gameState, Kingdom kingdom) {
+		for (HexTile tile : kingdom.getTiles()) {
+			switch (tile.getContentKind()) {
+			case CAPITAL:
+				spawnTree(gameState, tile);
+				break;
+			case CASTLE:
+				tile.setContent(null);
+				break;
+			default:
+				break;
 			}
-			startTile.setKingdom(null);
-			gameState.getKingdoms().remove(newKingdom);
-		} else if (capitalTile == null) {
-			// create capital if necessary
-			createCapital(newKingdom);
-		}
-		// recursive call with the tiles that are not connected
-		updateSplitKingdom(gameState, tiles);
-		// remove old empty kingdom
-		if (oldKingdom.getTiles().isEmpty()) {
-			gameState.getKingdoms().remove(oldKingdom);
+			tile.setKingdom(null);
 		}
+		gameState.getKingdoms().remove(kingdom);
 	}
 
 	/**
@@ -679,14 +779,21 @@ public class GameStateHelper {
 		// check win condition; the winner can change if a player recovers from
 		// a really bad situation
 		// tiles that belong to no kingdom are irrelevant as they help no player
-		int noOfKingdomTiles = gameState.getKingdoms().stream()
-				.collect(Collectors.summingInt(kingdom -> kingdom.getTiles().size()));
-		for (Kingdom kingdom : gameState.getKingdoms()) {
-			if (kingdom.getPlayer() == gameState.getActivePlayer()
-					&& kingdom.getTiles().size() >= noOfKingdomTiles * WIN_LANDMASS_PERCENTAGE) {
+		int noOfKingdomTiles = gameState.getKingdomTileCount();
+		assert noOfKingdomTiles == gameState.getKingdoms().stream()
+				.collect(Collectors.summingInt(kingdom -> kingdom.getTiles().size())) : String
+						.format("wrong kingdom tile count %s", noOfKingdomTiles);
+		Player endingPlayer = gameState.getActivePlayer();
+		for (Kingdom kingdom : gameState.getKingdoms(endingPlayer)) {
+			if (kingdom.getTiles().size() >= noOfKingdomTiles * WIN_LANDMASS_PERCENTAGE) {
 				gameState.setWinner(kingdom.getPlayer());
 			}
 		}
+		// reset wasActiveInCurrentTurn; only the kingdoms of the active player can be
+		// active
+		for (Kingdom kingdom : gameState.getKingdoms(endingPlayer)) {
+			kingdom.setWasActiveInCurrentTurn(false);
+		}
 		// update active player
 		gameState.setPlayerTurn(gameState.getPlayerTurn() + 1);
 		if (gameState.getPlayerTurn() >= gameState.getPlayers().size()) {
@@ -697,72 +804,65 @@ public class GameStateHelper {
 		}
 		progressBlockingObjects(gameState, gameState.getActivePlayer());
 		// check defeat condition
-		playerLoop: for (Player player : gameState.getPlayers()) {
-			if (player.isDefeated()) {
-				continue;
-			}
-			for (Kingdom kingdom : gameState.getKingdoms()) {
-				if (kingdom.getPlayer() == player) {
-					continue playerLoop;
-				}
+		for (Player player : gameState.getPlayers()) {
+			if (!player.isDefeated() && gameState.getKingdoms(player).isEmpty()) {
+				// player has no kingdoms --> is defeated
+				player.setDefeated(true);
 			}
-			// player has no kingdoms --> is defeated
-			player.setDefeated(true);
 		}
 		// reset active kingdom
 		gameState.setActiveKingdom(null);
-		for (Kingdom kingdom : gameState.getKingdoms()) {
-			// update savings
-			if (kingdom.getPlayer() == gameState.getActivePlayer()) {
-				kingdom.setSavings(kingdom.getSavings() + getKingdomIncome(kingdom));
-				if (kingdom.getSavings() < getKingdomSalaries(gameState, kingdom)) {
-					// kill all units if they cannot get paid
-					for (HexTile tile : kingdom.getTiles()) {
-						if (tile.getContent() != null
-								&& ClassReflection.isAssignableFrom(Unit.class, tile.getContent().getClass())) {
-							// spawn a gravestone
-							tile.setContent(new Gravestone());
-						}
+		// update savings
+		for (Kingdom kingdom : gameState.getKingdoms(gameState.getActivePlayer())) {
+			kingdom.setSavings(kingdom.getSavings() + getKingdomIncome(kingdom));
+			if (kingdom.getSavings() < getKingdomSalaries(gameState, kingdom)) {
+				// kill all units if they cannot get paid
+				for (HexTile tile : kingdom.getTiles()) {
+					if (tile.getContentKind() == MapObjectKind.UNIT) {
+						// spawn a gravestone
+						tile.setContent(Gravestone.INSTANCE);
 					}
-				} else {
-					kingdom.setSavings(kingdom.getSavings() - getKingdomSalaries(gameState, kingdom));
-					// reset canAct and hasActed state
-					for (HexTile tile : kingdom.getTiles()) {
-						if (tile.getContent() != null
-								&& ClassReflection.isAssignableFrom(Unit.class, tile.getContent().getClass())) {
-							((Unit) tile.getContent()).setCanAct(true);
-						}
+				}
+			} else {
+				kingdom.setSavings(kingdom.getSavings() - getKingdomSalaries(gameState, kingdom));
+				// reset canAct and hasActed state
+				for (HexTile tile : kingdom.getTiles()) {
+					if (tile.getContentKind() == MapObjectKind.UNIT) {
+						tile.setContent(Unit.of(((Unit) tile.getContent()).getUnitType(), true));
 					}
 				}
 			}
-			// reset wasActiveInCurrentTurn
-			kingdom.setWasActiveInCurrentTurn(false);
 		}
 		return gameState;
 	}
 
 	private static void spreadTrees(GameState gameState) {
-		Random random = new Random(gameState.hashCode());
+		Random random = new Random(gameState.getFingerprint());
 		// keep track of the tiles with trees that are new or have already participated
 		// in spreading; those shouldn't spread again in that turn
-		HashSet<HexTile> tileBlackList = new HashSet<>();
-		for (HexTile tile : gameState.getMap().values()) {
+		Set<HexTile> tileBlackList = new TileSet(gameState.getMap());
+		ArrayList<HexTile> candidates = new ArrayList<>(HexMapHelper.NEIGHBOR_COUNT);
+		// new trees are blacklisted right away, so only the trees that exist now need to
+		// be visited; in map order like before
+		Set<HexTile> treeTiles = new TileSet(gameState.getMap());
+		treeTiles.addAll(gameState.getMap().getTilesWithContent(MapObjectKind.TREE));
+		treeTiles.addAll(gameState.getMap().getTilesWithContent(MapObjectKind.PALM_TREE));
+		for (HexTile tile : treeTiles) {
 			if (tileBlackList.contains(tile)) {
 				continue;
 			}
-			if (tile.getContent() != null
-					&& ClassReflection.isAssignableFrom(Tree.class, tile.getContent().getClass())) {
+			if (tile.getContentKind() == MapObjectKind.TREE) {
 				// regular trees spread if they have another regular tree next to them
-				ArrayList<HexTile> candidates = new ArrayList<>();
+				candidates.clear();
 				HexTile neighborTreeTile = null;
-				for (HexTile neighbor : HexMapHelper.getNeighborTiles(gameState.getMap(), tile)) {
+				for (int i = 0; i < HexMapHelper.NEIGHBOR_COUNT; i++) {
+					HexTile neighbor = HexMapHelper.getNeighborTile(gameState.getMap(), tile, i);
 					if (neighbor == null) {
 						continue;
 					}
 					if (neighbor.getContent() == null && !isCoastTile(gameState, neighbor)) {
 						candidates.add(neighbor);
-					} else if (neighbor.getContent() != null
-							&& ClassReflection.isAssignableFrom(Tree.class, neighbor.getContent().getClass())
+					} else if (neighbor.getContentKind() == MapObjectKind.TREE
 							&& !tileBlackList.contains(neighbor)) {
 						neighborTreeTile = neighbor;
 					}
@@ -773,33 +873,37 @@ public class GameStateHelper {
 					tileBlackList.add(tile);
 					tileBlackList.add(newTreeTile);
 					tileBlackList.add(neighborTreeTile);
-					candidates.clear();
 				}
-			} else if (tile.getContent() != null
-					&& ClassReflection.isAssignableFrom(PalmTree.class, tile.getContent().getClass())) {
+			} else if (tile.getContentKind() == MapObjectKind.PALM_TREE) {
 				// palm trees always spread to a neighboring coast tile, if any
-				HexMapHelper
-						.getNeighborTiles(gameState.getMap(), tile).stream().filter(neighbor -> neighbor != null
-								&& neighbor.getContent() == null && isCoastTile(gameState, neighbor))
-						.limit(1).forEach(newTreeTile -> {
-							spawnTree(gameState, newTreeTile);
-							tileBlackList.add(newTreeTile);
-						});
+				for (int i = 0; i < HexMapHelper.NEIGHBOR_COUNT; i++) {
+					HexTile newTreeTile = HexMapHelper.getNeighborTile(gameState.getMap(), tile, i);
+					if (newTreeTile != null && newTreeTile.getContent() == null
+							&& isCoastTile(gameState, newTreeTile)) {
+						spawnTree(gameState, newTreeTile);
+						tileBlackList.add(newTreeTile);
+						break;
+					}
+				}
 			}
 		}
 	}
 
 	private static void progressBlockingObjects(GameState gameState, Player player) {
-		for (HexTile tile : gameState.getMap().values()) {
-			// gravestones become trees/palms at the start of the player turn
-			if (tile.getPlayer() == player && tile.getContent() != null) {
-				if (ClassReflection.isAssignableFrom(Gravestone.class, tile.getContent().getClass())) {
-					spawnTree(gameState, tile);
-				} else if (tile.getKingdom() == null
-						&& ClassReflection.isAssignableFrom(Unit.class, tile.getContent().getClass())) {
-					// cut off units become gravestones at the start of the player turn
-					tile.setContent(new Gravestone());
-				}
+		// gravestones become trees/palms at the start of the player turn
+		List<HexTile> gravestoneTiles = new ArrayList<>();
+		for (HexTile tile : gameState.getMap().getTilesWithContent(MapObjectKind.GRAVESTONE)) {
+			if (tile.getPlayer() == player) {
+				gravestoneTiles.add(tile);
+			}
+		}
+		for (HexTile tile : gravestoneTiles) {
+			spawnTree(gameState, tile);
+		}
+		for (HexTile tile : gameState.getUnattachedTiles(player)) {
+			if (tile.getContentKind() == MapObjectKind.UNIT) {
+				// cut off units become gravestones at the start of the player turn
+				tile.setContent(Gravestone.INSTANCE);
 			}
 		}
 	}
@@ -807,15 +911,15 @@ public class GameStateHelper {
 	/** Spawns a regular or palm tree depending on the position. */
 	private static void spawnTree(GameState gameState, HexTile tile) {
 		if (isCoastTile(gameState, tile)) {
-			tile.setContent(new PalmTree());
+			tile.setContent(PalmTree.INSTANCE);
 		} else {
-			tile.setContent(new Tree());
+			tile.setContent(Tree.INSTANCE);
 		}
 	}
 
 	/** Returns whether a tile is a coast tile (= next to water). */
 	private static boolean isCoastTile(GameState gameState, HexTile tile) {
-		return HexMapHelper.getNeighborTiles(gameState.getMap(), tile).contains(null);
+		return HexMapHelper.isCoastTile(gameState.getMap(), tile);
 	}
 
 	/**
@@ -825,7 +929,7 @@ public class GameStateHelper {
 	 */
 	public static void buyPeasant(GameState gameState) {
 		gameState.getActiveKingdom().setSavings(gameState.getActiveKingdom().getSavings() - Unit.COST);
-		gameState.setHeldObject(new Unit(UnitTypes.PEASANT));
+		gameState.setHeldObject(Unit.of(UnitTypes.PEASANT, true));
 	}
 
 	/**
@@ -835,28 +939,28 @@ public class GameStateHelper {
 	 */
 	public static void buyCastle(GameState gameState) {
 		gameState.getActiveKingdom().setSavings(gameState.getActiveKingdom().getSavings() - Castle.COST);
-		gameState.setHeldObject(new Castle());
+		gameState.setHeldObject(Castle.INSTANCE);
 	}
 
 	/**
 	 * Places a new tile.
 	 * 
 	 * @param gameState GameState to act on
-	 * @param hexCoords coords for the tile
+	 * @param hexCoords packed coords for the tile, see {@link HexCoords}
 	 * @param player    player that should own the tile
 	 */
-	public static void placeTile(GameState gameState, Vector2 hexCoords, Player player) {
+	public static void placeTile(GameState gameState, long hexCoords, Player player) {
 		HexTile newTile = new HexTile(player, hexCoords);
-		gameState.getMap().put(hexCoords, newTile);
+		gameState.getMap().put(newTile);
 	}
 
 	/**
 	 * Deletes a tile.
 	 * 
 	 * @param gameState GameState to act on
-	 * @param hexCoords coords of the tile
+	 * @param hexCoords packed coords of the tile, see {@link HexCoords}
 	 */
-	public static void deleteTile(GameState gameState, Vector2 hexCoords) {
+	public static void deleteTile(GameState gameState, long hexCoords) {
 		gameState.getMap().remove(hexCoords);
 	}
 
@@ -869,17 +973,8 @@ public class GameStateHelper {
 	 * @return protection level
 	 */
 	public static int getProtectionLevel(GameState gameState, HexTile tile) {
-		int protectionLevel = 0;
-		if (tile.getContent() != null) {
-			protectionLevel = tile.getContent().getStrength();
-		}
-		for (HexTile neighbor : HexMapHelper.getNeighborTiles(gameState.getMap(), tile)) {
-			if (neighbor != null && neighbor.getKingdom() != null && tile.getKingdom() == neighbor.getKingdom()
-					&& neighbor.getContent() != null && neighbor.getContent().getStrength() > protectionLevel) {
-				protectionLevel = neighbor.getContent().getStrength();
-			}
-		}
-		return protectionLevel;
+		// maintained by the map
+		return gameState.getMap().getProtectionLevel(tile);
 	}
 
 	/**
@@ -889,12 +984,9 @@ public class GameStateHelper {
 	 * @return income
 	 */
 	public static int getKingdomIncome(Kingdom kingdom) {
+		assert kingdom.hasCorrectCounters() : String.format("wrong counters in kingdom %s", kingdom);
 		// number of tiles - trees & palms
-		return kingdom.getTiles().size() - (int) kingdom.getTiles().stream()
-				.filter(tile -> tile.getContent() != null
-						&& (ClassReflection.isAssignableFrom(Tree.class, tile.getContent().getClass())
-								|| ClassReflection.isAssignableFrom(PalmTree.class, tile.getContent().getClass())))
-				.count();
+		return kingdom.getTiles().size() - kingdom.getTreeCount();
 	}
 
 	/**
@@ -904,14 +996,12 @@ public class GameStateHelper {
 	 * @return salaries
 	 */
 	public static int getKingdomSalaries(GameState gameState, Kingdom kingdom) {
+		assert kingdom.hasCorrectCounters() : String.format("wrong counters in kingdom %s", kingdom);
 		// sum of the salaries of all the units
-		int result = kingdom.getTiles().stream()
-				.filter(tile -> tile.getContent() != null
-						&& ClassReflection.isAssignableFrom(Unit.class, tile.getContent().getClass()))
-				.mapToInt(tile -> ((Unit) tile.getContent()).getUnitType().salary()).sum();
+		int result = kingdom.getSalarySum();
 		// if there is a held unit, subtract their salary
 		if (gameState.getHeldObject() != null
-				&& ClassReflection.isAssignableFrom(Unit.class, gameState.getHeldObject().getClass())) {
+				&& gameState.getHeldObject().getKind() == MapObjectKind.UNIT) {
 			result += ((Unit) gameState.getHeldObject()).getUnitType().salary();
 		}
 		return result;
@@ -925,28 +1015,20 @@ public class GameStateHelper {
 	 * @return whether it is the case
 	 */
 	public static boolean hasActivePlayerlikelyForgottenKingom(GameState gameState) {
-		for (Kingdom kingdom : gameState.getKingdoms()) {
-			if (kingdom.getPlayer() == gameState.getActivePlayer() && !kingdom.isWasActiveInCurrentTurn()) {
+		for (Kingdom kingdom : gameState.getKingdoms(gameState.getActivePlayer())) {
+			if (!kingdom.isWasActiveInCurrentTurn()) {
 				// can buy castle or any unit that is more expensive
 				if (InputValidationHelper.checkBuyObject(gameState, gameState.getActivePlayer(), Castle.COST)) {
 					return true;
 				}
 				// has unit stronger than peasant
-				boolean hasPeasant = false;
-				boolean hasTree = false;
-				for (HexTile tile : kingdom.getTiles()) {
-					if (tile.getContent() != null
-							&& ClassReflection.isAssignableFrom(Unit.class, tile.getContent().getClass())) {
-						if (tile.getContent().getStrength() > 1) {
-							return true;
-						} else if (((Unit) tile.getContent()).getUnitType() == UnitTypes.PEASANT) {
-							hasPeasant = true;
-						}
-					} else if (tile.getContent() != null
-							&& ClassReflection.isAssignableFrom(Tree.class, tile.getContent().getClass())) {
-						hasTree = true;
+				for (UnitTypes unitType : UnitTypes.values()) {
+					if (unitType.strength() > 1 && kingdom.getUnitCount(unitType) > 0) {
+						return true;
 					}
 				}
+				boolean hasPeasant = kingdom.getUnitCount(UnitTypes.PEASANT) > 0;
+				boolean hasTree = kingdom.getContentCount(MapObjectKind.TREE) > 0;
 				boolean canBuyPeasant = kingdom.getSavings() >= Unit.COST;
 				// has or can get peasant that can conquer something or destroy tree
 				if (hasPeasant || canBuyPeasant) {
@@ -955,7 +1037,8 @@ public class GameStateHelper {
 					}
 					// there is a neighbor tile which can be conquered by the peasant
 					for (HexTile tile : kingdom.getTiles()) {
-						for (HexTile neighborTile : HexMapHelper.getNeighborTiles(gameState.getMap(), tile)) {
+						for (int i = 0; i < HexMapHelper.NEIGHBOR_COUNT; i++) {
+							HexTile neighborTile = HexMapHelper.getNeighborTile(gameState.getMap(), tile, i);
 							if (neighborTile != null && neighborTile.getKingdom() != tile.getKingdom()
 									&& getProtectionLevel(gameState, neighborTile) == 0) {
 								return true;
@@ -0,0 +1,84 @@
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package de.sesu8642.feudaltactics.lib.gamestate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Journal of the changes made to a game state, so they can be reversed in place
+ * without copying or serializing anything. Every setter of the game state, its
+ * tiles, kingdoms and players records how to reverse its change while the
+ * journal is started. Rolling back to a mark reverses the changes made since in
+ * reverse order, which takes time proportional to their number. Adding or
+ * removing tiles of the map (in the editor) is not recorded. Start a journal
+ * with {@link GameStateHelper#startJournal(GameState)}.
+ **/
+public final class GameStateJournal {
+
+	private final GameState gameState;
+	// actions reversing the changes, in the order of the changes
+	private final List<Runnable> undoActions = new ArrayList<>();
+	private boolean started = true;
+	// the changes made while rolling back must not be recorded
+	private boolean rollingBack = false;
+
+	GameStateJournal(GameState gameState) {
+		if (gameState.getJournal() != null) {
+			throw new IllegalStateException("There is a journal for the game state already.");
+		}
+		this.gameState = gameState;
+		gameState.setJournal(this);
+	}
+
+	/**
+	 * Returns a mark for the current state.
+	 *
+	 * @return mark to pass to {@link #rollback(int)}
+	 */
+	public int mark() {
+		return undoActions.size();
+	}
+
+	/**
+	 * Reverses all the changes made since a mark was taken.
+	 *
+	 * @param mark mark returned by {@link #mark()}; marks taken after it become
+	 *             invalid
+	 */
+	public void rollback(int mark) {
+		if (!started) {
+			throw new IllegalStateException("The journal was stopped.");
+		}
+		if (mark < 0 || mark > undoActions.size()) {
+			throw new IllegalArgumentException(String.format("Invalid mark %s.", mark));
+		}
+		rollingBack = true;
+		try {
+			for (int i = undoActions.size() - 1; i >= mark; i--) {
+				undoActions.remove(i).run();
+			}
+		} finally {
+			rollingBack = false;
+		}
+	}
+
+	/** Stops recording changes and detaches the journal from the game state. */
+	public void stop() {
+		started = false;
+		undoActions.clear();
+		gameState.setJournal(null);
+	}
+
+	/**
+	 * Records a change.
+	 *
+	 * @param undoAction action that reverses the change
+	 */
+	void record(Runnable undoAction) {
+		if (started && !rollingBack) {
+			undoActions.add(undoAction);
+		}
+	}
+
+}
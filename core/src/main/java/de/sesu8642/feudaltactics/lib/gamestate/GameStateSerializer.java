@@ -4,9 +4,9 @@ package de.sesu8642.feudaltactics.lib.gamestate;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.Map;
 
+import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.Json.Serializer;
 import com.badlogic.gdx.utils.JsonValue;
@@ -33,6 +33,8 @@ public class GameStateSerializer implements Serializer<GameState> {
 	private static final String CLASS_NAME = "class";
 	private static final String CONTENT_NAME = "content";
 	private static final String POSITION_NAME = "position";
+	private static final String X_NAME = "x";
+	private static final String Y_NAME = "y";
 	private static final String PLAYER_ID_NAME = "player_id";
 	private static final String TILES_NAME = "tiles";
 	private static final String ID_NAME = "id";
@@ -41,6 +43,8 @@ public class GameStateSerializer implements Serializer<GameState> {
 	private static final String SEED_NAME = "seed";
 	private static final String ROUND_FIELD_NAME = "round";
 	private static final String ROUND_NAME = "round";
+	private static final String UNIT_TYPE_FIELD_NAME = "unitType";
+	private static final String CAN_ACT_FIELD_NAME = "canAct";
 
 	Integer lastId = 0;
 
@@ -73,7 +77,7 @@ public class GameStateSerializer implements Serializer<GameState> {
 			json.writeObjectStart();
 			json.writeValue(ID_NAME, getId(idMap, tile));
 			json.writeValue(PLAYER_ID_NAME, getId(idMap, tile.getPlayer()));
-			json.writeField(tile, POSITION_NAME);
+			json.writeValue(POSITION_NAME, tile.getPosition(), Vector2.class);
 			if (tile.getContent() != null) {
 				json.writeObjectStart(CONTENT_NAME);
 				json.writeValue(ID_NAME, getId(idMap, tile.getContent()));
@@ -132,30 +136,24 @@ public class GameStateSerializer implements Serializer<GameState> {
 			reverseIdMap.put(id, player);
 			result.getPlayers().add(player);
 		});
-		result.setMap(new LinkedHashMap<>());
+		result.setMap(new HexMap());
 		JsonValue tilesJson = jsonData.get(TILES_NAME);
 		tilesJson.forEach(tileJson -> {
 			final int id = tileJson.getInt(ID_NAME);
 			final int playerId = tileJson.getInt(PLAYER_ID_NAME);
-			tileJson.remove(ID_NAME);
-			tileJson.remove(PLAYER_ID_NAME);
+			JsonValue positionJson = tileJson.get(POSITION_NAME);
+			long coords = HexCoords.pack((int) positionJson.getFloat(X_NAME), (int) positionJson.getFloat(Y_NAME));
+			HexTile tile = new HexTile((Player) reverseIdMap.get(playerId), coords);
 			JsonValue contentJson = tileJson.get(CONTENT_NAME);
-			int contentId = -1;
 			if (contentJson != null) {
-				contentId = contentJson.getInt(ID_NAME);
+				int contentId = contentJson.getInt(ID_NAME);
 				contentJson.remove(ID_NAME);
-				// replace short class name with full one
-				String shortClassName = contentJson.getString(CLASS_NAME);
-				contentJson.remove(CLASS_NAME);
-				contentJson.addChild(CLASS_NAME, new JsonValue(MAPOBJECTS_CLASS_BASE_NAME + shortClassName));
+				MapObject content = readMapObject(json, contentJson);
+				tile.setContent(content);
+				reverseIdMap.put(contentId, content);
 			}
-			HexTile tile = json.fromJson(HexTile.class, tileJson.toString());
-			if (tile.getContent() != null) {
-				reverseIdMap.put(contentId, tile.getContent());
-			}
-			tile.setPlayer((Player) reverseIdMap.get(playerId));
 			reverseIdMap.put(id, tile);
-			result.getMap().put(tile.getPosition(), tile);
+			result.getMap().put(tile);
 		});
 		result.setKingdoms(new ArrayList<>());
 		JsonValue kingdomsJson = jsonData.get(KINGDOMS_NAME);
@@ -179,13 +177,8 @@ public class GameStateSerializer implements Serializer<GameState> {
 		});
 		if (jsonData.has(HELD_OBJ_NAME)) {
 			JsonValue heldObjJson = jsonData.get(HELD_OBJ_NAME);
-			// replace short class name with full one
-			String shortClassName = heldObjJson.getString(CLASS_NAME);
-			heldObjJson.remove(CLASS_NAME);
-			heldObjJson.addChild(CLASS_NAME, new JsonValue(MAPOBJECTS_CLASS_BASE_NAME + shortClassName));
 			heldObjJson.remove(KINGDOM_FIELD_NAME);
-			// toString causes an error here... maybe because of the enum?
-			MapObject heldObject = json.fromJson(MapObject.class, heldObjJson.prettyPrint(OutputType.json, 1));
+			MapObject heldObject = readMapObject(json, heldObjJson);
 			result.setHeldObject(heldObject);
 		}
 		result.setPlayerTurn(jsonData.getInt(PLAYER_TURN_NAME));
@@ -214,4 +207,38 @@ public class GameStateSerializer implements Serializer<GameState> {
 		return result;
 	}
 
+	/**
+	 * Reads a map object. Returns the shared instances instead of creating new
+	 * objects where possible.
+	 * 
+	 * @param json       json to use for unknown classes
+	 * @param objectJson serialized map object including the short class name
+	 * @return map object
+	 */
+	private static MapObject readMapObject(Json json, JsonValue objectJson) {
+		String shortClassName = objectJson.getString(CLASS_NAME);
+		switch (shortClassName) {
+		case "Capital":
+			return Capital.INSTANCE;
+		case "Castle":
+			return Castle.INSTANCE;
+		case "Tree":
+			return Tree.INSTANCE;
+		case "PalmTree":
+			return PalmTree.INSTANCE;
+		case "Gravestone":
+			return Gravestone.INSTANCE;
+		case "Unit":
+			// canAct is left out if it has the default value
+			return Unit.of(Unit.UnitTypes.valueOf(objectJson.getString(UNIT_TYPE_FIELD_NAME)),
+					objectJson.getBoolean(CAN_ACT_FIELD_NAME, true));
+		default:
+			// replace short class name with full one
+			objectJson.remove(CLASS_NAME);
+			objectJson.addChild(CLASS_NAME, new JsonValue(MAPOBJECTS_CLASS_BASE_NAME + shortClassName));
+			// toString causes an error here... maybe because of the enum?
+			return json.fromJson(MapObject.class, objectJson.prettyPrint(OutputType.json, 1));
+		}
+	}
+
 }
@@ -0,0 +1,180 @@
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package de.sesu8642.feudaltactics.lib.gamestate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.sesu8642.feudaltactics.lib.ingame.botai.Intelligence;
+
+/**
+ * Immutable snapshot of a {@link GameState}. The tiles are not copied: the
+ * snapshot shares the encoded tile chunks of the map, which copies a chunk
+ * before changing it the next time. Taking a snapshot therefore only copies the
+ * players and kingdoms. Snapshots can be turned back into game states on any
+ * thread.
+ **/
+public final class GameStateSnapshot {
+
+	private final int[][] tileChunks;
+	private final int tileCount;
+	// copies of the players of the game state
+	private final List<Player> players;
+	// copies of the players of the encoded tiles; the same instances as in players
+	// if they are part of the game
+	private final List<Player> encodedPlayers;
+	private final int[] kingdomIds;
+	// index of the owner in players; -1 if there is none
+	private final int[] kingdomPlayerIndices;
+	private final int[] kingdomSavings;
+	private final boolean[] kingdomsDoneMoving;
+	private final boolean[] kingdomsWasActiveInCurrentTurn;
+	private final boolean hasKingdoms;
+	// index in the kingdoms; -1 if there is none
+	private final int activeKingdomIndex;
+	private final Player winner;
+	private final MapObject heldObject;
+	private final int playerTurn;
+	private final int round;
+	private final Long seed;
+	private final Intelligence botIntelligence;
+
+	GameStateSnapshot(GameState gameState) {
+		HexMap map = gameState.getMap();
+		tileChunks = map.shareEncodedTiles();
+		tileCount = map.size();
+
+		Map<Player, Player> copiedPlayers = new IdentityHashMap<>();
+		Map<Player, Integer> playerIndices = new IdentityHashMap<>();
+		players = new ArrayList<>(gameState.getPlayers().size());
+		for (Player player : gameState.getPlayers()) {
+			Player copy = Player.copyOf(player);
+			copiedPlayers.put(player, copy);
+			playerIndices.put(player, players.size());
+			players.add(copy);
+		}
+		encodedPlayers = new ArrayList<>();
+		for (Player player : map.getEncodedPlayers()) {
+			Player copy = copiedPlayers.get(player);
+			if (copy == null) {
+				copy = Player.copyOf(player);
+			}
+			encodedPlayers.add(copy);
+		}
+		winner = gameState.getWinner() == null ? null : copiedPlayers.get(gameState.getWinner());
+
+		List<Kingdom> kingdoms = gameState.getKingdoms();
+		hasKingdoms = kingdoms != null;
+		int kingdomCount = hasKingdoms ? kingdoms.size() : 0;
+		kingdomIds = new int[kingdomCount];
+		kingdomPlayerIndices = new int[kingdomCount];
+		kingdomSavings = new int[kingdomCount];
+		kingdomsDoneMoving = new boolean[kingdomCount];
+		kingdomsWasActiveInCurrentTurn = new boolean[kingdomCount];
+		int activeIndex = -1;
+		for (int i = 0; i < kingdomCount; i++) {
+			Kingdom kingdom = kingdoms.get(i);
+			kingdomIds[i] = kingdom.getId();
+			kingdomPlayerIndices[i] = playerIndices.getOrDefault(kingdom.getPlayer(), -1);
+			kingdomSavings[i] = kingdom.getSavings();
+			kingdomsDoneMoving[i] = kingdom.isDoneMoving();
+			kingdomsWasActiveInCurrentTurn[i] = kingdom.isWasActiveInCurrentTurn();
+			if (kingdom == gameState.getActiveKingdom()) {
+				activeIndex = i;
+			}
+		}
+		activeKingdomIndex = activeIndex;
+
+		heldObject = gameState.getHeldObject() == null ? null : gameState.getHeldObject().getCopy();
+		playerTurn = gameState.getPlayerTurn();
+		round = gameState.getRound();
+		seed = gameState.getSeed();
+		botIntelligence = gameState.getBotIntelligence();
+	}
+
+	/**
+	 * Creates a new game state that is equal to the one this snapshot was taken
+	 * of. The tiles of the kingdoms are in the same order as they were.
+	 *
+	 * @return new game state
+	 */
+	public GameState toGameState() {
+		GameState result = new GameState();
+
+		Map<Player, Player> copiedPlayers = new IdentityHashMap<>();
+		List<Player> newPlayers = new ArrayList<>(players.size());
+		for (Player player : players) {
+			newPlayers.add(copyPlayer(copiedPlayers, player));
+		}
+		result.setPlayers(newPlayers);
+		if (winner != null) {
+			result.setWinner(copyPlayer(copiedPlayers, winner));
+		}
+
+		Map<Integer, Kingdom> kingdomsById = new HashMap<>();
+		Map<Kingdom, List<HexTile>> kingdomTiles = new IdentityHashMap<>();
+		if (hasKingdoms) {
+			List<Kingdom> newKingdoms = new ArrayList<>(kingdomIds.length);
+			for (int i = 0; i < kingdomIds.length; i++) {
+				Kingdom kingdom = new Kingdom(
+						kingdomPlayerIndices[i] < 0 ? null : newPlayers.get(kingdomPlayerIndices[i]));
+				kingdom.setSavings(kingdomSavings[i]);
+				kingdom.setDoneMoving(kingdomsDoneMoving[i]);
+				kingdom.setWasActiveInCurrentTurn(kingdomsWasActiveInCurrentTurn[i]);
+				kingdomsById.put(kingdomIds[i], kingdom);
+				kingdomTiles.put(kingdom, new ArrayList<>());
+				newKingdoms.add(kingdom);
+			}
+			result.setKingdoms(newKingdoms);
+			if (activeKingdomIndex >= 0) {
+				result.setActiveKingdom(newKingdoms.get(activeKingdomIndex));
+			}
+		}
+
+		HexMap map = new HexMap();
+		for (int id = 0; id < tileCount; id++) {
+			int playerAndContent = TileChunks.get(tileChunks, id, TileChunks.PLAYER_AND_CONTENT);
+			int playerIndex = TileChunks.decodePlayerIndex(playerAndContent);
+			Player player = null;
+			if (playerIndex > 0) {
+				player = copyPlayer(copiedPlayers, encodedPlayers.get(playerIndex - 1));
+			}
+			HexTile tile = new HexTile(player, HexCoords.pack(TileChunks.get(tileChunks, id, TileChunks.Q),
+					TileChunks.get(tileChunks, id, TileChunks.R)));
+			tile.setContent(TileChunks.decodeContent(playerAndContent));
+			Kingdom kingdom = kingdomsById.get(TileChunks.get(tileChunks, id, TileChunks.KINGDOM_ID));
+			if (kingdom != null) {
+				tile.setKingdom(kingdom);
+				// remember the old position in the kingdom for sorting
+				tile.setKingdomSequence(TileChunks.get(tileChunks, id, TileChunks.KINGDOM_SEQUENCE));
+				kingdomTiles.get(kingdom).add(tile);
+			}
+			map.put(tile);
+		}
+		result.setMap(map);
+		for (Map.Entry<Kingdom, List<HexTile>> entry : kingdomTiles.entrySet()) {
+			List<HexTile> tiles = entry.getValue();
+			Collections.sort(tiles, Comparator.comparingInt(HexTile::getKingdomSequence));
+			entry.getKey().setTiles(tiles);
+		}
+
+		if (heldObject != null) {
+			result.setHeldObject(heldObject.getCopy());
+		}
+		result.setPlayerTurn(playerTurn);
+		result.setRound(round);
+		result.setSeed(seed);
+		result.setBotIntelligence(botIntelligence);
+		return result;
+	}
+
+	private static Player copyPlayer(Map<Player, Player> copiedPlayers, Player player) {
+		return copiedPlayers.computeIfAbsent(player, Player::copyOf);
+	}
+
+}
@@ -12,6 +12,9 @@ public class Gravestone implements MapObject, Blocking {
 	public static final String SPRITE_NAME = "gravestone";
 	private static final int STRENGTH = 0;
 
+	// shared instance; gravestones have no state
+	public static final Gravestone INSTANCE = new Gravestone();
+
 	@Override
 	public String getSpriteName() {
 		return SPRITE_NAME;
@@ -22,9 +25,15 @@ public class Gravestone implements MapObject, Blocking {
 		return STRENGTH;
 	}
 
+	@Override
+	public MapObjectKind getKind() {
+		return MapObjectKind.GRAVESTONE;
+	}
+
 	@Override
 	public Gravestone getCopy() {
-		return new Gravestone();
+		// no state to copy
+		return this;
 	}
 
 	@Override
@@ -0,0 +1,103 @@
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package de.sesu8642.feudaltactics.lib.gamestate;
+
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * Contains functions for hex coordinates packed into a single long. The axial
+ * coordinates q (x) and r (y) are stored in the upper and lower 32 bits.
+ * Packed coordinates can be compared with == and used as primitive map keys,
+ * so no objects need to be created for them. Vector2 is only used at the
+ * boundary to world coordinates and rendering.
+ **/
+public class HexCoords {
+
+	// prevent instantiation
+	private HexCoords() {
+		throw new AssertionError();
+	}
+
+	/**
+	 * Packs axial coordinates into a long.
+	 *
+	 * @param q first axial coordinate (x)
+	 * @param r second axial coordinate (y)
+	 * @return packed coordinates
+	 */
+	public static long pack(int q, int r) {
+		return ((long) q << 32) | (r & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Returns the first axial coordinate (x) of packed coordinates.
+	 *
+	 * @param coords packed coordinates
+	 * @return q coordinate
+	 */
+	public static int getQ(long coords) {
+		return (int) (coords >> 32);
+	}
+
+	/**
+	 * Returns the second axial coordinate (y) of packed coordinates.
+	 *
+	 * @param coords packed coordinates
+	 * @return r coordinate
+	 */
+	public static int getR(long coords) {
+		return (int) coords;
+	}
+
+	/**
+	 * Packs hex coordinates given as a vector.
+	 *
+	 * @param hexCoords hex coordinates; must be integers
+	 * @return packed coordinates
+	 */
+	public static long fromVector(Vector2 hexCoords) {
+		int q = (int) hexCoords.x;
+		int r = (int) hexCoords.y;
+		if (q != hexCoords.x || r != hexCoords.y) {
+			throw new IllegalArgumentException(String.format("Coordinates %s are not hex coordinates.", hexCoords));
+		}
+		return pack(q, r);
+	}
+
+	/**
+	 * Creates a vector from packed hex coordinates.
+	 *
+	 * @param coords packed coordinates
+	 * @return new vector
+	 */
+	public static Vector2 toVector(long coords) {
+		// adding 0 to avoid negative zero
+		return new Vector2(getQ(coords) + 0.0F, getR(coords) + 0.0F);
+	}
+
+	/**
+	 * Compares two packed coordinates by q first and then by r.
+	 *
+	 * @param coords1 first packed coordinates
+	 * @param coords2 second packed coordinates
+	 * @return comparison result like in {@link Comparable#compareTo}
+	 */
+	public static int compare(long coords1, long coords2) {
+		int result = Integer.compare(getQ(coords1), getQ(coords2));
+		if (result == 0) {
+			result = Integer.compare(getR(coords1), getR(coords2));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a readable representation of packed coordinates.
+	 *
+	 * @param coords packed coordinates
+	 * @return string representation
+	 */
+	public static String toString(long coords) {
+		return String.format("(%s,%s)", getQ(coords), getR(coords));
+	}
+
+}
@@ -0,0 +1,885 @@
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package de.sesu8642.feudaltactics.lib.gamestate;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * Map of the tiles of a game, keyed by their hex coordinates. The tiles are
+ * stored in a dense grid array that is indexed by the axial coordinates, so a
+ * lookup does not need to hash anything. Iteration happens in insertion order
+ * like for a {@link java.util.LinkedHashMap} to avoid randomness. Every tile
+ * gets an id that is its index in this order. The neighbors of every tile are
+ * stored in an adjacency table that is updated whenever tiles are added or
+ * removed, together with a mask of the sides that border water. The protection
+ * level of every tile is kept up to date as well; the tiles notify their map
+ * when their content or kingdom changes. Finally, an encoded copy of all tiles
+ * is maintained in chunks that snapshots can share, see
+ * {@link GameStateSnapshot}, together with a fingerprint of all tiles, see
+ * {@link FingerprintHelper}. Along with the encoding, the number of kingdom
+ * tiles and the tiles without a kingdom are tracked for every player, and the
+ * tiles with each kind of content are tracked for the whole map.
+ **/
+public class HexMap extends AbstractMap<Vector2, HexTile> {
+
+	private static final int INITIAL_GRID_SIZE = 16;
+	private static final int INITIAL_CAPACITY = 64;
+	private static final int NEIGHBOR_COUNT = HexMapHelper.NEIGHBOR_COUNT;
+
+	// grid of tiles; the index of a tile is (q - minQ) * width + (r - minR)
+	private HexTile[] grid = new HexTile[0];
+	private int minQ = 0;
+	private int minR = 0;
+	// number of grid cells per q coordinate
+	private int width = 0;
+	// number of grid cells per r coordinate
+	private int height = 0;
+
+	// tiles in insertion order; the index is the id of the tile
+	private HexTile[] tiles = new HexTile[INITIAL_CAPACITY];
+	private int size = 0;
+	// incremented whenever existing tiles get new ids, which invalidates all the
+	// tile sets of the map
+	private int idGeneration = 0;
+
+	// ids of the neighbors of each tile: the neighbors of the tile with id i are
+	// stored at i * NEIGHBOR_COUNT in the order of HexMapHelper.getNeighborCoords;
+	// -1 means water
+	private int[] adjacency = new int[INITIAL_CAPACITY * NEIGHBOR_COUNT];
+
+	// water edge mask of every tile: bit i is set if there is water at neighbor
+	// index i; derived from the adjacency table and updated with it
+	private byte[] waterEdges = new byte[INITIAL_CAPACITY];
+
+	// protection level of every tile, see getProtectionLevel
+	private byte[] protectionLevels = new byte[INITIAL_CAPACITY];
+
+	// scratch marks for searches on the map; a mark is only valid if its stamp
+	// matches the current one, so clearing all of them is just an increment
+	private int[] marks = new int[INITIAL_CAPACITY];
+	private int[] markStamps = new int[INITIAL_CAPACITY];
+	private int currentMarkStamp = 1;
+
+	// encoded copy of the tiles that snapshots can share
+	private final TileChunks encodedTiles = new TileChunks();
+	// players of the encoded tiles; the encoded player index is the index in this
+	// list plus one, 0 means no player
+	private final List<Player> encodedPlayers = new ArrayList<>();
+
+	// fingerprint key of every tile and the XOR of all of them
+	private long[] tileKeys = new long[INITIAL_CAPACITY];
+	private long tileFingerprint = 0;
+
+	// owner state of every tile as counted below: the encoded player index shifted
+	// left by one, plus one if the tile belongs to a kingdom
+	private int[] tileOwners = new int[INITIAL_CAPACITY];
+	private int kingdomTileCount = 0;
+	// number of kingdom tiles of every player, indexed by the encoded player index
+	private int[] playerKingdomTileCounts = new int[1];
+	// tiles of every player that belong to no kingdom; index is the encoded player
+	// index minus one
+	private final List<TileSet> playerUnattachedTiles = new ArrayList<>();
+
+	// content kind ordinal of every tile as indexed below
+	private byte[] tileContentKinds = new byte[INITIAL_CAPACITY];
+	// tiles with each kind of content, indexed by the kind ordinal; null for NONE
+	private final TileSet[] contentTiles = new TileSet[MapObjectKind.values().length];
+
+	// journal recording the changes of the tiles; null if there is none
+	private GameStateJournal journal;
+
+	// tiles whose player, kingdom or content changed since tracking started; null if
+	// changes are not tracked
+	private TileSet changedTiles;
+
+	// incremented on every structural change to make iterators fail fast
+	private int modCount = 0;
+
+	private EntrySet entrySet;
+	private Values values;
+
+	public HexMap() {
+		// map is empty initially
+		for (MapObjectKind kind : MapObjectKind.values()) {
+			if (kind != MapObjectKind.NONE) {
+				contentTiles[kind.ordinal()] = new TileSet(this);
+			}
+		}
+	}
+
+	/**
+	 * Returns the tile on the given hex coordinates.
+	 *
+	 * @param coords packed hex coordinates, see {@link HexCoords}
+	 * @return tile or null if there is none
+	 */
+	public HexTile getTile(long coords) {
+		return getTile(HexCoords.getQ(coords), HexCoords.getR(coords));
+	}
+
+	/**
+	 * Returns the tile on the given hex coordinates.
+	 *
+	 * @param q first axial coordinate (x)
+	 * @param r second axial coordinate (y)
+	 * @return tile or null if there is none
+	 */
+	public HexTile getTile(int q, int r) {
+		int gridIndex = getGridIndex(q, r);
+		if (gridIndex < 0) {
+			return null;
+		}
+		return grid[gridIndex];
+	}
+
+	@Override
+	public HexTile get(Object key) {
+		if (!(key instanceof Vector2)) {
+			return null;
+		}
+		Vector2 coords = (Vector2) key;
+		int q = (int) coords.x;
+		int r = (int) coords.y;
+		if (q != coords.x || r != coords.y) {
+			// tiles only exist on integer coordinates
+			return null;
+		}
+		return getTile(q, r);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return get(key) != null;
+	}
+
+	/**
+	 * Puts a tile into the map. The key must be the position of the tile. If there
+	 * already is a tile on that position, it is replaced and keeps its place in the
+	 * iteration order.
+	 */
+	@Override
+	public HexTile put(Vector2 key, HexTile tile) {
+		if (tile == null || HexCoords.fromVector(key) != tile.getCoords()) {
+			throw new IllegalArgumentException(
+					String.format("Tile %s cannot be put into the map with key %s.", tile, key));
+		}
+		return put(tile);
+	}
+
+	/**
+	 * Puts a tile into the map on its position. If there already is a tile on that
+	 * position, it is replaced and keeps its place in the iteration order.
+	 *
+	 * @param tile tile to put
+	 * @return replaced tile or null if there was none
+	 */
+	public HexTile put(HexTile tile) {
+		ensureGridContains(tile.getQ(), tile.getR());
+		int gridIndex = getGridIndex(tile.getQ(), tile.getR());
+		HexTile oldTile = grid[gridIndex];
+		grid[gridIndex] = tile;
+		if (oldTile != null) {
+			// the new tile takes the place of the old one; the neighbors stay the same
+			tile.setId(oldTile.getId());
+			oldTile.setId(-1);
+			oldTile.setMap(null);
+			tiles[tile.getId()] = tile;
+			tile.setMap(this);
+			tileChanged(tile);
+			return oldTile;
+		}
+		ensureCapacity(size + 1);
+		int id = size;
+		tile.setId(id);
+		tiles[id] = tile;
+		size++;
+		int tileWaterEdges = 0;
+		for (int i = 0; i < NEIGHBOR_COUNT; i++) {
+			HexTile neighbor = getTile(HexMapHelper.getNeighborCoords(tile.getCoords(), i));
+			if (neighbor == null) {
+				adjacency[id * NEIGHBOR_COUNT + i] = -1;
+				tileWaterEdges |= 1 << i;
+			} else {
+				adjacency[id * NEIGHBOR_COUNT + i] = neighbor.getId();
+				adjacency[neighbor.getId() * NEIGHBOR_COUNT + getOppositeNeighborIndex(i)] = id;
+				waterEdges[neighbor.getId()] &= ~(1 << getOppositeNeighborIndex(i));
+			}
+		}
+		waterEdges[id] = (byte) tileWaterEdges;
+		tile.setMap(this);
+		tileChanged(tile);
+		modCount++;
+		return null;
+	}
+
+	@Override
+	public HexTile remove(Object key) {
+		HexTile tile = get(key);
+		if (tile == null) {
+			return null;
+		}
+		removeTile(tile);
+		return tile;
+	}
+
+	/**
+	 * Removes the tile on the given hex coordinates.
+	 *
+	 * @param coords packed hex coordinates, see {@link HexCoords}
+	 * @return removed tile or null if there was none
+	 */
+	public HexTile remove(long coords) {
+		HexTile tile = getTile(coords);
+		if (tile == null) {
+			return null;
+		}
+		removeTile(tile);
+		return tile;
+	}
+
+	/**
+	 * Removes a tile. The ids of all tiles after it are shifted to keep them dense.
+	 * This is linear in the number of tiles but only happens in the editor. All
+	 * tile sets of the map become invalid and tracking the changes stops.
+	 */
+	private void removeTile(HexTile tile) {
+		int id = tile.getId();
+		idGeneration++;
+		changedTiles = null;
+		grid[getGridIndex(tile.getQ(), tile.getR())] = null;
+		for (int i = 0; i < NEIGHBOR_COUNT; i++) {
+			int neighborId = adjacency[id * NEIGHBOR_COUNT + i];
+			if (neighborId >= 0) {
+				adjacency[neighborId * NEIGHBOR_COUNT + getOppositeNeighborIndex(i)] = -1;
+				waterEdges[neighborId] |= 1 << getOppositeNeighborIndex(i);
+			}
+		}
+		System.arraycopy(tiles, id + 1, tiles, id, size - id - 1);
+		System.arraycopy(waterEdges, id + 1, waterEdges, id, size - id - 1);
+		System.arraycopy(adjacency, (id + 1) * NEIGHBOR_COUNT, adjacency, id * NEIGHBOR_COUNT,
+				(size - id - 1) * NEIGHBOR_COUNT);
+		System.arraycopy(protectionLevels, id + 1, protectionLevels, id, size - id - 1);
+		size--;
+		tiles[size] = null;
+		tile.setId(-1);
+		tile.setMap(null);
+		for (int i = id; i < size; i++) {
+			tiles[i].setId(i);
+		}
+		for (int i = 0; i < size * NEIGHBOR_COUNT; i++) {
+			if (adjacency[i] > id) {
+				adjacency[i]--;
+			}
+		}
+		for (int i = 0; i < NEIGHBOR_COUNT; i++) {
+			HexTile neighbor = getTile(HexMapHelper.getNeighborCoords(tile.getCoords(), i));
+			if (neighbor != null) {
+				protectionLevels[neighbor.getId()] = computeProtectionLevel(neighbor);
+			}
+		}
+		// the ids changed, so everything needs to be encoded again
+		encodedTiles.clear();
+		Arrays.fill(tileKeys, 0);
+		tileFingerprint = 0;
+		resetTileIndexes();
+		for (int i = 0; i < size; i++) {
+			encodeTile(tiles[i]);
+		}
+		modCount++;
+	}
+
+	@Override
+	public void clear() {
+		grid = new HexTile[0];
+		minQ = 0;
+		minR = 0;
+		width = 0;
+		height = 0;
+		for (int i = 0; i < size; i++) {
+			tiles[i].setId(-1);
+			tiles[i].setMap(null);
+			tiles[i] = null;
+		}
+		size = 0;
+		idGeneration++;
+		changedTiles = null;
+		encodedTiles.clear();
+		encodedPlayers.clear();
+		Arrays.fill(tileKeys, 0);
+		tileFingerprint = 0;
+		resetTileIndexes();
+		playerKingdomTileCounts = new int[1];
+		playerUnattachedTiles.clear();
+		modCount++;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the tile with the given id.
+	 *
+	 * @param id id of the tile
+	 * @return tile
+	 */
+	HexTile getTileById(int id) {
+		return tiles[id];
+	}
+
+	/**
+	 * Returns the id generation, which changes whenever existing tiles get new
+	 * ids.
+	 *
+	 * @return id generation
+	 */
+	int getIdGeneration() {
+		return idGeneration;
+	}
+
+	/**
+	 * Returns a neighbor of a tile from the adjacency table.
+	 *
+	 * @param tile  tile in this map
+	 * @param index index of the neighbor, see
+	 *              {@link HexMapHelper#getNeighborCoords(long, int)}
+	 * @return neighbor tile or null if there is water
+	 */
+	HexTile getNeighborTile(HexTile tile, int index) {
+		int id = tile.getId();
+		if (id < 0 || id >= size || tiles[id] != tile) {
+			// the tile is not part of this map; look up the position instead
+			return getTile(HexMapHelper.getNeighborCoords(tile.getCoords(), index));
+		}
+		int neighborId = adjacency[id * NEIGHBOR_COUNT + index];
+		if (neighborId < 0) {
+			return null;
+		}
+		return tiles[neighborId];
+	}
+
+	/**
+	 * Returns the water edge mask of a tile.
+	 *
+	 * @param tile tile to check
+	 * @return mask in which bit i is set if there is water at neighbor index i,
+	 *         see {@link HexMapHelper#getNeighborCoords(long, int)}
+	 */
+	int getWaterEdges(HexTile tile) {
+		int id = tile.getId();
+		if (id < 0 || id >= size || tiles[id] != tile) {
+			// the tile is not part of this map; look up the positions instead
+			int result = 0;
+			for (int i = 0; i < NEIGHBOR_COUNT; i++) {
+				if (getTile(HexMapHelper.getNeighborCoords(tile.getCoords(), i)) == null) {
+					result |= 1 << i;
+				}
+			}
+			return result;
+		}
+		return waterEdges[id];
+	}
+
+	/**
+	 * Returns the protection level of a tile. That is the strength of the
+	 * strongest object on the tile or on a neighbor tile of the same kingdom.
+	 *
+	 * @param tile tile to check
+	 * @return protection level
+	 */
+	int getProtectionLevel(HexTile tile) {
+		if (tile.getMap() != this) {
+			return computeProtectionLevel(tile);
+		}
+		assert protectionLevels[tile.getId()] == computeProtectionLevel(tile) : String
+				.format("outdated protection level of tile %s", tile);
+		return protectionLevels[tile.getId()];
+	}
+
+	GameStateJournal getJournal() {
+		return journal;
+	}
+
+	void setJournal(GameStateJournal journal) {
+		this.journal = journal;
+	}
+
+	/**
+	 * Starts collecting the tiles whose player, kingdom or content changes. This
+	 * way, information derived from the tiles can be updated without looking at
+	 * all of them again. Only one caller can track the changes at a time. Removing
+	 * a tile stops the tracking.
+	 *
+	 * @return set that collects the changed tiles until
+	 *         {@link #stopTrackingChanges()} is called; the caller may remove the
+	 *         tiles it has handled
+	 */
+	public Set<HexTile> startTrackingChanges() {
+		if (changedTiles != null) {
+			throw new IllegalStateException("The changes are tracked already.");
+		}
+		changedTiles = new TileSet(this);
+		return changedTiles;
+	}
+
+	/** Stops collecting the changed tiles. */
+	public void stopTrackingChanges() {
+		changedTiles = null;
+	}
+
+	/**
+	 * Updates the protection levels and the encoding after the content or kingdom
+	 * of a tile changed. Also collects the tile if the changes are tracked.
+	 *
+	 * @param tile tile in this map
+	 */
+	void tileChanged(HexTile tile) {
+		updateProtectionLevels(tile);
+		encodeTile(tile);
+		if (changedTiles != null) {
+			changedTiles.add(tile);
+		}
+	}
+
+	/**
+	 * Updates the encoded copy and the fingerprint key of a tile.
+	 *
+	 * @param tile tile in this map
+	 */
+	void encodeTile(HexTile tile) {
+		long tileKey = FingerprintHelper.getTileKey(tile);
+		tileFingerprint ^= tileKeys[tile.getId()] ^ tileKey;
+		tileKeys[tile.getId()] = tileKey;
+		int kingdomId = 0;
+		if (tile.getKingdom() != null) {
+			kingdomId = tile.getKingdom().getId();
+		}
+		int playerIndex = getEncodedPlayerIndex(tile.getPlayer());
+		encodedTiles.set(tile.getId(), tile.getQ(), tile.getR(),
+				TileChunks.encodePlayerAndContent(playerIndex, tile.getContent()), kingdomId,
+				tile.getKingdomSequence());
+		updateOwner(tile, (playerIndex << 1) | (kingdomId == 0 ? 0 : 1));
+		updateContentKind(tile);
+	}
+
+	private void updateOwner(HexTile tile, int owner) {
+		int oldOwner = tileOwners[tile.getId()];
+		if (oldOwner == owner) {
+			return;
+		}
+		// the tile has the id of the counted one, so it can be used to remove it from
+		// the tile sets even if it replaced it
+		countOwner(tile, oldOwner, -1);
+		countOwner(tile, owner, 1);
+		tileOwners[tile.getId()] = owner;
+	}
+
+	private void countOwner(HexTile tile, int owner, int difference) {
+		int playerIndex = owner >> 1;
+		boolean inKingdom = (owner & 1) != 0;
+		if (inKingdom) {
+			kingdomTileCount += difference;
+			playerKingdomTileCounts[playerIndex] += difference;
+		} else if (playerIndex > 0) {
+			if (difference > 0) {
+				playerUnattachedTiles.get(playerIndex - 1).add(tile);
+			} else {
+				playerUnattachedTiles.get(playerIndex - 1).remove(tile);
+			}
+		}
+	}
+
+	private void updateContentKind(HexTile tile) {
+		int kindOrdinal = tile.getContentKind().ordinal();
+		int oldKindOrdinal = tileContentKinds[tile.getId()];
+		if (oldKindOrdinal == kindOrdinal) {
+			return;
+		}
+		if (contentTiles[oldKindOrdinal] != null) {
+			contentTiles[oldKindOrdinal].remove(tile);
+		}
+		if (contentTiles[kindOrdinal] != null) {
+			contentTiles[kindOrdinal].add(tile);
+		}
+		tileContentKinds[tile.getId()] = (byte) kindOrdinal;
+	}
+
+	// the old tile sets are invalid after the ids changed, so new ones are needed
+	private void resetTileIndexes() {
+		Arrays.fill(tileOwners, 0);
+		kingdomTileCount = 0;
+		Arrays.fill(playerKingdomTileCounts, 0);
+		for (int i = 0; i < playerUnattachedTiles.size(); i++) {
+			playerUnattachedTiles.set(i, new TileSet(this));
+		}
+		Arrays.fill(tileContentKinds, (byte) MapObjectKind.NONE.ordinal());
+		for (int i = 0; i < contentTiles.length; i++) {
+			if (contentTiles[i] != null) {
+				contentTiles[i] = new TileSet(this);
+			}
+		}
+	}
+
+	/**
+	 * Returns the tiles with a kind of content.
+	 *
+	 * @param kind kind of the content; must not be {@link MapObjectKind#NONE}
+	 * @return unmodifiable set of tiles in id order; it changes with the map until
+	 *         a tile is removed
+	 */
+	public Set<HexTile> getTilesWithContent(MapObjectKind kind) {
+		if (kind == MapObjectKind.NONE) {
+			throw new IllegalArgumentException("Tiles without content are not indexed.");
+		}
+		return Collections.unmodifiableSet(contentTiles[kind.ordinal()]);
+	}
+
+	/**
+	 * Returns the number of tiles that belong to a kingdom.
+	 *
+	 * @return number of kingdom tiles
+	 */
+	int getKingdomTileCount() {
+		return kingdomTileCount;
+	}
+
+	/**
+	 * Returns the number of tiles of a player that belong to a kingdom.
+	 *
+	 * @param player player to count the tiles of
+	 * @return number of kingdom tiles of the player
+	 */
+	int getKingdomTileCount(Player player) {
+		int playerIndex = findEncodedPlayerIndex(player);
+		return playerIndex == 0 ? 0 : playerKingdomTileCounts[playerIndex];
+	}
+
+	/**
+	 * Returns the tiles of a player that belong to no kingdom.
+	 *
+	 * @param player player to get the tiles of
+	 * @return unmodifiable set of tiles in id order; it changes with the map until
+	 *         a tile is removed
+	 */
+	Set<HexTile> getUnattachedTiles(Player player) {
+		int playerIndex = findEncodedPlayerIndex(player);
+		if (playerIndex == 0) {
+			return Collections.emptySet();
+		}
+		return Collections.unmodifiableSet(playerUnattachedTiles.get(playerIndex - 1));
+	}
+
+	/**
+	 * Returns the fingerprint of all the tiles. It does not depend on the order of
+	 * the tiles.
+	 *
+	 * @return fingerprint
+	 */
+	long getTileFingerprint() {
+		return tileFingerprint;
+	}
+
+	/**
+	 * Returns the encoded tiles for a snapshot. Later changes of the map copy the
+	 * affected chunks instead of changing the returned ones.
+	 *
+	 * @return chunks; read them with {@link TileChunks#get(int[][], int, int)}
+	 */
+	int[][] shareEncodedTiles() {
+		return encodedTiles.share();
+	}
+
+	/**
+	 * Returns the players of the encoded tiles.
+	 *
+	 * @return players; the encoded player index minus one is the index in this
+	 *         list
+	 */
+	List<Player> getEncodedPlayers() {
+		return new ArrayList<>(encodedPlayers);
+	}
+
+	private int getEncodedPlayerIndex(Player player) {
+		int playerIndex = findEncodedPlayerIndex(player);
+		if (playerIndex > 0 || player == null) {
+			return playerIndex;
+		}
+		encodedPlayers.add(player);
+		playerKingdomTileCounts = Arrays.copyOf(playerKingdomTileCounts, encodedPlayers.size() + 1);
+		playerUnattachedTiles.add(new TileSet(this));
+		return encodedPlayers.size();
+	}
+
+	// returns 0 if the player has no encoded index yet
+	private int findEncodedPlayerIndex(Player player) {
+		if (player == null) {
+			return 0;
+		}
+		// there are only a few players, so searching is fast enough
+		for (int i = 0; i < encodedPlayers.size(); i++) {
+			if (encodedPlayers.get(i) == player) {
+				return i + 1;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Updates the protection levels of a tile and its neighbors after the content
+	 * or kingdom of the tile changed.
+	 *
+	 * @param tile tile in this map
+	 */
+	void updateProtectionLevels(HexTile tile) {
+		protectionLevels[tile.getId()] = computeProtectionLevel(tile);
+		for (int i = 0; i < NEIGHBOR_COUNT; i++) {
+			HexTile neighbor = getNeighborTile(tile, i);
+			if (neighbor != null) {
+				protectionLevels[neighbor.getId()] = computeProtectionLevel(neighbor);
+			}
+		}
+	}
+
+	private byte computeProtectionLevel(HexTile tile) {
+		int protectionLevel = 0;
+		if (tile.getContent() != null) {
+			protectionLevel = tile.getContent().getStrength();
+		}
+		for (int i = 0; i < NEIGHBOR_COUNT; i++) {
+			HexTile neighbor = getNeighborTile(tile, i);
+			if (neighbor != null && neighbor.getKingdom() != null && tile.getKingdom() == neighbor.getKingdom()
+					&& neighbor.getContent() != null && neighbor.getContent().getStrength() > protectionLevel) {
+				protectionLevel = neighbor.getContent().getStrength();
+			}
+		}
+		return (byte) protectionLevel;
+	}
+
+	/** Removes all the scratch marks. */
+	void clearMarks() {
+		if (currentMarkStamp == Integer.MAX_VALUE) {
+			Arrays.fill(markStamps, 0);
+			currentMarkStamp = 0;
+		}
+		currentMarkStamp++;
+	}
+
+	/**
+	 * Returns the scratch mark of a tile.
+	 *
+	 * @param tile tile in this map
+	 * @return mark or -1 if the tile is not marked
+	 */
+	int getMark(HexTile tile) {
+		if (markStamps[tile.getId()] != currentMarkStamp) {
+			return -1;
+		}
+		return marks[tile.getId()];
+	}
+
+	/**
+	 * Sets the scratch mark of a tile. The mark is valid until
+	 * {@link #clearMarks()} is called.
+	 *
+	 * @param tile tile in this map
+	 * @param mark non-negative mark
+	 */
+	void setMark(HexTile tile, int mark) {
+		marks[tile.getId()] = mark;
+		markStamps[tile.getId()] = currentMarkStamp;
+	}
+
+	private static int getOppositeNeighborIndex(int index) {
+		return (index + NEIGHBOR_COUNT / 2) % NEIGHBOR_COUNT;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity <= tiles.length) {
+			return;
+		}
+		int newCapacity = Math.max(capacity, tiles.length * 2);
+		tiles = Arrays.copyOf(tiles, newCapacity);
+		adjacency = Arrays.copyOf(adjacency, newCapacity * NEIGHBOR_COUNT);
+		protectionLevels = Arrays.copyOf(protectionLevels, newCapacity);
+		waterEdges = Arrays.copyOf(waterEdges, newCapacity);
+		marks = Arrays.copyOf(marks, newCapacity);
+		markStamps = Arrays.copyOf(markStamps, newCapacity);
+		tileKeys = Arrays.copyOf(tileKeys, newCapacity);
+		tileOwners = Arrays.copyOf(tileOwners, newCapacity);
+		tileContentKinds = Arrays.copyOf(tileContentKinds, newCapacity);
+	}
+
+	@Override
+	public Set<Entry<Vector2, HexTile>> entrySet() {
+		if (entrySet == null) {
+			entrySet = new EntrySet();
+		}
+		return entrySet;
+	}
+
+	@Override
+	public Collection<HexTile> values() {
+		if (values == null) {
+			values = new Values();
+		}
+		return values;
+	}
+
+	private int getGridIndex(int q, int r) {
+		int column = q - minQ;
+		int row = r - minR;
+		if (column < 0 || column >= height || row < 0 || row >= width) {
+			return -1;
+		}
+		return column * width + row;
+	}
+
+	/**
+	 * Grows the grid if the given coordinates are outside of it. The grid grows by
+	 * at least its current size in every affected direction to avoid copying it
+	 * for every new tile when the map is generated.
+	 */
+	private void ensureGridContains(int q, int r) {
+		if (getGridIndex(q, r) >= 0) {
+			return;
+		}
+		int newMinQ;
+		int newMaxQ;
+		int newMinR;
+		int newMaxR;
+		if (grid.length == 0) {
+			newMinQ = q - INITIAL_GRID_SIZE / 2;
+			newMaxQ = q + INITIAL_GRID_SIZE / 2;
+			newMinR = r - INITIAL_GRID_SIZE / 2;
+			newMaxR = r + INITIAL_GRID_SIZE / 2;
+		} else {
+			int maxQ = minQ + height - 1;
+			int maxR = minR + width - 1;
+			newMinQ = q < minQ ? Math.min(q, minQ - height) : minQ;
+			newMaxQ = q > maxQ ? Math.max(q, maxQ + height) : maxQ;
+			newMinR = r < minR ? Math.min(r, minR - width) : minR;
+			newMaxR = r > maxR ? Math.max(r, maxR + width) : maxR;
+		}
+		minQ = newMinQ;
+		minR = newMinR;
+		height = newMaxQ - newMinQ + 1;
+		width = newMaxR - newMinR + 1;
+		grid = new HexTile[height * width];
+		for (int i = 0; i < size; i++) {
+			grid[getGridIndex(tiles[i].getQ(), tiles[i].getR())] = tiles[i];
+		}
+	}
+
+	/** Iterator over the tiles in insertion order. */
+	private class TileIterator implements Iterator<HexTile> {
+
+		private int nextIndex = 0;
+		private HexTile lastReturned = null;
+		private int expectedModCount = modCount;
+
+		@Override
+		public boolean hasNext() {
+			return nextIndex < size;
+		}
+
+		@Override
+		public HexTile next() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			lastReturned = tiles[nextIndex];
+			nextIndex++;
+			return lastReturned;
+		}
+
+		@Override
+		public void remove() {
+			if (lastReturned == null) {
+				throw new IllegalStateException();
+			}
+			HexMap.this.removeTile(lastReturned);
+			lastReturned = null;
+			nextIndex--;
+			expectedModCount = modCount;
+		}
+
+	}
+
+	/** View of the map's entries. */
+	private class EntrySet extends AbstractSet<Entry<Vector2, HexTile>> {
+
+		@Override
+		public Iterator<Entry<Vector2, HexTile>> iterator() {
+			TileIterator tileIterator = new TileIterator();
+			return new Iterator<Map.Entry<Vector2, HexTile>>() {
+
+				@Override
+				public boolean hasNext() {
+					return tileIterator.hasNext();
+				}
+
+				@Override
+				public Entry<Vector2, HexTile> next() {
+					HexTile tile = tileIterator.next();
+					return new SimpleImmutableEntry<>(tile.getPosition(), tile);
+				}
+
+				@Override
+				public void remove() {
+					tileIterator.remove();
+				}
+
+			};
+		}
+
+		@Override
+		public int size() {
+			return HexMap.this.size();
+		}
+
+		@Override
+		public void clear() {
+			HexMap.this.clear();
+		}
+
+	}
+
+	/** View of the map's tiles. */
+	private class Values extends AbstractCollection<HexTile> {
+
+		@Override
+		public Iterator<HexTile> iterator() {
+			return new TileIterator();
+		}
+
+		@Override
+		public int size() {
+			return HexMap.this.size();
+		}
+
+		@Override
+		public void clear() {
+			HexMap.this.clear();
+		}
+
+	}
+
+}
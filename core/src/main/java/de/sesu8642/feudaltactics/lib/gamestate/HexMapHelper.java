@@ -9,7 +9,6 @@ package de.sesu8642.feudaltactics.lib.gamestate;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 import com.badlogic.gdx.math.Vector2;
 
@@ -24,6 +23,21 @@ public class HexMapHelper {
 
 	public static final float HEX_OUTER_RADIUS = 5;
 
+	/** Number of neighbors every tile position has. */
+	public static final int NEIGHBOR_COUNT = 6;
+
+	/** Number of tile positions that are 2 tiles away from a tile position. */
+	public static final int NEIGHBORS_NEIGHBOR_COUNT = 12;
+
+	// coordinate offsets of the neighbors in the order used everywhere: top left,
+	// top, top right, bottom right, bottom, bottom left
+	private static final int[] NEIGHBOR_OFFSETS_X = { -1, 0, 1, 1, 0, -1 };
+	private static final int[] NEIGHBOR_OFFSETS_Y = { 0, -1, -1, 0, 1, 1 };
+
+	// coordinate offsets of the neighbors' neighbors in clockwise order
+	private static final int[] NEIGHBORS_NEIGHBOR_OFFSETS_X = { 0, 1, 2, 2, 2, 1, 0, -1, -2, -2, -2, -1 };
+	private static final int[] NEIGHBORS_NEIGHBOR_OFFSETS_Y = { -2, -2, -2, -1, 0, 1, 2, 2, 2, 1, 0, -1 };
+
 	// prevent instantiation
 	private HexMapHelper() {
 		throw new AssertionError();
@@ -32,16 +46,18 @@ public class HexMapHelper {
 	/**
 	 * Converts hex coordinates to world coordinates.
 	 * 
-	 * @param hexCoords x and y coordinates of the tile
+	 * @param hexCoords packed coordinates of the tile, see {@link HexCoords}
 	 * @return x and y coordinates of the center of the tile
 	 */
-	public static Vector2 hexCoordsToWorldCoords(Vector2 hexCoords) {
+	public static Vector2 hexCoordsToWorldCoords(long hexCoords) {
 		// https://www.redblobgames.com/grids/hexagons/#hex-to-pixel
+		int hexX = HexCoords.getQ(hexCoords);
+		int hexY = HexCoords.getR(hexCoords);
 		// get third coordinate
-		float cubeZ = -hexCoords.x - hexCoords.y;
+		float cubeZ = -hexX - hexY;
 		// calculate world coordinates
-		float worldX = hexCoords.x * HEX_OUTER_RADIUS * 1.5F;
-		float worldY = (float) (HEX_OUTER_RADIUS * (Math.sqrt(3) / 2 * hexCoords.x + Math.sqrt(3) * cubeZ));
+		float worldX = hexX * HEX_OUTER_RADIUS * 1.5F;
+		float worldY = (float) (HEX_OUTER_RADIUS * (Math.sqrt(3) / 2 * hexX + Math.sqrt(3) * cubeZ));
 		return new Vector2(worldX, worldY);
 	}
 
@@ -49,33 +65,34 @@ public class HexMapHelper {
 	 * Converts world coordinates to hex coordinates.
 	 * 
 	 * @param worldCoords x and y coordinates of a point in the world
-	 * @return x and y coordinates of the tile the point belongs to (or would if
-	 *         there was one)
+	 * @return packed coordinates of the tile the point belongs to (or would if
+	 *         there was one), see {@link HexCoords}
 	 */
-	public static Vector2 worldCoordsToHexCoords(Vector2 worldCoords) {
+	public static long worldCoordsToHexCoords(Vector2 worldCoords) {
 		float hexX = (2F / 3 * worldCoords.x) / HEX_OUTER_RADIUS;
 		float hexY = (float) ((-1F / 3 * worldCoords.x + Math.sqrt(3) / 3 * worldCoords.y) / HEX_OUTER_RADIUS);
-		return roundToHexCoords(new Vector2(hexX, hexY));
+		return roundToHexCoords(hexX, hexY);
 	}
 
 	/**
 	 * Takes fractional hex coordinates and returns the hex coordinates of the tile
 	 * those are in.
 	 * 
-	 * @param coords fractional hex coordinates
-	 * @return rounded hex coordinates
+	 * @param hexX fractional x coordinate
+	 * @param hexY fractional y coordinate
+	 * @return packed rounded hex coordinates, see {@link HexCoords}
 	 */
-	public static Vector2 roundToHexCoords(Vector2 coords) {
+	public static long roundToHexCoords(float hexX, float hexY) {
 		// https://www.redblobgames.com/grids/hexagons/#rounding
 		// get third coordinate
-		float cubeZ = -coords.x - coords.y;
+		float cubeZ = -hexX - hexY;
 		// round
-		float x = Math.round(coords.x);
-		float y = Math.round(coords.y);
-		float z = Math.round(cubeZ);
+		int x = Math.round(hexX);
+		int y = Math.round(hexY);
+		int z = Math.round(cubeZ);
 		// find greatest difference from rounding and re-calculate it from the others
-		float diffX = Math.abs(coords.x - x);
-		float diffY = Math.abs(coords.y - y);
+		float diffX = Math.abs(hexX - x);
+		float diffY = Math.abs(hexY - y);
 		float diffZ = Math.abs(cubeZ - z);
 
 		if (diffX > diffY && diffX > diffZ) {
@@ -83,113 +100,185 @@ public class HexMapHelper {
 		} else if (diffY < diffZ) {
 			z = -x - y;
 		}
-		return new Vector2(x + 0.0F, z + 0.0F);
+		return HexCoords.pack(x, z);
 	}
 
 	/**
 	 * Returns the coordinates of all 6 neighbor tiles for the given tile
 	 * coordinates. Does not check if there are actually tiles on those positions.
 	 * 
-	 * @param tileCoords coordinates of the center tile
-	 * @return neighbors' coordinates
+	 * @param tileCoords packed coordinates of the center tile
+	 * @return neighbors' packed coordinates
 	 */
-	public static List<Vector2> getNeighborCoords(Vector2 tileCoords) {
-		ArrayList<Vector2> neighbors = new ArrayList<>();
-		neighbors.add(new Vector2(tileCoords.x - 1, tileCoords.y));
-		neighbors.add(new Vector2(tileCoords.x, tileCoords.y - 1));
-		neighbors.add(new Vector2(tileCoords.x + 1, tileCoords.y - 1));
-		neighbors.add(new Vector2(tileCoords.x + 1, tileCoords.y));
-		neighbors.add(new Vector2(tileCoords.x, tileCoords.y + 1));
-		neighbors.add(new Vector2(tileCoords.x - 1, tileCoords.y + 1));
+	public static long[] getNeighborCoords(long tileCoords) {
+		long[] neighbors = new long[NEIGHBOR_COUNT];
+		for (int i = 0; i < NEIGHBOR_COUNT; i++) {
+			neighbors[i] = getNeighborCoords(tileCoords, i);
+		}
 		return neighbors;
 	}
 
+	/**
+	 * Returns the coordinates of one neighbor of the given tile coordinates. Does
+	 * not check if there is actually a tile on that position.
+	 * 
+	 * @param tileCoords packed coordinates of the center tile
+	 * @param index      index of the neighbor, from 0 (top left) to
+	 *                   {@link #NEIGHBOR_COUNT} - 1 (bottom left) going clockwise
+	 * @return neighbor's packed coordinates
+	 */
+	public static long getNeighborCoords(long tileCoords, int index) {
+		return HexCoords.pack(HexCoords.getQ(tileCoords) + NEIGHBOR_OFFSETS_X[index],
+				HexCoords.getR(tileCoords) + NEIGHBOR_OFFSETS_Y[index]);
+	}
+
 	/**
 	 * Returns the coordinates of all 12 tiles that are 2 tiles away from the given
 	 * tile coordinates (neighbors' neighbors). Does not check if there are actually
 	 * tiles on those positions.
 	 * 
-	 * @param tileCoords coordinates of the center tile
-	 * @return neighbors' neighbors neighbor coordinates
+	 * @param tileCoords packed coordinates of the center tile
+	 * @return neighbors' neighbors packed coordinates
 	 */
-	public static List<Vector2> getNeighborsNeighborCoords(Vector2 tileCoords) {
-		ArrayList<Vector2> neighborsNeighbors = new ArrayList<>();
-		neighborsNeighbors.add(new Vector2(tileCoords.x, tileCoords.y - 2));
-		neighborsNeighbors.add(new Vector2(tileCoords.x + 1, tileCoords.y - 2));
-		neighborsNeighbors.add(new Vector2(tileCoords.x + 2, tileCoords.y - 2));
-		neighborsNeighbors.add(new Vector2(tileCoords.x + 2, tileCoords.y - 1));
-		neighborsNeighbors.add(new Vector2(tileCoords.x + 2, tileCoords.y));
-		neighborsNeighbors.add(new Vector2(tileCoords.x + 1, tileCoords.y + 1));
-		neighborsNeighbors.add(new Vector2(tileCoords.x, tileCoords.y + 2));
-		neighborsNeighbors.add(new Vector2(tileCoords.x - 1, tileCoords.y + 2));
-		neighborsNeighbors.add(new Vector2(tileCoords.x - 2, tileCoords.y + 2));
-		neighborsNeighbors.add(new Vector2(tileCoords.x - 2, tileCoords.y + 1));
-		neighborsNeighbors.add(new Vector2(tileCoords.x - 2, tileCoords.y));
-		neighborsNeighbors.add(new Vector2(tileCoords.x - 1, tileCoords.y - 1));
+	public static long[] getNeighborsNeighborCoords(long tileCoords) {
+		long[] neighborsNeighbors = new long[NEIGHBORS_NEIGHBOR_COUNT];
+		for (int i = 0; i < NEIGHBORS_NEIGHBOR_COUNT; i++) {
+			neighborsNeighbors[i] = getNeighborsNeighborCoords(tileCoords, i);
+		}
 		return neighborsNeighbors;
 	}
 
 	/**
-	 * Returns all neighbor tiles for the given tile. May contain null if there are
-	 * empty neighbor positions.
+	 * Returns the coordinates of one of the 12 tiles that are 2 tiles away from the
+	 * given tile coordinates. Does not check if there is actually a tile on that
+	 * position.
 	 * 
-	 * @param tile center tile
-	 * @return neighbor tiles
+	 * @param tileCoords packed coordinates of the center tile
+	 * @param index      index of the neighbor's neighbor, from 0 (top) to
+	 *                   {@link #NEIGHBORS_NEIGHBOR_COUNT} - 1 going clockwise
+	 * @return neighbor's neighbor packed coordinates
 	 */
-	public static List<HexTile> getNeighborTiles(Map<Vector2, HexTile> map, HexTile tile) {
-		List<HexTile> cachedNeighbors = tile.getCachedNeighborTiles();
-		if (cachedNeighbors == null) {
-			cachedNeighbors = getNeighborTiles(map, tile.getPosition());
-			tile.setCachedNeighborTiles(cachedNeighbors);
-		}
-		return cachedNeighbors;
+	public static long getNeighborsNeighborCoords(long tileCoords, int index) {
+		return HexCoords.pack(HexCoords.getQ(tileCoords) + NEIGHBORS_NEIGHBOR_OFFSETS_X[index],
+				HexCoords.getR(tileCoords) + NEIGHBORS_NEIGHBOR_OFFSETS_Y[index]);
+	}
+
+	/**
+	 * Returns one neighbor tile of the given tile without creating any objects.
+	 * Meant to be used in a loop from 0 to {@link #NEIGHBOR_COUNT} - 1.
+	 * 
+	 * @param map   map containing the tiles
+	 * @param tile  center tile
+	 * @param index index of the neighbor, see {@link #getNeighborCoords(long, int)}
+	 * @return neighbor tile or null if there is water
+	 */
+	public static HexTile getNeighborTile(HexMap map, HexTile tile, int index) {
+		return map.getNeighborTile(tile, index);
+	}
+
+	/**
+	 * Returns one of the tiles that are 2 tiles away from the given tile without
+	 * creating any objects. Meant to be used in a loop from 0 to
+	 * {@link #NEIGHBORS_NEIGHBOR_COUNT} - 1.
+	 * 
+	 * @param map   map containing the tiles
+	 * @param tile  center tile
+	 * @param index index of the neighbor's neighbor, see
+	 *              {@link #getNeighborsNeighborCoords(long, int)}
+	 * @return neighbor's neighbor tile or null if there is water
+	 */
+	public static HexTile getNeighborsNeighborTile(HexMap map, HexTile tile, int index) {
+		return map.getTile(tile.getQ() + NEIGHBORS_NEIGHBOR_OFFSETS_X[index],
+				tile.getR() + NEIGHBORS_NEIGHBOR_OFFSETS_Y[index]);
+	}
+
+	/**
+	 * Determines whether a tile is next to water.
+	 * 
+	 * @param map  map containing the tiles
+	 * @param tile tile to check
+	 * @return whether at least one neighbor position is empty
+	 */
+	public static boolean isCoastTile(HexMap map, HexTile tile) {
+		return map.getWaterEdges(tile) != 0;
+	}
+
+	/**
+	 * Returns on which sides a tile borders water. This is maintained by the map,
+	 * so it doesn't need to look at the neighbors.
+	 * 
+	 * @param map  map containing the tile
+	 * @param tile tile to check
+	 * @return mask in which bit i is set if there is water at neighbor index i,
+	 *         see {@link #getNeighborCoords(long, int)}
+	 */
+	public static int getWaterEdges(HexMap map, HexTile tile) {
+		return map.getWaterEdges(tile);
+	}
+
+	/**
+	 * Returns whether a tile borders water at a certain side.
+	 * 
+	 * @param waterEdges mask returned by {@link #getWaterEdges(HexMap, HexTile)}
+	 * @param index      index of the neighbor, see
+	 *                   {@link #getNeighborCoords(long, int)}
+	 * @return whether there is water
+	 */
+	public static boolean isWaterEdge(int waterEdges, int index) {
+		return (waterEdges & (1 << index)) != 0;
 	}
 
 	/**
-	 * Returns all neighbor tiles for the given tile coordinates. May contain null
-	 * if there are empty neighbor positions.
+	 * Returns all neighbor tiles for the given tile in a new list. May contain null
+	 * if there are empty neighbor positions. Prefer
+	 * {@link #getNeighborTile(HexMap, HexTile, int)} in loops.
 	 * 
-	 * @param tileCoords coordinates of the center tile
+	 * @param tile center tile
 	 * @return neighbor tiles
 	 */
-	private static List<HexTile> getNeighborTiles(Map<Vector2, HexTile> map, Vector2 tileCoords) {
-		List<Vector2> neighborCoords = getNeighborCoords(tileCoords);
-		List<HexTile> neighborTiles = new ArrayList<>();
-		for (Vector2 coord : neighborCoords) {
-			neighborTiles.add(map.get(coord));
+	public static List<HexTile> getNeighborTiles(HexMap map, HexTile tile) {
+		List<HexTile> neighborTiles = new ArrayList<>(NEIGHBOR_COUNT);
+		for (int i = 0; i < NEIGHBOR_COUNT; i++) {
+			neighborTiles.add(getNeighborTile(map, tile, i));
 		}
 		return neighborTiles;
 	}
 
-	public static List<HexTile> getNeighborsNeighborTiles(Map<Vector2, HexTile> map, HexTile tile) {
-		return getNeighborsNeighborTiles(map, tile.getPosition());
+	public static List<HexTile> getNeighborsNeighborTiles(HexMap map, HexTile tile) {
+		return getNeighborsNeighborTiles(map, tile.getCoords());
 	}
 
-	private static List<HexTile> getNeighborsNeighborTiles(Map<Vector2, HexTile> map, Vector2 tileCoords) {
-		List<Vector2> neighborsNeighborCoords = getNeighborsNeighborCoords(tileCoords);
+	private static List<HexTile> getNeighborsNeighborTiles(HexMap map, long tileCoords) {
 		List<HexTile> neighborsNeighborTiles = new ArrayList<>();
-		for (Vector2 coord : neighborsNeighborCoords) {
-			neighborsNeighborTiles.add(map.get(coord));
+		for (long coords : getNeighborsNeighborCoords(tileCoords)) {
+			neighborsNeighborTiles.add(map.getTile(coords));
 		}
 		return neighborsNeighborTiles;
 	}
 
 	/**
-	 * Returns the coordinates of all neighbor tile positions that are empty for the
-	 * given tile coordinates.
+	 * Writes the coordinates of all neighbor tile positions that are empty for the
+	 * given tile coordinates into a buffer.
 	 * 
-	 * @param tileCoords coordinates of the center tile
-	 * @return empty neighbors' coordinates
+	 * @param map        map containing the tiles
+	 * @param tileCoords packed coordinates of the center tile
+	 * @param buffer     array with a length of at least {@link #NEIGHBOR_COUNT}
+	 *                   that receives the empty neighbors' packed coordinates; may
+	 *                   be null if only the amount is needed
+	 * @return number of empty neighbor positions
 	 */
-	public static List<Vector2> getUnusedNeighborCoords(Map<Vector2, HexTile> map, Vector2 tileCoords) {
-		List<Vector2> neighbors = getNeighborCoords(tileCoords);
-		List<Vector2> unusedNeighbors = new ArrayList<>();
-		for (Vector2 neighbor : neighbors) {
-			if (!map.containsKey(neighbor)) {
-				unusedNeighbors.add(neighbor);
+	public static int getUnusedNeighborCoords(HexMap map, long tileCoords, long[] buffer) {
+		int unusedNeighborsCount = 0;
+		for (int i = 0; i < NEIGHBOR_COUNT; i++) {
+			long neighborCoords = getNeighborCoords(tileCoords, i);
+			if (map.getTile(neighborCoords) == null) {
+				if (buffer != null) {
+					buffer[unusedNeighborsCount] = neighborCoords;
+				}
+				unusedNeighborsCount++;
 			}
 		}
-		return unusedNeighbors;
+		return unusedNeighborsCount;
 	}
 
 	/**
@@ -197,14 +286,14 @@ public class HexMapHelper {
 	 * 
 	 * @return map dimensions
 	 */
-	public static MapDimensions getMapDimensionsInWorldCoords(Map<Vector2, HexTile> map) {
+	public static MapDimensions getMapDimensionsInWorldCoords(HexMap map) {
 		// get most extreme map coordinates
 		float minWorldX = 0;
 		float maxWorldX = 0;
 		float minWorldY = 0;
 		float maxWorldY = 0;
-		for (Vector2 hexCoords : map.keySet()) {
-			Vector2 mapCoords = hexCoordsToWorldCoords(hexCoords);
+		for (HexTile tile : map.values()) {
+			Vector2 mapCoords = hexCoordsToWorldCoords(tile.getCoords());
 			if (mapCoords.x < minWorldX) {
 				minWorldX = mapCoords.x;
 			} else if (mapCoords.x > maxWorldX) {
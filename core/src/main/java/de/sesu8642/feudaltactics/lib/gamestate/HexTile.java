@@ -2,7 +2,6 @@
 
 package de.sesu8642.feudaltactics.lib.gamestate;
 
-import java.util.List;
 import java.util.Objects;
 
 import com.badlogic.gdx.math.Vector2;
@@ -12,16 +11,39 @@ public class HexTile implements Comparable<HexTile> {
 
 	private Player player;
 	private MapObject content;
+	// kind of the content; cached to make checking it as cheap as possible
+	private MapObjectKind contentKind = MapObjectKind.NONE;
 	private Kingdom kingdom;
-	private Vector2 position;
-	private List<HexTile> cachedNeighborTiles;
+	// axial hex coordinates
+	private final int q;
+	private final int r;
+	// index in the map; -1 if the tile is not part of a map
+	private int id = -1;
+	// map containing the tile; notified about changes
+	private HexMap map;
+	// position in the tile order of the kingdom, see KingdomTileList
+	private int kingdomSequence = 0;
 
-	public HexTile() {
+	/**
+	 * Constructor.
+	 * 
+	 * @param player owner of the tile
+	 * @param coords packed hex coordinates of the tile, see {@link HexCoords}
+	 */
+	public HexTile(Player player, long coords) {
+		this.player = player;
+		this.q = HexCoords.getQ(coords);
+		this.r = HexCoords.getR(coords);
 	}
 
+	/**
+	 * Constructor.
+	 * 
+	 * @param player   owner of the tile
+	 * @param position hex coordinates of the tile; must be integers
+	 */
 	public HexTile(Player player, Vector2 position) {
-		this.player = player;
-		this.position = position;
+		this(player, HexCoords.fromVector(position));
 	}
 
 	public Player getPlayer() {
@@ -29,15 +51,45 @@ public class HexTile implements Comparable<HexTile> {
 	}
 
 	public void setPlayer(Player player) {
+		Player oldPlayer = this.player;
 		this.player = player;
+		if (map != null) {
+			if (map.getJournal() != null) {
+				map.getJournal().record(() -> setPlayer(oldPlayer));
+			}
+			map.tileChanged(this);
+		}
 	}
 
 	public MapObject getContent() {
 		return content;
 	}
 
+	/**
+	 * Setter for content. Also updates the counters of the kingdom.
+	 */
 	public void setContent(MapObject content) {
+		MapObject oldContent = this.content;
 		this.content = content;
+		contentKind = MapObjectKind.of(content);
+		if (kingdom != null) {
+			kingdom.tileContentChanged(this, oldContent);
+		}
+		if (map != null) {
+			if (map.getJournal() != null) {
+				map.getJournal().record(() -> setContent(oldContent));
+			}
+			map.tileChanged(this);
+		}
+	}
+
+	/**
+	 * Returns the kind of the content.
+	 * 
+	 * @return kind or {@link MapObjectKind#NONE} if there is no content
+	 */
+	public MapObjectKind getContentKind() {
+		return contentKind;
 	}
 
 	public Kingdom getKingdom() {
@@ -48,27 +100,94 @@ public class HexTile implements Comparable<HexTile> {
 	 * Setter for kingdom. Also sets the player to the kingdom's owner.
 	 */
 	public void setKingdom(Kingdom kingdom) {
+		Kingdom oldKingdom = this.kingdom;
+		Player oldPlayer = this.player;
 		this.kingdom = kingdom;
 		if (kingdom != null) {
 			this.player = kingdom.getPlayer();
 		}
+		if (map != null) {
+			if (map.getJournal() != null) {
+				map.getJournal().record(() -> restoreKingdom(oldKingdom, oldPlayer));
+			}
+			map.tileChanged(this);
+		}
 	}
 
+	private void restoreKingdom(Kingdom kingdom, Player player) {
+		this.kingdom = kingdom;
+		this.player = player;
+		map.tileChanged(this);
+	}
+
+	public int getQ() {
+		return q;
+	}
+
+	public int getR() {
+		return r;
+	}
+
+	/**
+	 * Returns the packed hex coordinates of this tile.
+	 * 
+	 * @return packed coordinates, see {@link HexCoords}
+	 */
+	public long getCoords() {
+		return HexCoords.pack(q, r);
+	}
+
+	/**
+	 * Returns the hex coordinates of this tile as a new vector. Meant for rendering
+	 * purposes; use {@link #getCoords()} otherwise.
+	 * 
+	 * @return position vector
+	 */
 	public Vector2 getPosition() {
-		return position;
+		return HexCoords.toVector(getCoords());
 	}
 
-	public List<HexTile> getCachedNeighborTiles() {
-		return cachedNeighborTiles;
+	/**
+	 * Returns the id of this tile. The ids of the tiles in a map are dense, start
+	 * at 0 and follow the iteration order of the map. They stay the same while the
+	 * game is played; only removing tiles from the map (in the editor) shifts them.
+	 * 
+	 * @return id or -1 if the tile is not part of a map
+	 */
+	public int getId() {
+		return id;
 	}
 
-	public void setCachedNeighborTiles(List<HexTile> neighborTiles) {
-		this.cachedNeighborTiles = neighborTiles;
+	void setId(int id) {
+		this.id = id;
+	}
+
+	HexMap getMap() {
+		return map;
+	}
+
+	void setMap(HexMap map) {
+		this.map = map;
+	}
+
+	int getKingdomSequence() {
+		return kingdomSequence;
+	}
+
+	void setKingdomSequence(int kingdomSequence) {
+		this.kingdomSequence = kingdomSequence;
+		if (map != null) {
+			map.encodeTile(this);
+		}
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(content, player, position);
+		// only the position, so that the hash code doesn't change while the tile is in
+		// a hash based collection; consistent with equals because equal tiles have the
+		// same position; mixed because the coordinates of neighboring tiles only
+		// differ in a few low bits
+		return Long.hashCode(FingerprintHelper.mix(getCoords()));
 	}
 
 	@Override
@@ -83,25 +202,22 @@ public class HexTile implements Comparable<HexTile> {
 			return false;
 		}
 		HexTile other = (HexTile) obj;
-		return Objects.equals(content, other.content) && Objects.equals(player, other.player)
-				&& Objects.equals(position, other.position);
+		return Objects.equals(content, other.content) && Objects.equals(player, other.player) && q == other.q
+				&& r == other.r;
 	}
 
 	// compare using the coordinates; a fix order is needed in some places to avoid
 	// unwanted randomness
 	@Override
 	public int compareTo(HexTile o) {
-		int result = Float.compare(this.getPosition().x, o.getPosition().x);
-		if (result == 0) {
-			// both x and y cannot be the same for different tiles
-			result = Float.compare(this.getPosition().y, o.getPosition().y);
-		}
-		return result;
+		// both q and r cannot be the same for different tiles
+		return HexCoords.compare(getCoords(), o.getCoords());
 	}
 
 	@Override
 	public String toString() {
-		return String.format("HexTile [player=%s, content=%s, position=%s]", player, content, position);
+		return String.format("HexTile [player=%s, content=%s, position=%s]", player, content,
+				HexCoords.toString(getCoords()));
 	}
 
 }
@@ -2,8 +2,6 @@
 
 package de.sesu8642.feudaltactics.lib.gamestate;
 
-import com.badlogic.gdx.utils.reflect.ClassReflection;
-
 import de.sesu8642.feudaltactics.lib.gamestate.Unit.UnitTypes;
 
 /**
@@ -74,7 +72,7 @@ public class InputValidationHelper {
 		if (tile.getPlayer() != player) {
 			return false;
 		}
-		if (!ClassReflection.isAssignableFrom(Unit.class, tile.getContent().getClass())) {
+		if (tile.getContentKind() != MapObjectKind.UNIT) {
 			return false;
 		}
 		if (!((Unit) tile.getContent()).isCanAct()) {
@@ -110,13 +108,12 @@ public class InputValidationHelper {
 		if (gameState.getActiveKingdom() != tile.getKingdom()) {
 			return false;
 		}
-		if (tile.getContent() != null && ClassReflection.isAssignableFrom(Blocking.class, tile.getContent().getClass())
-				&& !ClassReflection.isAssignableFrom(Unit.class, gameState.getHeldObject().getClass())) {
+		if (tile.getContentKind().isBlocking() && gameState.getHeldObject().getKind() != MapObjectKind.UNIT) {
 			// non-unit on blocking object
 			return false;
 		}
 		if (tile.getContent() != null
-				&& !ClassReflection.isAssignableFrom(Blocking.class, tile.getContent().getClass())) {
+				&& !tile.getContentKind().isBlocking()) {
 			// not empty or blocking object
 			return false;
 		}
@@ -153,10 +150,10 @@ public class InputValidationHelper {
 		if (gameState.getActiveKingdom() != tile.getKingdom()) {
 			return false;
 		}
-		if (!ClassReflection.isAssignableFrom(Unit.class, gameState.getHeldObject().getClass())) {
+		if (gameState.getHeldObject().getKind() != MapObjectKind.UNIT) {
 			return false;
 		}
-		if (!ClassReflection.isAssignableFrom(Unit.class, tile.getContent().getClass())) {
+		if (tile.getContentKind() != MapObjectKind.UNIT) {
 			return false;
 		}
 		if (((Unit) gameState.getHeldObject()).getUnitType() != UnitTypes.PEASANT
@@ -193,16 +190,17 @@ public class InputValidationHelper {
 		if (tile.getPlayer() == player) {
 			return false;
 		}
-		if (!ClassReflection.isAssignableFrom(Unit.class, gameState.getHeldObject().getClass())) {
+		if (gameState.getHeldObject().getKind() != MapObjectKind.UNIT) {
 			// not a unit
 			return false;
 		}
-		if (tile.getContent() != null && tile.getContent().getStrength() >= gameState.getHeldObject().getStrength()) {
-			// too strong object on the tile
+		if (GameStateHelper.getProtectionLevel(gameState, tile) >= gameState.getHeldObject().getStrength()) {
+			// too strong object on the tile or next to it protecting it
 			return false;
 		}
 		boolean isNextoToOwnKingdom = false;
-		for (HexTile neighborTile : HexMapHelper.getNeighborTiles(gameState.getMap(), tile)) {
+		for (int i = 0; i < HexMapHelper.NEIGHBOR_COUNT; i++) {
+			HexTile neighborTile = HexMapHelper.getNeighborTile(gameState.getMap(), tile, i);
 			if (isWater(neighborTile)) {
 				// skip water
 				continue;
@@ -210,12 +208,7 @@ public class InputValidationHelper {
 			// check if tile is next to own kingdom
 			if (neighborTile.getKingdom() == gameState.getActiveKingdom()) {
 				isNextoToOwnKingdom = true;
-			}
-			MapObject neighborContent = neighborTile.getContent();
-			// check if there is no stronger object next to it protecting it
-			if (tile.getKingdom() != null && neighborTile.getKingdom() == tile.getKingdom() && neighborContent != null
-					&& neighborContent.getStrength() >= gameState.getHeldObject().getStrength()) {
-				return false;
+				break;
 			}
 		}
 		if (!isNextoToOwnKingdom) {
@@ -225,6 +218,18 @@ public class InputValidationHelper {
 		return true;
 	}
 
+	/**
+	 * Determines all the actions a player is allowed to do at once. Much cheaper
+	 * than checking every tile with the other methods.
+	 * 
+	 * @param gameState game state of the current game
+	 * @param player    player attempting the actions
+	 * @return legal moves
+	 */
+	public static LegalMoves getLegalMoves(GameState gameState, Player player) {
+		return new LegalMoves(gameState, player);
+	}
+
 	/**
 	 * Checks whether the player is allowed to end the current turn.
 	 * 
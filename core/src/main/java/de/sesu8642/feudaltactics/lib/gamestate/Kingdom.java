@@ -2,22 +2,33 @@
 
 package de.sesu8642.feudaltactics.lib.gamestate;
 
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.sesu8642.feudaltactics.lib.gamestate.Unit.UnitTypes;
 
 /** Group of connected tiles that belong to the same player. **/
 public class Kingdom {
 
+	private static final AtomicInteger ID_COUNTER = new AtomicInteger();
+
+	// unique within the process; identifies the kingdom in snapshots
+	private final int id = ID_COUNTER.incrementAndGet();
+
 	// need a list to have consistent iteration order; LinkedHashSet doesn't work
 	// because the tiles can change
-	private List<HexTile> tiles = new ArrayList<>();
+	private KingdomTileList tiles = new KingdomTileList();
 	private Player player;
 	private int savings = 0;
 	// only used by ai
 	private boolean doneMoving = false;
 	// for displaying a hint when the player forgets the kingdom
 	private boolean wasActiveInCurrentTurn = false;
+	// journal recording the changes; null if there is none
+	private transient GameStateJournal journal;
 
 	public Kingdom() {
 	}
@@ -30,8 +41,89 @@ public class Kingdom {
 		return tiles;
 	}
 
+	/**
+	 * Replaces the tiles of the kingdom with a copy of the given ones.
+	 * 
+	 * @param tiles new tiles
+	 */
 	public void setTiles(List<HexTile> tiles) {
-		this.tiles = tiles;
+		if (journal != null) {
+			KingdomTileList oldTiles = this.tiles;
+			journal.record(() -> this.tiles = oldTiles);
+		}
+		this.tiles = new KingdomTileList(tiles);
+		this.tiles.setJournal(journal);
+	}
+
+	/**
+	 * Returns the number of trees and palm trees in the kingdom.
+	 * 
+	 * @return tree count
+	 */
+	public int getTreeCount() {
+		return tiles.getTreeCount();
+	}
+
+	/**
+	 * Returns the sum of the salaries of the units in the kingdom.
+	 * 
+	 * @return salary sum
+	 */
+	public int getSalarySum() {
+		return tiles.getSalarySum();
+	}
+
+	/**
+	 * Returns the number of tiles of the kingdom with a kind of content.
+	 * 
+	 * @param kind kind of the content
+	 * @return number of tiles
+	 */
+	public int getContentCount(MapObjectKind kind) {
+		return tiles.getContentCount(kind);
+	}
+
+	/**
+	 * Returns the number of units of a type in the kingdom.
+	 * 
+	 * @param unitType type of the units
+	 * @return number of units
+	 */
+	public int getUnitCount(UnitTypes unitType) {
+		return tiles.getUnitCount(unitType);
+	}
+
+	int getId() {
+		return id;
+	}
+
+	/**
+	 * Returns whether there is a capital in the kingdom.
+	 * 
+	 * @return whether there is a capital
+	 */
+	boolean hasCapital() {
+		return tiles.getCapitalCount() > 0;
+	}
+
+	/**
+	 * Checks the tile, tree and salary counters by recomputing them. Meant to be
+	 * used in assertions.
+	 * 
+	 * @return whether the counters are correct
+	 */
+	boolean hasCorrectCounters() {
+		return tiles.hasCorrectCounters();
+	}
+
+	/**
+	 * Updates the counters after the content of one of the tiles changed.
+	 * 
+	 * @param tile       tile whose content changed
+	 * @param oldContent previous content of the tile
+	 */
+	void tileContentChanged(HexTile tile, MapObject oldContent) {
+		tiles.contentChanged(tile, oldContent);
 	}
 
 	public Player getPlayer() {
@@ -39,6 +131,10 @@ public class Kingdom {
 	}
 
 	public void setPlayer(Player player) {
+		if (journal != null) {
+			Player oldPlayer = this.player;
+			journal.record(() -> setPlayer(oldPlayer));
+		}
 		this.player = player;
 	}
 
@@ -47,6 +143,10 @@ public class Kingdom {
 	}
 
 	public void setSavings(int savings) {
+		if (journal != null) {
+			int oldSavings = this.savings;
+			journal.record(() -> setSavings(oldSavings));
+		}
 		this.savings = savings;
 	}
 
@@ -55,6 +155,10 @@ public class Kingdom {
 	}
 
 	public void setDoneMoving(boolean doneMoving) {
+		if (journal != null) {
+			boolean oldDoneMoving = this.doneMoving;
+			journal.record(() -> setDoneMoving(oldDoneMoving));
+		}
 		this.doneMoving = doneMoving;
 	}
 
@@ -63,9 +167,18 @@ public class Kingdom {
 	}
 
 	public void setWasActiveInCurrentTurn(boolean wasActiveInCurrentTurn) {
+		if (journal != null) {
+			boolean oldWasActiveInCurrentTurn = this.wasActiveInCurrentTurn;
+			journal.record(() -> setWasActiveInCurrentTurn(oldWasActiveInCurrentTurn));
+		}
 		this.wasActiveInCurrentTurn = wasActiveInCurrentTurn;
 	}
 
+	void setJournal(GameStateJournal journal) {
+		this.journal = journal;
+		tiles.setJournal(journal);
+	}
+
 	@Override
 	public int hashCode() {
 		return Objects.hash(doneMoving, player, savings, tiles, wasActiveInCurrentTurn);
@@ -83,13 +196,26 @@ public class Kingdom {
 			return false;
 		}
 		Kingdom other = (Kingdom) obj;
-		// ignore order of the tiles; not a perfect method but good enough since there
-		// shouldnt be duplicates
+		// ignore order of the tiles
 		return doneMoving == other.doneMoving && Objects.equals(player, other.player) && savings == other.savings
-				&& tiles.size() == other.tiles.size() && tiles.containsAll(other.tiles)
+				&& tiles.size() == other.tiles.size() && containsEqualTiles(other.tiles)
 				&& wasActiveInCurrentTurn == other.wasActiveInCurrentTurn;
 	}
 
+	private boolean containsEqualTiles(List<HexTile> otherTiles) {
+		// the tiles might be from a different map, so match them by position
+		Map<Long, HexTile> tilesByPosition = new HashMap<>();
+		for (HexTile tile : tiles) {
+			tilesByPosition.put(tile.getCoords(), tile);
+		}
+		for (HexTile otherTile : otherTiles) {
+			if (!otherTile.equals(tilesByPosition.get(otherTile.getCoords()))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	@Override
 	public String toString() {
 		return String.format("Kingdom [tiles=%s, player=%s, savings=%s, doneMoving=%s, wasActiveInCurrentTurn=%s]",
@@ -0,0 +1,187 @@
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package de.sesu8642.feudaltactics.lib.gamestate;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Kingdoms of a game. Behaves like an ArrayList, but also keeps the kingdoms of
+ * every player in a separate list, so looking them up does not need to scan all
+ * the kingdoms. Kingdoms are compared by identity. The player of a kingdom must
+ * not change while it is contained.
+ **/
+class KingdomList extends AbstractList<Kingdom> {
+
+	private final List<Kingdom> kingdoms = new ArrayList<>();
+	// kingdoms of every player in the same order as in kingdoms
+	private final Map<Player, List<Kingdom>> kingdomsByPlayer = new IdentityHashMap<>();
+	// journal recording the changes; null if there is none
+	private GameStateJournal journal;
+
+	KingdomList() {
+	}
+
+	KingdomList(Collection<Kingdom> kingdoms) {
+		addAll(kingdoms);
+	}
+
+	@Override
+	public Kingdom get(int index) {
+		return kingdoms.get(index);
+	}
+
+	@Override
+	public int size() {
+		return kingdoms.size();
+	}
+
+	/**
+	 * Returns the kingdoms of a player in the order of this list.
+	 *
+	 * @param player player to get the kingdoms of
+	 * @return unmodifiable list of kingdoms
+	 */
+	List<Kingdom> getKingdoms(Player player) {
+		List<Kingdom> playerKingdoms = kingdomsByPlayer.get(player);
+		if (playerKingdoms == null) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(playerKingdoms);
+	}
+
+	/**
+	 * Sets the journal that records the changes of this list and the contained
+	 * kingdoms.
+	 *
+	 * @param journal journal; may be null
+	 */
+	void setJournal(GameStateJournal journal) {
+		this.journal = journal;
+		for (Kingdom kingdom : kingdoms) {
+			kingdom.setJournal(journal);
+		}
+	}
+
+	@Override
+	public void add(int index, Kingdom kingdom) {
+		if (journal != null) {
+			kingdom.setJournal(journal);
+			journal.record(() -> remove(index));
+		}
+		kingdoms.add(index, kingdom);
+		modCount++;
+		if (index == kingdoms.size() - 1) {
+			kingdomsByPlayer.computeIfAbsent(kingdom.getPlayer(), player -> new ArrayList<>()).add(kingdom);
+		} else {
+			rebuildPlayerKingdoms(kingdom.getPlayer());
+		}
+	}
+
+	@Override
+	public Kingdom set(int index, Kingdom kingdom) {
+		if (journal != null) {
+			kingdom.setJournal(journal);
+			Kingdom replacedKingdom = kingdoms.get(index);
+			journal.record(() -> set(index, replacedKingdom));
+		}
+		Kingdom oldKingdom = kingdoms.set(index, kingdom);
+		rebuildPlayerKingdoms(oldKingdom.getPlayer());
+		rebuildPlayerKingdoms(kingdom.getPlayer());
+		return oldKingdom;
+	}
+
+	@Override
+	public Kingdom remove(int index) {
+		Kingdom kingdom = kingdoms.remove(index);
+		if (journal != null) {
+			journal.record(() -> add(index, kingdom));
+		}
+		modCount++;
+		List<Kingdom> playerKingdoms = kingdomsByPlayer.get(kingdom.getPlayer());
+		for (int i = 0; i < playerKingdoms.size(); i++) {
+			if (playerKingdoms.get(i) == kingdom) {
+				playerKingdoms.remove(i);
+				break;
+			}
+		}
+		if (playerKingdoms.isEmpty()) {
+			kingdomsByPlayer.remove(kingdom.getPlayer());
+		}
+		return kingdom;
+	}
+
+	@Override
+	public int indexOf(Object o) {
+		for (int i = 0; i < kingdoms.size(); i++) {
+			if (kingdoms.get(i) == o) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int lastIndexOf(Object o) {
+		for (int i = kingdoms.size() - 1; i >= 0; i--) {
+			if (kingdoms.get(i) == o) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		if (!(o instanceof Kingdom)) {
+			return false;
+		}
+		// only the kingdoms of the same player need to be searched
+		for (Kingdom kingdom : getKingdoms(((Kingdom) o).getPlayer())) {
+			if (kingdom == o) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		if (!contains(o)) {
+			return false;
+		}
+		remove(indexOf(o));
+		return true;
+	}
+
+	@Override
+	public void clear() {
+		if (journal != null) {
+			List<Kingdom> oldKingdoms = new ArrayList<>(kingdoms);
+			journal.record(() -> addAll(oldKingdoms));
+		}
+		kingdoms.clear();
+		kingdomsByPlayer.clear();
+		modCount++;
+	}
+
+	private void rebuildPlayerKingdoms(Player player) {
+		List<Kingdom> playerKingdoms = new ArrayList<>();
+		for (Kingdom kingdom : kingdoms) {
+			if (kingdom.getPlayer() == player) {
+				playerKingdoms.add(kingdom);
+			}
+		}
+		if (playerKingdoms.isEmpty()) {
+			kingdomsByPlayer.remove(player);
+		} else {
+			kingdomsByPlayer.put(player, playerKingdoms);
+		}
+	}
+
+}
@@ -0,0 +1,145 @@
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package de.sesu8642.feudaltactics.lib.gamestate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds out whether a kingdom was split into several parts after losing a tile.
+ * Searches outwards from all the remaining neighbors of the lost tile at the
+ * same time, one tile per search in every round. Searches that meet are merged.
+ * As soon as at most one group of searches can still find new tiles, the other
+ * groups have found complete fragments. This way, the cost is proportional to
+ * the size of the smaller fragments instead of the whole kingdom.
+ **/
+class KingdomSplitDetector {
+
+	// prevent instantiation
+	private KingdomSplitDetector() {
+		throw new AssertionError();
+	}
+
+	/**
+	 * Finds the fragments of a kingdom that are not connected to the rest of it.
+	 * Uses the scratch marks of the map.
+	 *
+	 * @param map        map containing the kingdom
+	 * @param kingdom    kingdom that lost a tile
+	 * @param startTiles tiles of the kingdom that were next to the lost tile
+	 * @return completely explored fragments. If the tiles contained in them don't
+	 *         make up the whole kingdom, the rest is one more fragment. Empty if
+	 *         the kingdom is still connected.
+	 */
+	static List<List<HexTile>> findSeparatedFragments(HexMap map, Kingdom kingdom, List<HexTile> startTiles) {
+		int searchCount = startTiles.size();
+		if (searchCount < 2) {
+			return Collections.emptyList();
+		}
+		map.clearMarks();
+		List<ArrayDeque<HexTile>> queues = new ArrayList<>(searchCount);
+		List<List<HexTile>> foundTiles = new ArrayList<>(searchCount);
+		// union-find structure for merging the searches that meet
+		int[] parents = new int[searchCount];
+		for (int i = 0; i < searchCount; i++) {
+			parents[i] = i;
+			ArrayDeque<HexTile> queue = new ArrayDeque<>();
+			List<HexTile> found = new ArrayList<>();
+			HexTile startTile = startTiles.get(i);
+			int mark = map.getMark(startTile);
+			if (mark < 0) {
+				map.setMark(startTile, i);
+				queue.add(startTile);
+				found.add(startTile);
+			} else {
+				union(parents, mark, i);
+			}
+			queues.add(queue);
+			foundTiles.add(found);
+		}
+		while (true) {
+			for (int i = 0; i < searchCount; i++) {
+				HexTile tile = queues.get(i).poll();
+				if (tile == null) {
+					continue;
+				}
+				for (int j = 0; j < HexMapHelper.NEIGHBOR_COUNT; j++) {
+					HexTile neighborTile = HexMapHelper.getNeighborTile(map, tile, j);
+					if (neighborTile == null || neighborTile.getKingdom() != kingdom) {
+						continue;
+					}
+					int mark = map.getMark(neighborTile);
+					if (mark < 0) {
+						map.setMark(neighborTile, i);
+						queues.get(i).add(neighborTile);
+						foundTiles.get(i).add(neighborTile);
+					} else {
+						union(parents, mark, i);
+					}
+				}
+			}
+			int groupCount = 0;
+			int activeGroupCount = 0;
+			for (int i = 0; i < searchCount; i++) {
+				if (find(parents, i) == i) {
+					groupCount++;
+					if (isGroupActive(parents, queues, i)) {
+						activeGroupCount++;
+					}
+				}
+			}
+			if (groupCount == 1) {
+				// all the searches met
+				return Collections.emptyList();
+			}
+			if (activeGroupCount <= 1) {
+				break;
+			}
+		}
+		List<List<HexTile>> result = new ArrayList<>();
+		for (int i = 0; i < searchCount; i++) {
+			if (find(parents, i) != i || isGroupActive(parents, queues, i)) {
+				continue;
+			}
+			List<HexTile> fragment = new ArrayList<>();
+			for (int j = 0; j < searchCount; j++) {
+				if (find(parents, j) == i) {
+					fragment.addAll(foundTiles.get(j));
+				}
+			}
+			result.add(fragment);
+		}
+		return result;
+	}
+
+	private static boolean isGroupActive(int[] parents, List<ArrayDeque<HexTile>> queues, int root) {
+		for (int i = 0; i < parents.length; i++) {
+			if (find(parents, i) == root && !queues.get(i).isEmpty()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static int find(int[] parents, int search) {
+		int root = search;
+		while (parents[root] != root) {
+			root = parents[root];
+		}
+		return root;
+	}
+
+	private static void union(int[] parents, int search1, int search2) {
+		int root1 = find(parents, search1);
+		int root2 = find(parents, search2);
+		// the smaller index becomes the root to keep the result order stable
+		if (root1 < root2) {
+			parents[root2] = root1;
+		} else if (root2 < root1) {
+			parents[root1] = root2;
+		}
+	}
+
+}
@@ -0,0 +1,358 @@
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package de.sesu8642.feudaltactics.lib.gamestate;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import de.sesu8642.feudaltactics.lib.gamestate.Unit.UnitTypes;
+
+/**
+ * Tiles of a kingdom. Keeps the insertion order like an ArrayList, but contains,
+ * add and remove take constant time. Tiles are compared by identity and every
+ * tile can be contained only once; adding a tile that is already contained
+ * does nothing. Removed tiles leave an empty slot that is compacted away
+ * lazily. The number of tiles with every kind of content and every unit type
+ * and the sum of the unit salaries on the tiles are counted along the way.
+ **/
+class KingdomTileList extends AbstractList<HexTile> {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	// tiles in insertion order; removed tiles leave null
+	private HexTile[] slots = new HexTile[INITIAL_CAPACITY];
+	// number of used slots including the empty ones
+	private int usedSlots = 0;
+	private int size = 0;
+	// slot index of every contained tile
+	private final Map<HexTile, Integer> slotIndices = new IdentityHashMap<>();
+	// number of tiles with every kind of content, indexed by the kind ordinal
+	private final int[] contentCounts = new int[MapObjectKind.values().length];
+	// number of units of every type, indexed by the type ordinal
+	private final int[] unitCounts = new int[UnitTypes.values().length];
+	// sum of the salaries of the units on the tiles
+	private int salarySum = 0;
+	// sequence number given to the next added tile; stored in the tile so that
+	// snapshots can restore the order
+	private int nextSequence = 0;
+	// incremented whenever the slots are compacted, which moves the tiles
+	private int compactionCount = 0;
+	// journal recording the changes; null if there is none
+	private GameStateJournal journal;
+
+	KingdomTileList() {
+	}
+
+	KingdomTileList(Collection<HexTile> tiles) {
+		addAll(tiles);
+	}
+
+	@Override
+	public HexTile get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException(String.format("Index: %s, Size: %s", index, size));
+		}
+		compact();
+		return slots[index];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	int getTreeCount() {
+		return getContentCount(MapObjectKind.TREE) + getContentCount(MapObjectKind.PALM_TREE);
+	}
+
+	int getSalarySum() {
+		return salarySum;
+	}
+
+	int getCapitalCount() {
+		return getContentCount(MapObjectKind.CAPITAL);
+	}
+
+	int getContentCount(MapObjectKind kind) {
+		return contentCounts[kind.ordinal()];
+	}
+
+	int getUnitCount(UnitTypes unitType) {
+		return unitCounts[unitType.ordinal()];
+	}
+
+	void setJournal(GameStateJournal journal) {
+		this.journal = journal;
+	}
+
+	/**
+	 * Updates the counters after the content of a tile changed. Does nothing if
+	 * the tile is not contained.
+	 * 
+	 * @param tile       tile whose content changed
+	 * @param oldContent previous content of the tile
+	 */
+	void contentChanged(HexTile tile, MapObject oldContent) {
+		if (!contains(tile)) {
+			return;
+		}
+		uncount(oldContent);
+		count(tile.getContent());
+	}
+
+	/**
+	 * Recomputes the counters from scratch and compares them with the maintained
+	 * ones. Expensive; meant for debugging.
+	 * 
+	 * @return whether the counters are correct
+	 */
+	boolean hasCorrectCounters() {
+		KingdomTileList recounted = new KingdomTileList();
+		for (HexTile tile : this) {
+			recounted.count(tile.getContent());
+		}
+		return Arrays.equals(recounted.contentCounts, contentCounts)
+				&& Arrays.equals(recounted.unitCounts, unitCounts) && recounted.salarySum == salarySum;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return slotIndices.containsKey(o);
+	}
+
+	@Override
+	public int indexOf(Object o) {
+		if (!slotIndices.containsKey(o)) {
+			return -1;
+		}
+		compact();
+		return slotIndices.get(o);
+	}
+
+	@Override
+	public int lastIndexOf(Object o) {
+		return indexOf(o);
+	}
+
+	@Override
+	public boolean add(HexTile tile) {
+		if (tile == null) {
+			throw new NullPointerException();
+		}
+		if (slotIndices.containsKey(tile)) {
+			return false;
+		}
+		if (usedSlots == slots.length) {
+			if (size < usedSlots) {
+				compact();
+			} else {
+				slots = Arrays.copyOf(slots, slots.length * 2);
+			}
+		}
+		if (journal != null) {
+			int oldSequence = tile.getKingdomSequence();
+			int oldNextSequence = nextSequence;
+			journal.record(() -> undoAdd(tile, oldSequence, oldNextSequence));
+		}
+		slots[usedSlots] = tile;
+		slotIndices.put(tile, usedSlots);
+		usedSlots++;
+		size++;
+		tile.setKingdomSequence(nextSequence++);
+		count(tile.getContent());
+		modCount++;
+		return true;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		Integer slotIndex = slotIndices.remove(o);
+		if (slotIndex == null) {
+			return false;
+		}
+		HexTile tile = slots[slotIndex];
+		if (journal != null) {
+			int oldCompactionCount = compactionCount;
+			journal.record(() -> undoRemove(tile, slotIndex, oldCompactionCount));
+		}
+		uncount(tile.getContent());
+		slots[slotIndex] = null;
+		size--;
+		modCount++;
+		return true;
+	}
+
+	@Override
+	public HexTile remove(int index) {
+		HexTile tile = get(index);
+		remove(tile);
+		return tile;
+	}
+
+	@Override
+	public void clear() {
+		if (journal != null) {
+			// removing the tiles one by one makes them restorable in the right order
+			for (int i = usedSlots - 1; i >= 0; i--) {
+				if (slots[i] != null) {
+					remove(slots[i]);
+				}
+			}
+		}
+		Arrays.fill(slots, 0, usedSlots, null);
+		slotIndices.clear();
+		usedSlots = 0;
+		// the slots are gone like after compacting them
+		compactionCount++;
+		size = 0;
+		Arrays.fill(contentCounts, 0);
+		Arrays.fill(unitCounts, 0);
+		salarySum = 0;
+		modCount++;
+	}
+
+	@Override
+	public Iterator<HexTile> iterator() {
+		return new TileIterator();
+	}
+
+	private void count(MapObject content) {
+		addToCounters(content, 1);
+	}
+
+	private void uncount(MapObject content) {
+		addToCounters(content, -1);
+	}
+
+	private void addToCounters(MapObject content, int difference) {
+		MapObjectKind kind = MapObjectKind.of(content);
+		contentCounts[kind.ordinal()] += difference;
+		if (kind == MapObjectKind.UNIT) {
+			UnitTypes unitType = ((Unit) content).getUnitType();
+			unitCounts[unitType.ordinal()] += difference;
+			salarySum += difference * unitType.salary();
+		}
+	}
+
+	/** Reverses adding a tile. Only called by the journal. */
+	private void undoAdd(HexTile tile, int oldSequence, int oldNextSequence) {
+		int slotIndex = slotIndices.get(tile);
+		remove(tile);
+		if (slotIndex == usedSlots - 1) {
+			usedSlots--;
+		}
+		nextSequence = oldNextSequence;
+		tile.setKingdomSequence(oldSequence);
+	}
+
+	/**
+	 * Reverses removing a tile. Only called by the journal. If the slots were not
+	 * compacted since, the slot of the tile is still empty. Otherwise, the tile is
+	 * inserted according to its sequence, which is ascending in the slots.
+	 */
+	private void undoRemove(HexTile tile, int slotIndex, int oldCompactionCount) {
+		if (oldCompactionCount != compactionCount) {
+			compact();
+			if (usedSlots == slots.length) {
+				slots = Arrays.copyOf(slots, slots.length * 2);
+			}
+			int low = 0;
+			int high = usedSlots;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (slots[middle].getKingdomSequence() < tile.getKingdomSequence()) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+			slotIndex = low;
+			System.arraycopy(slots, slotIndex, slots, slotIndex + 1, usedSlots - slotIndex);
+			usedSlots++;
+			for (int i = slotIndex + 1; i < usedSlots; i++) {
+				slotIndices.put(slots[i], i);
+			}
+		}
+		slots[slotIndex] = tile;
+		slotIndices.put(tile, slotIndex);
+		size++;
+		count(tile.getContent());
+		modCount++;
+	}
+
+	/** Removes the empty slots. Does not change the order of the tiles. */
+	private void compact() {
+		if (size == usedSlots) {
+			return;
+		}
+		compactionCount++;
+		int newIndex = 0;
+		for (int i = 0; i < usedSlots; i++) {
+			HexTile tile = slots[i];
+			if (tile != null) {
+				if (newIndex != i) {
+					slots[newIndex] = tile;
+					slotIndices.put(tile, newIndex);
+				}
+				newIndex++;
+			}
+		}
+		Arrays.fill(slots, newIndex, usedSlots, null);
+		usedSlots = newIndex;
+	}
+
+	/**
+	 * Iterator that skips the empty slots. Does not compact the list so removing
+	 * tiles while iterating is cheap.
+	 */
+	private class TileIterator implements Iterator<HexTile> {
+
+		private int nextSlot = 0;
+		private int lastReturnedSlot = -1;
+		private int expectedModCount = modCount;
+
+		@Override
+		public boolean hasNext() {
+			while (nextSlot < usedSlots && slots[nextSlot] == null) {
+				nextSlot++;
+			}
+			return nextSlot < usedSlots;
+		}
+
+		@Override
+		public HexTile next() {
+			checkForComodification();
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			lastReturnedSlot = nextSlot;
+			nextSlot++;
+			return slots[lastReturnedSlot];
+		}
+
+		@Override
+		public void remove() {
+			if (lastReturnedSlot < 0) {
+				throw new IllegalStateException();
+			}
+			checkForComodification();
+			KingdomTileList.this.remove(slots[lastReturnedSlot]);
+			lastReturnedSlot = -1;
+			expectedModCount = modCount;
+		}
+
+		private void checkForComodification() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+		}
+
+	}
+
+}
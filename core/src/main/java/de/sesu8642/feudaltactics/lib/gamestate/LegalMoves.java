@@ -0,0 +1,130 @@
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package de.sesu8642.feudaltactics.lib.gamestate;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * All the actions a player is allowed to do in a game state, according to
+ * {@link InputValidationHelper}. They are determined at once by walking the
+ * active kingdom and its neighbors instead of checking every tile of the map
+ * separately. The targets are stored as tile sets of the map, so looking them
+ * up is cheap. Create it with
+ * {@link InputValidationHelper#getLegalMoves(GameState, Player)}; it is not
+ * updated when the game state changes.
+ **/
+public final class LegalMoves {
+
+	private final TileSet conquerTargets;
+	private final TileSet placeOwnTargets;
+	private final TileSet combineUnitsTargets;
+	private final TileSet pickupObjectTargets;
+	private final boolean canBuyPeasant;
+	private final boolean canBuyCastle;
+	private final boolean canEndTurn;
+
+	LegalMoves(GameState gameState, Player player) {
+		HexMap map = gameState.getMap();
+		conquerTargets = new TileSet(map);
+		placeOwnTargets = new TileSet(map);
+		combineUnitsTargets = new TileSet(map);
+		pickupObjectTargets = new TileSet(map);
+		canBuyPeasant = InputValidationHelper.checkBuyObject(gameState, player, Unit.COST);
+		canBuyCastle = InputValidationHelper.checkBuyObject(gameState, player, Castle.COST);
+		canEndTurn = InputValidationHelper.checkEndTurn(gameState, player);
+		if (gameState.getActivePlayer() != player) {
+			return;
+		}
+		MapObject heldObject = gameState.getHeldObject();
+		if (heldObject == null) {
+			// only units can be picked up, so there is no need to look at the other tiles
+			for (HexTile tile : map.getTilesWithContent(MapObjectKind.UNIT)) {
+				if (tile.getPlayer() == player && ((Unit) tile.getContent()).isCanAct()) {
+					pickupObjectTargets.add(tile);
+				}
+			}
+			return;
+		}
+		Kingdom activeKingdom = gameState.getActiveKingdom();
+		if (activeKingdom == null) {
+			// cannot happen while playing; check all the tiles to give the same answers
+			for (HexTile tile : map.values()) {
+				if (InputValidationHelper.checkConquer(gameState, player, tile)) {
+					conquerTargets.add(tile);
+				}
+			}
+			return;
+		}
+		for (HexTile tile : activeKingdom.getTiles()) {
+			if (InputValidationHelper.checkPlaceOwn(gameState, player, tile)) {
+				placeOwnTargets.add(tile);
+			}
+			if (InputValidationHelper.checkCombineUnits(gameState, player, tile)) {
+				combineUnitsTargets.add(tile);
+			}
+			if (heldObject.getKind() != MapObjectKind.UNIT) {
+				continue;
+			}
+			// the neighbors are next to the active kingdom, so only the owner and the
+			// protection level need to be checked
+			for (int i = 0; i < HexMapHelper.NEIGHBOR_COUNT; i++) {
+				HexTile neighborTile = HexMapHelper.getNeighborTile(map, tile, i);
+				if (neighborTile != null && neighborTile.getPlayer() != player
+						&& !conquerTargets.contains(neighborTile) && GameStateHelper.getProtectionLevel(gameState,
+								neighborTile) < heldObject.getStrength()) {
+					conquerTargets.add(neighborTile);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the tiles that can be conquered with the held object.
+	 *
+	 * @return unmodifiable set of tiles
+	 */
+	public Set<HexTile> getConquerTargets() {
+		return Collections.unmodifiableSet(conquerTargets);
+	}
+
+	/**
+	 * Returns the tiles the held object can be placed on.
+	 *
+	 * @return unmodifiable set of tiles
+	 */
+	public Set<HexTile> getPlaceOwnTargets() {
+		return Collections.unmodifiableSet(placeOwnTargets);
+	}
+
+	/**
+	 * Returns the tiles with units the held unit can be combined with.
+	 *
+	 * @return unmodifiable set of tiles
+	 */
+	public Set<HexTile> getCombineUnitsTargets() {
+		return Collections.unmodifiableSet(combineUnitsTargets);
+	}
+
+	/**
+	 * Returns the tiles with objects that can be picked up.
+	 *
+	 * @return unmodifiable set of tiles
+	 */
+	public Set<HexTile> getPickupObjectTargets() {
+		return Collections.unmodifiableSet(pickupObjectTargets);
+	}
+
+	public boolean isCanBuyPeasant() {
+		return canBuyPeasant;
+	}
+
+	public boolean isCanBuyCastle() {
+		return canBuyCastle;
+	}
+
+	public boolean isCanEndTurn() {
+		return canEndTurn;
+	}
+
+}
@@ -0,0 +1,184 @@
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package de.sesu8642.feudaltactics.lib.gamestate;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Water positions next to the land of a map that is being generated, see
+ * {@link MapGenerationMode#FRONTIER}. The positions are kept in buckets by their
+ * number of land neighbors, which is updated whenever a tile is added. All
+ * positions in a bucket have the same weight, so picking one only needs to walk
+ * the few buckets.
+ **/
+class MapFrontier {
+
+	private static final int NEIGHBOR_COUNT = HexMapHelper.NEIGHBOR_COUNT;
+	// positions in the buckets are stored as (bucket << BUCKET_SHIFT) | index
+	private static final int BUCKET_SHIFT = 28;
+	private static final int INDEX_MASK = (1 << BUCKET_SHIFT) - 1;
+	// value of positions that became land
+	private static final int LAND = -1;
+	// value of unused table slots
+	private static final int UNUSED = Integer.MIN_VALUE;
+	private static final int INITIAL_TABLE_BITS = 8;
+
+	private final HexMap map;
+	// the bucket index is the number of land neighbors; bucket 0 stays empty
+	private final long[][] buckets = new long[NEIGHBOR_COUNT + 1][16];
+	private final int[] bucketSizes = new int[NEIGHBOR_COUNT + 1];
+	private final double[] weights = new double[NEIGHBOR_COUNT + 1];
+
+	// open addressing table of all positions that were ever in the frontier
+	private long[] keys;
+	private int[] values;
+	private int tableBits;
+	private int tableSize = 0;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param map     map that is being generated
+	 * @param density higher values prefer positions with more land neighbors,
+	 *                which makes the map more clumpy
+	 */
+	MapFrontier(HexMap map, float density) {
+		this.map = map;
+		for (int i = 1; i <= NEIGHBOR_COUNT; i++) {
+			weights[i] = Math.pow(i, density);
+		}
+		createTable(INITIAL_TABLE_BITS);
+	}
+
+	/**
+	 * Updates the frontier after a tile was put on the map.
+	 *
+	 * @param coords packed coords of the new tile, see {@link HexCoords}
+	 */
+	void addLand(long coords) {
+		int slot = findSlot(coords);
+		if (values[slot] >= 0) {
+			removeFromBucket(values[slot]);
+			values[slot] = LAND;
+		} else if (values[slot] == UNUSED) {
+			// only happens for the first tile
+			insert(slot, coords);
+		}
+		for (int i = 0; i < NEIGHBOR_COUNT; i++) {
+			long neighborCoords = HexMapHelper.getNeighborCoords(coords, i);
+			if (map.getTile(neighborCoords) != null) {
+				continue;
+			}
+			int neighborSlot = findSlot(neighborCoords);
+			int position = values[neighborSlot];
+			if (position >= 0) {
+				// one more land neighbor
+				removeFromBucket(position);
+				addToBucket(neighborSlot, (position >>> BUCKET_SHIFT) + 1);
+			} else {
+				insert(neighborSlot, neighborCoords);
+				addToBucket(findSlot(neighborCoords), countLandNeighbors(neighborCoords));
+			}
+		}
+	}
+
+	/**
+	 * Picks a random position of the frontier. The chance of a position is
+	 * proportional to its number of land neighbors to the power of the density.
+	 *
+	 * @param random random to use
+	 * @return packed coords of the position, see {@link HexCoords}
+	 */
+	long pick(Random random) {
+		double weightSum = 0;
+		for (int i = 1; i <= NEIGHBOR_COUNT; i++) {
+			weightSum += bucketSizes[i] * weights[i];
+		}
+		if (weightSum == 0) {
+			throw new AssertionError("There is no water next to the land.");
+		}
+		double randomWeight = random.nextDouble() * weightSum;
+		int bucket = 0;
+		for (int i = 1; i <= NEIGHBOR_COUNT; i++) {
+			if (bucketSizes[i] == 0) {
+				continue;
+			}
+			// the last non-empty bucket takes care of rounding errors
+			bucket = i;
+			randomWeight -= bucketSizes[i] * weights[i];
+			if (randomWeight < 0) {
+				break;
+			}
+		}
+		return buckets[bucket][random.nextInt(bucketSizes[bucket])];
+	}
+
+	private int countLandNeighbors(long coords) {
+		int count = 0;
+		for (int i = 0; i < NEIGHBOR_COUNT; i++) {
+			if (map.getTile(HexMapHelper.getNeighborCoords(coords, i)) != null) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private void addToBucket(int slot, int bucket) {
+		if (bucketSizes[bucket] == buckets[bucket].length) {
+			buckets[bucket] = Arrays.copyOf(buckets[bucket], bucketSizes[bucket] * 2);
+		}
+		int index = bucketSizes[bucket]++;
+		buckets[bucket][index] = keys[slot];
+		values[slot] = (bucket << BUCKET_SHIFT) | index;
+	}
+
+	private void removeFromBucket(int position) {
+		int bucket = position >>> BUCKET_SHIFT;
+		int index = position & INDEX_MASK;
+		// move the last one into the gap
+		int lastIndex = --bucketSizes[bucket];
+		if (index != lastIndex) {
+			long lastCoords = buckets[bucket][lastIndex];
+			buckets[bucket][index] = lastCoords;
+			values[findSlot(lastCoords)] = position;
+		}
+	}
+
+	private int findSlot(long coords) {
+		int mask = keys.length - 1;
+		int slot = (int) ((coords * 0x9E3779B97F4A7C15L) >>> (64 - tableBits));
+		while (values[slot] != UNUSED && keys[slot] != coords) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	// inserts a position with the value LAND; the slot is invalid afterwards if the
+	// table grew
+	private void insert(int slot, long coords) {
+		keys[slot] = coords;
+		values[slot] = LAND;
+		tableSize++;
+		if (tableSize * 2 > keys.length) {
+			long[] oldKeys = keys;
+			int[] oldValues = values;
+			createTable(tableBits + 1);
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldValues[i] != UNUSED) {
+					int newSlot = findSlot(oldKeys[i]);
+					keys[newSlot] = oldKeys[i];
+					values[newSlot] = oldValues[i];
+				}
+			}
+		}
+	}
+
+	private void createTable(int bits) {
+		tableBits = bits;
+		keys = new long[1 << bits];
+		values = new int[1 << bits];
+		Arrays.fill(values, UNUSED);
+	}
+
+}
@@ -0,0 +1,20 @@
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package de.sesu8642.feudaltactics.lib.gamestate;
+
+/** Way of placing the tiles when generating a map. */
+public enum MapGenerationMode {
+
+	/**
+	 * Random walk that backtracks when it gets stuck. Produces the same maps for
+	 * the same seeds as previous versions of the game.
+	 */
+	COMPATIBLE,
+
+	/**
+	 * Grows the land at any point of its coast. Considerably faster for very large
+	 * maps, but the maps differ from the compatible ones for the same seed.
+	 */
+	FRONTIER;
+
+}
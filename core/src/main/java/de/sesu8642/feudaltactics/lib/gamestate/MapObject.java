@@ -15,6 +15,14 @@ public interface MapObject {
 	 */
 	int getStrength();
 
+	/**
+	 * Getter for the kind.
+	 * 
+	 * @return The kind of this object. Meant to be used instead of checking its
+	 *         class.
+	 */
+	MapObjectKind getKind();
+
 	MapObject getCopy();
 
 }
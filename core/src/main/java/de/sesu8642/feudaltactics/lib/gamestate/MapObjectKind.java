@@ -0,0 +1,42 @@
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package de.sesu8642.feudaltactics.lib.gamestate;
+
+/**
+ * Kind of a map object. Checking the kind is a simple comparison, which is a
+ * lot cheaper than checking the class of an object via reflection, and allows
+ * switching over the kinds.
+ **/
+public enum MapObjectKind {
+	/** Used for tiles without content. */
+	NONE(false), UNIT(false), CAPITAL(false), CASTLE(false), TREE(true), PALM_TREE(true), GRAVESTONE(true);
+
+	private final boolean blocking;
+
+	MapObjectKind(boolean blocking) {
+		this.blocking = blocking;
+	}
+
+	/**
+	 * Returns whether objects of this kind are {@link Blocking}.
+	 * 
+	 * @return whether they are blocking
+	 */
+	public boolean isBlocking() {
+		return blocking;
+	}
+
+	/**
+	 * Returns the kind of an object.
+	 * 
+	 * @param object map object; may be null
+	 * @return kind of the object or {@link #NONE} if it is null
+	 */
+	public static MapObjectKind of(MapObject object) {
+		if (object == null) {
+			return NONE;
+		}
+		return object.getKind();
+	}
+
+}
@@ -12,6 +12,9 @@ public class PalmTree implements MapObject, Blocking {
 	public static final String SPRITE_NAME = "palm_tree";
 	private static final int STRENGTH = 0;
 
+	// shared instance; palm trees have no state either
+	public static final PalmTree INSTANCE = new PalmTree();
+
 	@Override
 	public String getSpriteName() {
 		return SPRITE_NAME;
@@ -22,9 +25,15 @@ public class PalmTree implements MapObject, Blocking {
 		return STRENGTH;
 	}
 
+	@Override
+	public MapObjectKind getKind() {
+		return MapObjectKind.PALM_TREE;
+	}
+
 	@Override
 	public PalmTree getCopy() {
-		return new PalmTree();
+		// no state to copy
+		return this;
 	}
 
 	@Override
@@ -12,6 +12,8 @@ public class Player {
 	private Color color;
 	private Type type;
 	private boolean defeated = false;
+	// journal recording the changes; null if there is none
+	private transient GameStateJournal journal;
 
 	/** Type of a player. **/
 	public enum Type {
@@ -48,9 +50,17 @@ public class Player {
 	}
 
 	public void setDefeated(boolean defeated) {
+		if (journal != null) {
+			boolean oldDefeated = this.defeated;
+			journal.record(() -> setDefeated(oldDefeated));
+		}
 		this.defeated = defeated;
 	}
 
+	void setJournal(GameStateJournal journal) {
+		this.journal = journal;
+	}
+
 	public Type getType() {
 		return type;
 	}
@@ -0,0 +1,196 @@
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package de.sesu8642.feudaltactics.lib.gamestate;
+
+import java.util.Arrays;
+
+/**
+ * Tiles encoded as ints, stored in chunks of a fixed number of tiles. The
+ * chunks can be shared with snapshots: after {@link #share()}, a chunk is
+ * copied before it is changed the next time. Changing a tile therefore only
+ * copies the chunk containing it.
+ **/
+class TileChunks {
+
+	static final int Q = 0;
+	static final int R = 1;
+	// player index in the upper bits and content code in the lowest byte
+	static final int PLAYER_AND_CONTENT = 2;
+	// 0 if there is no kingdom
+	static final int KINGDOM_ID = 3;
+	static final int KINGDOM_SEQUENCE = 4;
+
+	private static final int INTS_PER_TILE = 5;
+	private static final int CHUNK_SHIFT = 6;
+	private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+	private static final int NO_CONTENT_CODE = 0;
+	private static final int CAPITAL_CODE = 1;
+	private static final int CASTLE_CODE = 2;
+	private static final int TREE_CODE = 3;
+	private static final int PALM_TREE_CODE = 4;
+	private static final int GRAVESTONE_CODE = 5;
+	private static final int FIRST_UNIT_CODE = 8;
+
+	private int[][] chunks = new int[0][];
+	// generation in which each chunk was created; older chunks may be shared
+	private int[] chunkGenerations = new int[0];
+	private int generation = 0;
+	// whether the array of chunks itself is shared
+	private boolean chunkArrayShared = false;
+
+	/**
+	 * Sets the values of a tile.
+	 *
+	 * @param id                  id of the tile
+	 * @param q                   first axial coordinate
+	 * @param r                   second axial coordinate
+	 * @param playerAndContent    player index and content code, see
+	 *                            {@link #encodePlayerAndContent}
+	 * @param kingdomId           id of the kingdom or 0
+	 * @param kingdomSequence     position of the tile in the kingdom's order
+	 */
+	void set(int id, int q, int r, int playerAndContent, int kingdomId, int kingdomSequence) {
+		int[] chunk = getWritableChunk(id >> CHUNK_SHIFT);
+		int offset = (id & (CHUNK_SIZE - 1)) * INTS_PER_TILE;
+		chunk[offset + Q] = q;
+		chunk[offset + R] = r;
+		chunk[offset + PLAYER_AND_CONTENT] = playerAndContent;
+		chunk[offset + KINGDOM_ID] = kingdomId;
+		chunk[offset + KINGDOM_SEQUENCE] = kingdomSequence;
+	}
+
+	/**
+	 * Returns the current chunks for a snapshot. They will not be changed anymore.
+	 *
+	 * @return chunks; read them with {@link #get(int[][], int, int)}
+	 */
+	int[][] share() {
+		if (generation == Integer.MAX_VALUE) {
+			Arrays.fill(chunkGenerations, Integer.MIN_VALUE);
+			generation = Integer.MIN_VALUE;
+		}
+		generation++;
+		chunkArrayShared = true;
+		return chunks;
+	}
+
+	/** Removes all the tiles. */
+	void clear() {
+		chunks = new int[0][];
+		chunkGenerations = new int[0];
+		chunkArrayShared = false;
+	}
+
+	/**
+	 * Reads a value of a tile from shared chunks.
+	 *
+	 * @param chunks chunks returned by {@link #share()}
+	 * @param id     id of the tile
+	 * @param field  one of the field constants of this class
+	 * @return value
+	 */
+	static int get(int[][] chunks, int id, int field) {
+		return chunks[id >> CHUNK_SHIFT][(id & (CHUNK_SIZE - 1)) * INTS_PER_TILE + field];
+	}
+
+	/**
+	 * Encodes a player index and a content.
+	 *
+	 * @param playerIndex index of the player
+	 * @param content     content of the tile; may be null
+	 * @return encoded value
+	 */
+	static int encodePlayerAndContent(int playerIndex, MapObject content) {
+		return (playerIndex << 8) | encodeContent(content);
+	}
+
+	/**
+	 * Returns the player index of an encoded value.
+	 *
+	 * @param playerAndContent encoded value
+	 * @return player index
+	 */
+	static int decodePlayerIndex(int playerAndContent) {
+		return playerAndContent >> 8;
+	}
+
+	/**
+	 * Creates the content of an encoded value.
+	 *
+	 * @param playerAndContent encoded value
+	 * @return shared content object; null if there is no content
+	 */
+	static MapObject decodeContent(int playerAndContent) {
+		int contentCode = playerAndContent & 0xFF;
+		switch (contentCode) {
+		case NO_CONTENT_CODE:
+			return null;
+		case CAPITAL_CODE:
+			return Capital.INSTANCE;
+		case CASTLE_CODE:
+			return Castle.INSTANCE;
+		case TREE_CODE:
+			return Tree.INSTANCE;
+		case PALM_TREE_CODE:
+			return PalmTree.INSTANCE;
+		case GRAVESTONE_CODE:
+			return Gravestone.INSTANCE;
+		default:
+			int unitCode = contentCode - FIRST_UNIT_CODE;
+			return Unit.of(Unit.UnitTypes.values()[unitCode >> 1], (unitCode & 1) != 0);
+		}
+	}
+
+	/**
+	 * Encodes a content.
+	 *
+	 * @param content content of a tile; may be null
+	 * @return content code
+	 */
+	static int encodeContent(MapObject content) {
+		switch (MapObjectKind.of(content)) {
+		case NONE:
+			return NO_CONTENT_CODE;
+		case UNIT:
+			Unit unit = (Unit) content;
+			return FIRST_UNIT_CODE + (unit.getUnitType().ordinal() << 1) + (unit.isCanAct() ? 1 : 0);
+		case CAPITAL:
+			return CAPITAL_CODE;
+		case CASTLE:
+			return CASTLE_CODE;
+		case TREE:
+			return TREE_CODE;
+		case PALM_TREE:
+			return PALM_TREE_CODE;
+		case GRAVESTONE:
+			return GRAVESTONE_CODE;
+		default:
+			throw new AssertionError(String.format("Cannot encode unknown map object %s.", content));
+		}
+	}
+
+	private int[] getWritableChunk(int chunkIndex) {
+		if (chunkIndex >= chunks.length) {
+			int newLength = Math.max(chunkIndex + 1, chunks.length * 2);
+			chunks = Arrays.copyOf(chunks, newLength);
+			chunkGenerations = Arrays.copyOf(chunkGenerations, newLength);
+			chunkArrayShared = false;
+		} else if (chunkArrayShared) {
+			chunks = chunks.clone();
+			chunkArrayShared = false;
+		}
+		int[] chunk = chunks[chunkIndex];
+		if (chunk == null) {
+			chunk = new int[CHUNK_SIZE * INTS_PER_TILE];
+			chunks[chunkIndex] = chunk;
+			chunkGenerations[chunkIndex] = generation;
+		} else if (chunkGenerations[chunkIndex] != generation) {
+			chunk = chunk.clone();
+			chunks[chunkIndex] = chunk;
+			chunkGenerations[chunkIndex] = generation;
+		}
+		return chunk;
+	}
+
+}
@@ -0,0 +1,142 @@
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package de.sesu8642.feudaltactics.lib.gamestate;
+
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Set of tiles of one map, stored as a bit set indexed by the tile ids. Unlike
+ * a HashSet, nothing is hashed, so changing the tiles while they are in the set
+ * is fine. Iteration happens in id order, which is the iteration order of the
+ * map. Sets do not survive removing tiles from the map because that changes the
+ * ids: afterwards, using the set throws a ConcurrentModificationException.
+ **/
+public class TileSet extends AbstractSet<HexTile> {
+
+	private final HexMap map;
+	private final BitSet bits;
+	// id generation of the map the bits are valid for
+	private final int idGeneration;
+	private int size = 0;
+	// incremented on every change to make iterators fail fast
+	private int modCount = 0;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param map map containing the tiles that will be put into the set
+	 */
+	public TileSet(HexMap map) {
+		this.map = map;
+		bits = new BitSet(map.size());
+		idGeneration = map.getIdGeneration();
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		if (!(o instanceof HexTile)) {
+			return false;
+		}
+		checkIds();
+		HexTile tile = (HexTile) o;
+		return tile.getMap() == map && bits.get(tile.getId());
+	}
+
+	@Override
+	public boolean add(HexTile tile) {
+		checkIds();
+		if (tile.getMap() != map) {
+			throw new IllegalArgumentException(String.format("Tile %s is not part of the map of this set.", tile));
+		}
+		if (bits.get(tile.getId())) {
+			return false;
+		}
+		bits.set(tile.getId());
+		size++;
+		modCount++;
+		return true;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		if (!contains(o)) {
+			return false;
+		}
+		bits.clear(((HexTile) o).getId());
+		size--;
+		modCount++;
+		return true;
+	}
+
+	@Override
+	public void clear() {
+		checkIds();
+		bits.clear();
+		size = 0;
+		modCount++;
+	}
+
+	@Override
+	public int size() {
+		checkIds();
+		return size;
+	}
+
+	@Override
+	public Iterator<HexTile> iterator() {
+		checkIds();
+		return new TileIterator();
+	}
+
+	private void checkIds() {
+		if (map.getIdGeneration() != idGeneration) {
+			throw new ConcurrentModificationException("Tiles were removed from the map of this set.");
+		}
+	}
+
+	/** Iterator over the tiles in id order. */
+	private class TileIterator implements Iterator<HexTile> {
+
+		private int nextId = bits.nextSetBit(0);
+		private int lastReturnedId = -1;
+		private int expectedModCount = modCount;
+
+		@Override
+		public boolean hasNext() {
+			return nextId >= 0;
+		}
+
+		@Override
+		public HexTile next() {
+			checkIds();
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			lastReturnedId = nextId;
+			nextId = bits.nextSetBit(nextId + 1);
+			return map.getTileById(lastReturnedId);
+		}
+
+		@Override
+		public void remove() {
+			if (lastReturnedId < 0) {
+				throw new IllegalStateException();
+			}
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			TileSet.this.remove(map.getTileById(lastReturnedId));
+			lastReturnedId = -1;
+			expectedModCount = modCount;
+		}
+
+	}
+
+}
@@ -11,6 +11,9 @@ public class Tree implements MapObject, Blocking {
 	public static final String SPRITE_NAME = "tree";
 	private static final int STRENGTH = 0;
 
+	// shared instance; trees have no state
+	public static final Tree INSTANCE = new Tree();
+
 	@Override
 	public String getSpriteName() {
 		return SPRITE_NAME;
@@ -21,9 +24,15 @@ public class Tree implements MapObject, Blocking {
 		return STRENGTH;
 	}
 
+	@Override
+	public MapObjectKind getKind() {
+		return MapObjectKind.TREE;
+	}
+
 	@Override
 	public Tree getCopy() {
-		return new Tree();
+		// no state to copy
+		return this;
 	}
 
 	@Override
@@ -14,8 +14,13 @@ public class Unit implements MapObject {
 
 	public static final int COST = 10;
 
+	// shared instances for every combination of type and canAct, see of()
+	private static final Unit[] SHARED_UNITS = createSharedUnits();
+
 	private boolean canAct = true;
 	private UnitTypes unitType;
+	// shared units must not be changed; transient to keep it out of the saves
+	private transient boolean shared = false;
 
 	/** Type of a unit determining its strength and sprite. **/
 	public enum UnitTypes {
@@ -64,6 +69,31 @@ public class Unit implements MapObject {
 		this.unitType = unitType;
 	}
 
+	/**
+	 * Returns a shared unit. Shared units cannot be changed, so they can be put on
+	 * any number of tiles and copying them doesn't allocate anything.
+	 * 
+	 * @param unitType type of the unit
+	 * @param canAct   whether the unit can act
+	 * @return shared unit
+	 */
+	public static Unit of(UnitTypes unitType, boolean canAct) {
+		return SHARED_UNITS[unitType.ordinal() * 2 + (canAct ? 1 : 0)];
+	}
+
+	private static Unit[] createSharedUnits() {
+		Unit[] result = new Unit[UnitTypes.values().length * 2];
+		for (UnitTypes unitType : UnitTypes.values()) {
+			for (boolean canAct : new boolean[] { false, true }) {
+				Unit unit = new Unit(unitType);
+				unit.canAct = canAct;
+				unit.shared = true;
+				result[unitType.ordinal() * 2 + (canAct ? 1 : 0)] = unit;
+			}
+		}
+		return result;
+	}
+
 	@Override
 	public String getSpriteName() {
 		return unitType.spriteName();
@@ -78,16 +108,33 @@ public class Unit implements MapObject {
 		return unitType.strength();
 	}
 
+	@Override
+	public MapObjectKind getKind() {
+		return MapObjectKind.UNIT;
+	}
+
 	public boolean isCanAct() {
 		return canAct;
 	}
 
+	/**
+	 * Setter for canAct. Not possible for shared units; use {@link #of} to get
+	 * another one instead.
+	 * 
+	 * @param canAct whether the unit can act
+	 */
 	public void setCanAct(boolean canAct) {
+		if (shared) {
+			throw new UnsupportedOperationException("Shared units cannot be changed.");
+		}
 		this.canAct = canAct;
 	}
 
 	@Override
 	public Unit getCopy() {
+		if (shared) {
+			return this;
+		}
 		Unit newUnit = new Unit(this.getUnitType());
 		newUnit.setCanAct(this.canAct);
 		return newUnit;
@@ -2,7 +2,9 @@
 
 package de.sesu8642.feudaltactics.lib.ingame;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 
@@ -10,7 +12,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.math.Vector2;
+
 import com.google.common.eventbus.EventBus;
 
 import de.sesu8642.feudaltactics.events.GameStateChangeEvent;
@@ -18,6 +20,8 @@ import de.sesu8642.feudaltactics.ingame.AutoSaveRepository;
 import de.sesu8642.feudaltactics.ingame.MapParameters;
 import de.sesu8642.feudaltactics.lib.gamestate.GameState;
 import de.sesu8642.feudaltactics.lib.gamestate.GameStateHelper;
+import de.sesu8642.feudaltactics.lib.gamestate.GameStateSnapshot;
+import de.sesu8642.feudaltactics.lib.gamestate.HexCoords;
 import de.sesu8642.feudaltactics.lib.gamestate.HexTile;
 import de.sesu8642.feudaltactics.lib.gamestate.Kingdom;
 import de.sesu8642.feudaltactics.lib.gamestate.Player;
@@ -39,6 +43,9 @@ public class GameController {
 	private final BotAi botAi;
 	private final AutoSaveRepository autoSaveRepo;
 	private Future<?> botTurnFuture;
+	// snapshots of the newest autosaves (newest first); undoing with them avoids
+	// deserializing the autosave
+	private final Deque<GameStateSnapshot> undoSnapshots = new ArrayDeque<>();
 
 	/** State of the currently running game. */
 	private GameState gameState;
@@ -66,18 +73,30 @@ public class GameController {
 			startBotTurn();
 		}
 		autoSaveRepo.deleteAllAutoSaveExceptLatestN(0);
+		trimUndoSnapshots();
 		autosave();
 		eventBus.post(new GameStateChangeEvent(gameState));
 	}
 
 	private void autosave() {
 		autoSaveRepo.autoSaveGameState(gameState);
+		undoSnapshots.push(GameStateHelper.createSnapshot(gameState));
+		trimUndoSnapshots();
+	}
+
+	/** Drops the snapshots of autosaves that were deleted. */
+	private void trimUndoSnapshots() {
+		while (undoSnapshots.size() > autoSaveRepo.getNoOfAutoSaves()) {
+			undoSnapshots.removeLast();
+		}
 	}
 
 	/** Loads the latest autosave. */
 	public void loadLatestAutosave() {
 		logger.info("loading latest autosave");
 		gameState = autoSaveRepo.getLatestAutoSave();
+		// the snapshots might belong to a different game
+		undoSnapshots.clear();
 		if (gameState.getActivePlayer().getType() == Type.LOCAL_BOT) {
 			startBotTurn();
 		}
@@ -108,17 +127,17 @@ public class GameController {
 			}
 		}
 		GameStateHelper.initializeMap(gameState, players, mapParams.getLandMass(), mapParams.getDensity(), null,
-				mapParams.getSeed());
+				mapParams.getSeed(), mapParams.getGenerationMode());
 		eventBus.post(new GameStateChangeEvent(gameState, true));
 	}
 
 	/**
 	 * Prints debug info about a tile.
 	 * 
-	 * @param hexCoords coords of the tile
+	 * @param hexCoords packed coords of the tile, see {@link HexCoords}
 	 */
-	public void printTileInfo(Vector2 hexCoords) {
-		logger.debug("clicked: {}", gameState.getMap().get(hexCoords));
+	public void printTileInfo(long hexCoords) {
+		logger.debug("clicked: {}", gameState.getMap().getTile(hexCoords));
 	}
 
 	/**
@@ -193,16 +212,25 @@ public class GameController {
 			// make bots act
 			startBotTurn();
 		} else {
-			logger.info("human player turn begins");
-			botAi.setSkipDisplayingTurn(false);
-			autosave();
-			// clear autosaves from previous turn
-			autoSaveRepo.deleteAllAutoSaveExceptLatestN(1);
-			eventBus.post(new GameStateChangeEvent(gameState, false));
+			startHumanPlayerTurn();
 		}
 	}
 
+	private void startHumanPlayerTurn() {
+		logger.info("human player turn begins");
+		botAi.setSkipDisplayingTurn(false);
+		autosave();
+		// clear autosaves from previous turn
+		autoSaveRepo.deleteAllAutoSaveExceptLatestN(1);
+		trimUndoSnapshots();
+		eventBus.post(new GameStateChangeEvent(gameState, false));
+	}
+
 	private void startBotTurn() {
+		if (!botAi.isDisplayingTurns()) {
+			startBotRound();
+			return;
+		}
 		botTurnFuture = botTurnExecutor.submit(() -> {
 			try {
 				botAi.doTurn(gameState, gameState.getBotIntelligence());
@@ -215,6 +243,33 @@ public class GameController {
 		});
 	}
 
+	/**
+	 * Does all the bot turns until a human player is active again in one go
+	 * because nobody will see them anyway. The turns are done on a copy of the game
+	 * state and only the final one is published.
+	 */
+	private void startBotRound() {
+		GameState roundGameState = GameStateHelper.createSnapshot(gameState).toGameState();
+		botTurnFuture = botTurnExecutor.submit(() -> {
+			try {
+				do {
+					if (Thread.interrupted()) {
+						throw new InterruptedException();
+					}
+					botAi.doTurnInstantly(roundGameState, roundGameState.getBotIntelligence());
+					GameStateHelper.endTurn(roundGameState);
+				} while (roundGameState.getActivePlayer().getType() == Type.LOCAL_BOT);
+				gameState = roundGameState;
+				startHumanPlayerTurn();
+			} catch (InterruptedException e) {
+				logger.info("bot round was canceled");
+				Thread.currentThread().interrupt();
+			} catch (Exception e) {
+				logger.error("an error happened during the enemy turns", e);
+			}
+		});
+	}
+
 	/** Cancels a bot turn by canceling the future. */
 	public void cancelBotTurn() {
 		if (botTurnFuture != null) {
@@ -251,8 +306,14 @@ public class GameController {
 			// remove the current state from autosaves
 			autoSaveRepo.deleteLatestAutoSave();
 			// load the previous state
-			GameState loaded = autoSaveRepo.getLatestAutoSave();
-			gameState = loaded;
+			if (undoSnapshots.size() > 1) {
+				undoSnapshots.pop();
+				gameState = undoSnapshots.peek().toGameState();
+			} else {
+				undoSnapshots.clear();
+				GameState loaded = autoSaveRepo.getLatestAutoSave();
+				gameState = loaded;
+			}
 		}
 		eventBus.post(new GameStateChangeEvent(gameState));
 	}
@@ -0,0 +1,174 @@
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package de.sesu8642.feudaltactics.lib.ingame.botai;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+import de.sesu8642.feudaltactics.lib.gamestate.GameState;
+import de.sesu8642.feudaltactics.lib.gamestate.HexMapHelper;
+import de.sesu8642.feudaltactics.lib.gamestate.HexTile;
+import de.sesu8642.feudaltactics.lib.gamestate.Kingdom;
+import de.sesu8642.feudaltactics.lib.gamestate.TileSet;
+import de.sesu8642.feudaltactics.lib.gamestate.Unit.UnitTypes;
+
+/**
+ * The tiles next to the active kingdom that could be conquered, each one only
+ * once, together with their offense scores. The score of a tile only depends on
+ * the tile and its neighbors, so after a move, only the tiles around the ones
+ * that changed need to be scored again. The changes are collected by the map
+ * until the frontier is closed.
+ */
+class AttackFrontier implements AutoCloseable {
+
+	private final GameState gameState;
+	private final Function<HexTile, OffenseTileScoreInfo> scorer;
+	private final TileScorer tileScorer;
+	private final Set<HexTile> changedTiles;
+	// best score first; if the score is the same, use the coordinates to eliminate
+	// randomness
+	private final NavigableSet<OffenseTileScoreInfo> scoreInfos = new TreeSet<>(
+			(OffenseTileScoreInfo o1, OffenseTileScoreInfo o2) -> {
+				int result = Integer.compare(o2.score, o1.score);
+				if (result == 0) {
+					result = o1.tile.compareTo(o2.tile);
+				}
+				return result;
+			});
+	// score info of every tile in the frontier, indexed by the tile id
+	private final OffenseTileScoreInfo[] tileScoreInfos;
+	// number of tiles in the frontier by the strength required to conquer them
+	private final int[] requiredStrengthCounts = new int[UnitTypes.strongest().strength() + 2];
+	private Kingdom kingdom;
+
+	/**
+	 * Constructor. Starts tracking the changes of the map.
+	 *
+	 * @param gameState  game state with the active kingdom to attack from
+	 * @param scorer     function determining the score info of a tile
+	 * @param tileScorer scorer for building the frontier from scratch
+	 */
+	public AttackFrontier(GameState gameState, Function<HexTile, OffenseTileScoreInfo> scorer,
+			TileScorer tileScorer) {
+		this.gameState = gameState;
+		this.scorer = scorer;
+		this.tileScorer = tileScorer;
+		tileScoreInfos = new OffenseTileScoreInfo[gameState.getMap().size()];
+		changedTiles = gameState.getMap().startTrackingChanges();
+		rebuild();
+	}
+
+	/**
+	 * Updates the frontier after the game state changed.
+	 */
+	public void update() {
+		if (gameState.getActiveKingdom() != kingdom) {
+			rebuild();
+			return;
+		}
+		// a tile can be next to several changed ones but should only be scored once
+		Set<HexTile> tilesToUpdate = new TileSet(gameState.getMap());
+		for (HexTile tile : changedTiles) {
+			tilesToUpdate.add(tile);
+			for (int i = 0; i < HexMapHelper.NEIGHBOR_COUNT; i++) {
+				HexTile neighborTile = HexMapHelper.getNeighborTile(gameState.getMap(), tile, i);
+				if (neighborTile != null) {
+					tilesToUpdate.add(neighborTile);
+				}
+			}
+		}
+		changedTiles.clear();
+		for (HexTile tile : tilesToUpdate) {
+			updateTile(tile);
+		}
+	}
+
+	public boolean isEmpty() {
+		return scoreInfos.isEmpty();
+	}
+
+	/**
+	 * Returns the score infos of all the tiles in the frontier.
+	 *
+	 * @return unmodifiable set of score infos, best score first
+	 */
+	public Set<OffenseTileScoreInfo> getScoreInfos() {
+		return Collections.unmodifiableSet(scoreInfos);
+	}
+
+	/**
+	 * Returns the lowest strength required to conquer any of the tiles.
+	 *
+	 * @return lowest required strength or -1 if the frontier is empty
+	 */
+	public int getMinimumRequiredStrength() {
+		for (int i = 0; i < requiredStrengthCounts.length; i++) {
+			if (requiredStrengthCounts[i] > 0) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/** Stops tracking the changes of the map. */
+	@Override
+	public void close() {
+		gameState.getMap().stopTrackingChanges();
+	}
+
+	private void rebuild() {
+		kingdom = gameState.getActiveKingdom();
+		for (OffenseTileScoreInfo scoreInfo : scoreInfos) {
+			tileScoreInfos[scoreInfo.tile.getId()] = null;
+		}
+		scoreInfos.clear();
+		changedTiles.clear();
+		Arrays.fill(requiredStrengthCounts, 0);
+		Set<HexTile> frontierTiles = new TileSet(gameState.getMap());
+		for (HexTile tile : kingdom.getTiles()) {
+			for (int i = 0; i < HexMapHelper.NEIGHBOR_COUNT; i++) {
+				HexTile neighborTile = HexMapHelper.getNeighborTile(gameState.getMap(), tile, i);
+				if (neighborTile != null && neighborTile.getKingdom() != kingdom) {
+					frontierTiles.add(neighborTile);
+				}
+			}
+		}
+		for (OffenseTileScoreInfo scoreInfo : tileScorer.scoreAll(new ArrayList<>(frontierTiles), scorer)) {
+			addScoreInfo(scoreInfo);
+		}
+	}
+
+	private void updateTile(HexTile tile) {
+		OffenseTileScoreInfo oldScoreInfo = tileScoreInfos[tile.getId()];
+		if (oldScoreInfo != null) {
+			scoreInfos.remove(oldScoreInfo);
+			requiredStrengthCounts[oldScoreInfo.requiredStrength]--;
+			tileScoreInfos[tile.getId()] = null;
+		}
+		if (tile.getKingdom() != kingdom && isNextToKingdom(tile)) {
+			addScoreInfo(scorer.apply(tile));
+		}
+	}
+
+	private void addScoreInfo(OffenseTileScoreInfo scoreInfo) {
+		scoreInfos.add(scoreInfo);
+		requiredStrengthCounts[scoreInfo.requiredStrength]++;
+		tileScoreInfos[scoreInfo.tile.getId()] = scoreInfo;
+	}
+
+	private boolean isNextToKingdom(HexTile tile) {
+		for (int i = 0; i < HexMapHelper.NEIGHBOR_COUNT; i++) {
+			HexTile neighborTile = HexMapHelper.getNeighborTile(gameState.getMap(), tile, i);
+			if (neighborTile != null && neighborTile.getKingdom() == kingdom) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
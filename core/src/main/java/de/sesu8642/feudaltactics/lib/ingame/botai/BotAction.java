@@ -0,0 +1,140 @@
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package de.sesu8642.feudaltactics.lib.ingame.botai;
+
+import de.sesu8642.feudaltactics.lib.gamestate.Castle;
+import de.sesu8642.feudaltactics.lib.gamestate.GameState;
+import de.sesu8642.feudaltactics.lib.gamestate.GameStateHelper;
+import de.sesu8642.feudaltactics.lib.gamestate.HexCoords;
+import de.sesu8642.feudaltactics.lib.gamestate.HexTile;
+import de.sesu8642.feudaltactics.lib.gamestate.Kingdom;
+import de.sesu8642.feudaltactics.lib.gamestate.MapObject;
+import de.sesu8642.feudaltactics.lib.gamestate.Unit;
+
+/**
+ * Single move of a bot. Tiles and kingdoms are referenced by coordinates, so
+ * the move can be applied to any game state that is equal to the one it was
+ * made in.
+ */
+final class BotAction {
+
+	/** Kinds of moves. */
+	enum Type {
+		/** Activates the kingdom containing the tile. */
+		ACTIVATE_KINGDOM,
+		/** Picks up the unit on the tile to use it somewhere else. */
+		PICK_UP,
+		/** Removes the castle from the tile and gives the money back. */
+		SELL_CASTLE,
+		/** Pays for a number of peasants that are kept by the bot. */
+		BUY_UNITS,
+		/** Buys a peasant to place it. */
+		BUY_PEASANT,
+		/** Buys a castle to place it. */
+		BUY_CASTLE,
+		/** Places the object on the tile in the own kingdom. */
+		PLACE_OWN,
+		/** Conquers the tile with the unit. */
+		CONQUER
+	}
+
+	private final Type type;
+	private final long coords;
+	private final MapObject object;
+	private final int amount;
+
+	private BotAction(Type type, long coords, MapObject object, int amount) {
+		this.type = type;
+		this.coords = coords;
+		this.object = object;
+		this.amount = amount;
+	}
+
+	static BotAction activateKingdom(Kingdom kingdom) {
+		return new BotAction(Type.ACTIVATE_KINGDOM, kingdom.getTiles().get(0).getCoords(), null, 0);
+	}
+
+	static BotAction pickUp(HexTile tile) {
+		return new BotAction(Type.PICK_UP, tile.getCoords(), null, 0);
+	}
+
+	static BotAction sellCastle(HexTile tile) {
+		return new BotAction(Type.SELL_CASTLE, tile.getCoords(), null, 0);
+	}
+
+	static BotAction buyUnits(int peasantCount) {
+		return new BotAction(Type.BUY_UNITS, 0, null, peasantCount);
+	}
+
+	static BotAction buyPeasant() {
+		return new BotAction(Type.BUY_PEASANT, 0, null, 0);
+	}
+
+	static BotAction buyCastle() {
+		return new BotAction(Type.BUY_CASTLE, 0, null, 0);
+	}
+
+	static BotAction placeOwn(HexTile tile, MapObject object) {
+		return new BotAction(Type.PLACE_OWN, tile.getCoords(), object, 0);
+	}
+
+	static BotAction conquer(HexTile tile, Unit unit) {
+		return new BotAction(Type.CONQUER, tile.getCoords(), unit, 0);
+	}
+
+	/**
+	 * Applies the move.
+	 *
+	 * @param gameState game state to apply the move to
+	 */
+	void apply(GameState gameState) {
+		Kingdom activeKingdom = gameState.getActiveKingdom();
+		switch (type) {
+		case ACTIVATE_KINGDOM:
+			gameState.setActiveKingdom(getTile(gameState).getKingdom());
+			break;
+		case PICK_UP:
+			getTile(gameState).setContent(null);
+			break;
+		case SELL_CASTLE:
+			getTile(gameState).setContent(null);
+			activeKingdom.setSavings(activeKingdom.getSavings() + Castle.COST);
+			break;
+		case BUY_UNITS:
+			activeKingdom.setSavings(activeKingdom.getSavings() - Unit.COST * amount);
+			break;
+		case BUY_PEASANT:
+			GameStateHelper.buyPeasant(gameState);
+			break;
+		case BUY_CASTLE:
+			GameStateHelper.buyCastle(gameState);
+			break;
+		case PLACE_OWN:
+			gameState.setHeldObject(object.getCopy());
+			GameStateHelper.placeOwn(gameState, getTile(gameState));
+			break;
+		case CONQUER:
+			gameState.setHeldObject(object.getCopy());
+			GameStateHelper.conquer(gameState, getTile(gameState));
+			break;
+		default:
+			throw new AssertionError(String.format("unknown bot action type '%s'", type));
+		}
+	}
+
+	private HexTile getTile(GameState gameState) {
+		HexTile tile = gameState.getMap().getTile(coords);
+		if (tile == null) {
+			throw new AssertionError(
+					String.format("bot action %s refers to a missing tile %s", type, HexCoords.toString(coords)));
+		}
+		return tile;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("BotAction [type=%s, coords=%s, object=%s, amount=%s]", type, HexCoords.toString(coords),
+				object, amount);
+	}
+
+}
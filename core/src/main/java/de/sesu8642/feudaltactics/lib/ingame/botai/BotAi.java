@@ -5,38 +5,29 @@ package de.sesu8642.feudaltactics.lib.ingame.botai;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.utils.reflect.ClassReflection;
 import com.google.common.eventbus.EventBus;
 
 import de.sesu8642.feudaltactics.events.BotTurnFinishedEvent;
-import de.sesu8642.feudaltactics.events.GameStateChangeEvent;
-import de.sesu8642.feudaltactics.lib.gamestate.Blocking;
-import de.sesu8642.feudaltactics.lib.gamestate.Capital;
 import de.sesu8642.feudaltactics.lib.gamestate.Castle;
 import de.sesu8642.feudaltactics.lib.gamestate.GameState;
 import de.sesu8642.feudaltactics.lib.gamestate.GameStateHelper;
-import de.sesu8642.feudaltactics.lib.gamestate.Gravestone;
 import de.sesu8642.feudaltactics.lib.gamestate.HexMapHelper;
 import de.sesu8642.feudaltactics.lib.gamestate.HexTile;
 import de.sesu8642.feudaltactics.lib.gamestate.InputValidationHelper;
 import de.sesu8642.feudaltactics.lib.gamestate.Kingdom;
-import de.sesu8642.feudaltactics.lib.gamestate.PalmTree;
-import de.sesu8642.feudaltactics.lib.gamestate.Tree;
+import de.sesu8642.feudaltactics.lib.gamestate.MapObjectKind;
+import de.sesu8642.feudaltactics.lib.gamestate.TileSet;
 import de.sesu8642.feudaltactics.lib.gamestate.Unit;
 import de.sesu8642.feudaltactics.lib.gamestate.Unit.UnitTypes;
 import de.sesu8642.feudaltactics.menu.preferences.MainPreferencesDao;
@@ -47,21 +38,43 @@ public class BotAi {
 	private final Logger logger = LoggerFactory.getLogger(this.getClass().getName());
 
 	private EventBus eventBus;
-	private MainPreferencesDao mainPrefsDao;
 
-	/** Current speed. */
-	private Speed currentSpeed = Speed.NORMAL;
+	/** Shows the turns to the player. */
+	private BotTurnPresenter presenter;
 
-	/** Whether to skip displaying the current turn. */
-	private boolean skipDisplayingTurn = false;
+	/** Scorer for many tiles at once. */
+	private final TileScorer tileScorer;
 
+	/**
+	 * Constructor for a bot that scores all the tiles in the thread doing the turn.
+	 * 
+	 * @param eventBus     event bus
+	 * @param mainPrefsDao DAO for the main preferences
+	 */
 	public BotAi(EventBus eventBus, MainPreferencesDao mainPrefsDao) {
+		this(eventBus, mainPrefsDao, null, 1);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param eventBus           event bus
+	 * @param mainPrefsDao       DAO for the main preferences
+	 * @param computeExecutor    executor for scoring many tiles in parallel; may
+	 *                           be null if the parallelism is 1
+	 * @param computeParallelism maximum number of threads to use at the same time,
+	 *                           including the one doing the turn
+	 */
+	public BotAi(EventBus eventBus, MainPreferencesDao mainPrefsDao, ExecutorService computeExecutor,
+			int computeParallelism) {
 		this.eventBus = eventBus;
-		this.mainPrefsDao = mainPrefsDao;
+		presenter = new BotTurnPresenter(eventBus, mainPrefsDao);
+		tileScorer = new TileScorer(computeExecutor, computeParallelism);
 	}
 
 	/**
-	 * Does the current players turn.
+	 * Does the current players turn. The moves are computed on a private copy of
+	 * the game state first and then shown to the player on the real one.
 	 * 
 	 * @param gameState    game state to do the turn in
 	 * @param intelligence intelligence level to use for the turn
@@ -70,85 +83,101 @@ public class BotAi {
 	public void doTurn(GameState gameState, Intelligence intelligence) throws InterruptedException {
 		logger.debug("doing the turn for bot player '{}' with intelligence level '{}'", gameState.getActivePlayer(),
 				intelligence);
-		Random random = new Random(gameState.hashCode());
+		Random random = new Random(gameState.getFingerprint());
+		GameState privateGameState = GameStateHelper.createSnapshot(gameState).toGameState();
+		BotTurnScript script = new BotTurnScript(privateGameState);
+		computeTurn(privateGameState, script, intelligence, random);
+		presenter.present(gameState, script);
+		eventBus.post(new BotTurnFinishedEvent(gameState));
+	}
+
+	/**
+	 * Does the current players turn without showing it to the player and without
+	 * posting any events.
+	 * 
+	 * @param gameState    game state to do the turn in
+	 * @param intelligence intelligence level to use for the turn
+	 */
+	public void doTurnInstantly(GameState gameState, Intelligence intelligence) {
+		logger.debug("doing the turn for bot player '{}' with intelligence level '{}' instantly",
+				gameState.getActivePlayer(), intelligence);
+		Random random = new Random(gameState.getFingerprint());
+		// nobody will see the moves, so there is no need to record them
+		computeTurn(gameState, new BotTurnScript(gameState, false), intelligence, random);
+		// reset kingdom done moving state
+		for (Kingdom kingdom : gameState.getKingdoms(gameState.getActivePlayer())) {
+			if (kingdom.isDoneMoving()) {
+				kingdom.setDoneMoving(false);
+			}
+		}
+	}
+
+	/**
+	 * Computes the current players turn by making the moves in the given game
+	 * state.
+	 * 
+	 * @param gameState    game state to make the moves in
+	 * @param script       script making the moves in the game state
+	 * @param intelligence intelligence level to use for the turn
+	 * @param random       source of randomness for the decisions
+	 */
+	void computeTurn(GameState gameState, BotTurnScript script, Intelligence intelligence, Random random) {
 		Optional<Kingdom> nextKingdomOptional = getNextKingdom(gameState);
 		while (nextKingdomOptional.isPresent()) {
 			Kingdom nextKingdom = nextKingdomOptional.get();
+			// only the private game state knows which kingdoms are done moving; in the
+			// real one, they are all reset after the turn anyway
 			nextKingdom.setDoneMoving(true);
-			doKingdomMove(gameState, nextKingdom, intelligence, random);
+			doKingdomMove(gameState, script, nextKingdom, intelligence, random);
 			nextKingdomOptional = getNextKingdom(gameState);
 		}
-		// reset kingdom done moving state
-		for (Kingdom kingdom : gameState.getKingdoms()) {
-			if (kingdom.isDoneMoving()) {
-				kingdom.setDoneMoving(false);
-			}
-		}
-		eventBus.post(new BotTurnFinishedEvent(gameState));
 	}
 
 	private Optional<Kingdom> getNextKingdom(GameState gameState) {
-		for (Kingdom kingdom : gameState.getKingdoms()) {
-			if (!kingdom.isDoneMoving() && kingdom.getPlayer() == gameState.getActivePlayer()) {
+		for (Kingdom kingdom : gameState.getKingdoms(gameState.getActivePlayer())) {
+			if (!kingdom.isDoneMoving()) {
 				return Optional.of(kingdom);
 			}
 		}
 		return Optional.empty();
 	}
 
-	private GameState doKingdomMove(GameState gameState, Kingdom kingdom, Intelligence intelligence, Random random)
-			throws InterruptedException {
+	private void doKingdomMove(GameState gameState, BotTurnScript script, Kingdom kingdom, Intelligence intelligence,
+			Random random) {
 		logger.debug("doing moves in kingdom '{}'", kingdom);
-		gameState.setActiveKingdom(kingdom);
-		delayForPreview(gameState);
+		script.perform(BotAction.activateKingdom(kingdom));
+		script.endStep();
 		// pick up all units
 		PickedUpUnits pickedUpUnits = new PickedUpUnits();
-		pickUpAllAvailableUnits(kingdom, pickedUpUnits);
+		pickUpAllAvailableUnits(script, kingdom, pickedUpUnits);
 		// remember the tiles where a castle was placed to possibly reverse the decision
 		// later after conquering
-		Set<HexTile> placedCastleTiles = new HashSet<>();
+		Set<HexTile> placedCastleTiles = new TileSet(gameState.getMap());
 
-		removeBlockingObjects(gameState, pickedUpUnits, intelligence.blockingObjectRemovalScoreTreshold);
-		defendMostImportantTiles(gameState, intelligence, pickedUpUnits, placedCastleTiles);
+		removeBlockingObjects(gameState, script, pickedUpUnits, intelligence.blockingObjectRemovalScoreTreshold);
+		defendMostImportantTiles(gameState, script, intelligence, pickedUpUnits, placedCastleTiles);
 		if (random.nextFloat() <= intelligence.chanceToConquerPerTurn) {
-			conquerAsMuchAsPossible(gameState, intelligence, pickedUpUnits);
+			conquerAsMuchAsPossible(gameState, script, intelligence, pickedUpUnits);
 		}
 		if (intelligence.reconsidersWhichTilesToProtect) {
-			sellCastles(gameState.getActiveKingdom(), placedCastleTiles);
-			pickUpAllAvailableUnits(gameState.getActiveKingdom(), pickedUpUnits);
-			defendMostImportantTiles(gameState, intelligence, pickedUpUnits, placedCastleTiles);
-			conquerAsMuchAsPossible(gameState, intelligence, pickedUpUnits);
+			sellCastles(script, placedCastleTiles);
+			pickUpAllAvailableUnits(script, gameState.getActiveKingdom(), pickedUpUnits);
+			defendMostImportantTiles(gameState, script, intelligence, pickedUpUnits, placedCastleTiles);
+			conquerAsMuchAsPossible(gameState, script, intelligence, pickedUpUnits);
 		}
-		removeBlockingObjects(gameState, pickedUpUnits, 0);
-		protectWithLeftoverUnits(gameState, intelligence, pickedUpUnits);
-
-		delayForPreview(gameState);
-		return gameState;
+		removeBlockingObjects(gameState, script, pickedUpUnits, 0);
+		protectWithLeftoverUnits(gameState, script, intelligence, pickedUpUnits);
+		script.endStep();
 	}
 
-	/**
-	 * Delays a little for the user to see what is happening.
-	 * 
-	 * @param gameState intermediate gameState to display as a preview
-	 * @throws InterruptedException if interrupted
-	 */
-	private void delayForPreview(GameState gameState) throws InterruptedException {
-		// no need to update the game state if there is no delay to see it anyway
-		if (skipDisplayingTurn || !mainPrefsDao.getMainPreferences().isShowEnemyTurns()) {
-			return;
-		}
-		eventBus.post(new GameStateChangeEvent(gameState));
-		Thread.sleep(currentSpeed.tickDelayMs);
-	}
-
-	private void pickUpAllAvailableUnits(Kingdom kingdom, PickedUpUnits pickedUpUnits) {
+	private void pickUpAllAvailableUnits(BotTurnScript script, Kingdom kingdom, PickedUpUnits pickedUpUnits) {
 		logger.debug("picking up all available units");
 		for (HexTile tile : kingdom.getTiles()) {
-			if (tile.getContent() != null && ClassReflection.isAssignableFrom(Unit.class, tile.getContent().getClass())
+			if (tile.getContentKind() == MapObjectKind.UNIT
 					&& ((Unit) tile.getContent()).isCanAct()) {
 				int strength = ((Unit) tile.getContent()).getStrength();
 				pickedUpUnits.addUnitOfStrength(strength);
-				tile.setContent(null);
+				script.perform(BotAction.pickUp(tile));
 			}
 		}
 	}
@@ -157,168 +186,148 @@ public class BotAi {
 	 * Try to remove blocking objects like gravestones and trees.
 	 * 
 	 * @param gameState                   game state
+	 * @param script                      script to record the moves in
 	 * @param pickedUpUnits               picked up units that can be used
 	 * @param minimumRemovalScoreTreshold minimum score a tile must have to be
 	 *                                    removed
 	 */
-	private void removeBlockingObjects(GameState gameState, PickedUpUnits pickedUpUnits,
+	private void removeBlockingObjects(GameState gameState, BotTurnScript script, PickedUpUnits pickedUpUnits,
 			int minimumRemovalScoreTreshold) {
 		logger.debug("removing blocking objects");
-		// not using a hashset because the tiles are changed in this function which
-		// changes their hashcode as well
-		Map<Vector2, HexTile> tilesWithBlockingObjects = gameState.getActiveKingdom().getTiles().stream().filter(
-				tile -> tile.getContent() != null && Blocking.class.isAssignableFrom(tile.getContent().getClass()))
-				.collect(Collectors.toMap(HexTile::getPosition, tile -> tile));
-		TileScoreInfo bestRemovalCandidate = getBestBlockingObjectRemovalScore(gameState,
-				tilesWithBlockingObjects.values());
+		Set<HexTile> tilesWithBlockingObjects = new TileSet(gameState.getMap());
+		for (MapObjectKind kind : MapObjectKind.values()) {
+			if (kind.isBlocking() && gameState.getActiveKingdom().getContentCount(kind) > 0) {
+				// the map knows all the tiles with that content, so the kingdom doesn't need to
+				// be scanned
+				for (HexTile tile : gameState.getMap().getTilesWithContent(kind)) {
+					if (tile.getKingdom() == gameState.getActiveKingdom()) {
+						tilesWithBlockingObjects.add(tile);
+					}
+				}
+			}
+		}
+		TileScoreInfo bestRemovalCandidate = getBestBlockingObjectRemovalScore(gameState, tilesWithBlockingObjects);
 		while (bestRemovalCandidate.score >= minimumRemovalScoreTreshold) {
-			if (pickedUpUnits.ofType(UnitTypes.PEASANT) >= 1 || acquireUnit(gameState, gameState.getActiveKingdom(),
-					pickedUpUnits, UnitTypes.PEASANT.strength())) {
+			if (pickedUpUnits.ofType(UnitTypes.PEASANT) >= 1 || acquireUnit(gameState, script,
+					gameState.getActiveKingdom(), pickedUpUnits, UnitTypes.PEASANT.strength())) {
 				logger.debug("removing blocking object with score {} from tile {}", bestRemovalCandidate.score,
 						bestRemovalCandidate.tile);
 				pickedUpUnits.removeUnit(UnitTypes.PEASANT);
-				gameState.setHeldObject(new Unit(UnitTypes.PEASANT));
-				GameStateHelper.placeOwn(gameState, bestRemovalCandidate.tile);
-				tilesWithBlockingObjects.remove(bestRemovalCandidate.tile.getPosition());
-				bestRemovalCandidate = getBestBlockingObjectRemovalScore(gameState, tilesWithBlockingObjects.values());
+				script.perform(BotAction.placeOwn(bestRemovalCandidate.tile, Unit.of(UnitTypes.PEASANT, true)));
+				tilesWithBlockingObjects.remove(bestRemovalCandidate.tile);
+				bestRemovalCandidate = getBestBlockingObjectRemovalScore(gameState, tilesWithBlockingObjects);
 			} else {
 				return;
 			}
 		}
 	}
 
-	private void defendMostImportantTiles(GameState gameState, Intelligence intelligence, PickedUpUnits pickedUpUnits,
-			Set<HexTile> placedCastleTiles) {
+	private void defendMostImportantTiles(GameState gameState, BotTurnScript script, Intelligence intelligence,
+			PickedUpUnits pickedUpUnits, Set<HexTile> placedCastleTiles) {
 		logger.debug("defending most important tiles");
-		Set<HexTile> interestingProtectionTiles = getInterestingProtectionTiles(gameState);
-		TileScoreInfo bestProtectionCandidate = getBestDefenseTileScore(gameState, intelligence,
-				interestingProtectionTiles);
-		while (bestProtectionCandidate.score >= intelligence.protectWithCastleScoreTreshold) {
-			// if enough money buy castle
-			if (InputValidationHelper.checkBuyObject(gameState, gameState.getActivePlayer(), Castle.COST)) {
-				GameStateHelper.buyCastle(gameState);
-				GameStateHelper.placeOwn(gameState, bestProtectionCandidate.tile);
-				placedCastleTiles.add(bestProtectionCandidate.tile);
-			} else if (pickedUpUnits.ofType(UnitTypes.PEASANT) > 0) {
-				// protect with existing peasant
-				pickedUpUnits.removeUnit(UnitTypes.PEASANT);
-				gameState.setHeldObject(new Unit(UnitTypes.PEASANT));
-				GameStateHelper.placeOwn(gameState, bestProtectionCandidate.tile);
-			} else if (InputValidationHelper.checkBuyObject(gameState, gameState.getActivePlayer(), Unit.COST)) {
-				// protect with new peasant
-				GameStateHelper.buyPeasant(gameState);
-				GameStateHelper.placeOwn(gameState, bestProtectionCandidate.tile);
-			} else {
-				break;
+		try (DefenseScoreHeap defenseScores = createDefenseScoreHeap(gameState, intelligence)) {
+			TileScoreInfo bestProtectionCandidate = defenseScores.getBest();
+			while (bestProtectionCandidate.score >= intelligence.protectWithCastleScoreTreshold) {
+				// if enough money buy castle
+				if (InputValidationHelper.checkBuyObject(gameState, gameState.getActivePlayer(), Castle.COST)) {
+					script.perform(BotAction.buyCastle());
+					script.perform(BotAction.placeOwn(bestProtectionCandidate.tile, gameState.getHeldObject()));
+					placedCastleTiles.add(bestProtectionCandidate.tile);
+				} else if (pickedUpUnits.ofType(UnitTypes.PEASANT) > 0) {
+					// protect with existing peasant
+					pickedUpUnits.removeUnit(UnitTypes.PEASANT);
+					script.perform(BotAction.placeOwn(bestProtectionCandidate.tile, Unit.of(UnitTypes.PEASANT, true)));
+				} else if (InputValidationHelper.checkBuyObject(gameState, gameState.getActivePlayer(), Unit.COST)) {
+					// protect with new peasant
+					script.perform(BotAction.buyPeasant());
+					script.perform(BotAction.placeOwn(bestProtectionCandidate.tile, gameState.getHeldObject()));
+				} else {
+					break;
+				}
+				bestProtectionCandidate = defenseScores.getBest();
 			}
-			bestProtectionCandidate = getBestDefenseTileScore(gameState, intelligence, interestingProtectionTiles);
-		}
-		while (bestProtectionCandidate.score >= intelligence.protectWithUnitScoreTreshold) {
-			if (pickedUpUnits.ofType(UnitTypes.PEASANT) > 0 || acquireUnit(gameState, gameState.getActiveKingdom(),
-					pickedUpUnits, UnitTypes.PEASANT.strength())) {
-				// protect with existing peasant
-				pickedUpUnits.removeUnit(UnitTypes.PEASANT);
-				gameState.setHeldObject(new Unit(UnitTypes.PEASANT));
-				GameStateHelper.placeOwn(gameState, bestProtectionCandidate.tile);
-			} else {
-				break;
+			while (bestProtectionCandidate.score >= intelligence.protectWithUnitScoreTreshold) {
+				if (pickedUpUnits.ofType(UnitTypes.PEASANT) > 0 || acquireUnit(gameState, script,
+						gameState.getActiveKingdom(), pickedUpUnits, UnitTypes.PEASANT.strength())) {
+					// protect with existing peasant
+					pickedUpUnits.removeUnit(UnitTypes.PEASANT);
+					script.perform(BotAction.placeOwn(bestProtectionCandidate.tile, Unit.of(UnitTypes.PEASANT, true)));
+				} else {
+					break;
+				}
+				bestProtectionCandidate = defenseScores.getBest();
 			}
-			bestProtectionCandidate = getBestDefenseTileScore(gameState, intelligence, interestingProtectionTiles);
 		}
 	}
 
-	private void conquerAsMuchAsPossible(GameState gameState, Intelligence intelligence, PickedUpUnits pickedUpUnits) {
+	private void conquerAsMuchAsPossible(GameState gameState, BotTurnScript script, Intelligence intelligence,
+			PickedUpUnits pickedUpUnits) {
 		logger.debug("conquering as much as possible");
-		boolean unableToConquerAnyMore = false;
-		whileloop: while (!unableToConquerAnyMore) {
-			// need a list here to be deterministic
-			List<HexTile> possibleConquerTiles = determineNeighboringEnemyTiles(gameState);
-			if (possibleConquerTiles.isEmpty()) {
-				// the bot actually won the game
-				break;
-			}
-
-			// determine how "valuable" the tiles are for conquering
-			Set<OffenseTileScoreInfo> offenseTileScoreInfoSet = Collections
-					.newSetFromMap(new ConcurrentHashMap<OffenseTileScoreInfo, Boolean>());
-			possibleConquerTiles.parallelStream().forEach(conquerTile -> offenseTileScoreInfoSet
-					.add(getOffenseTileScoreInfo(gameState, intelligence, conquerTile)));
-			List<OffenseTileScoreInfo> offenseTileScoreInfos = new ArrayList<>(offenseTileScoreInfoSet);
-			offenseTileScoreInfos.sort((OffenseTileScoreInfo o1, OffenseTileScoreInfo o2) -> {
-				int result = Integer.compare(o2.score, o1.score);
-				// if the score is the same, use the coordinates to eliminate randomness
-				if (result == 0) {
-					result = o1.tile.compareTo(o2.tile);
-				}
-				return result;
-			});
-
-			for (OffenseTileScoreInfo offenseTileScoreInfo : offenseTileScoreInfos) {
-				if (pickedUpUnits.getTotalNoOfUnits() == 0) {
+		// determines how "valuable" the tiles are for conquering and keeps them up to
+		// date after every conquest
+		try (AttackFrontier attackFrontier = new AttackFrontier(gameState,
+				conquerTile -> getOffenseTileScoreInfo(gameState, intelligence, conquerTile), tileScorer)) {
+			boolean unableToConquerAnyMore = false;
+			whileloop: while (!unableToConquerAnyMore) {
+				attackFrontier.update();
+				if (attackFrontier.isEmpty()) {
+					// the bot actually won the game
 					break;
 				}
-				for (int i = offenseTileScoreInfo.requiredStrength; i <= UnitTypes.strongest().strength(); i++) {
-					if (conquerTileWithStoredUnit(gameState, offenseTileScoreInfo.tile, UnitTypes.ofStrength(i),
-							pickedUpUnits.ofStrength(i))) {
-						pickedUpUnits.removeUnitOfStrength(i);
-						continue whileloop;
+
+				for (OffenseTileScoreInfo offenseTileScoreInfo : attackFrontier.getScoreInfos()) {
+					if (pickedUpUnits.getTotalNoOfUnits() == 0) {
+						break;
+					}
+					for (int i = offenseTileScoreInfo.requiredStrength; i <= UnitTypes.strongest().strength(); i++) {
+						if (conquerTileWithStoredUnit(script, offenseTileScoreInfo.tile, UnitTypes.ofStrength(i),
+								pickedUpUnits.ofStrength(i))) {
+							pickedUpUnits.removeUnitOfStrength(i);
+							continue whileloop;
+						}
 					}
 				}
-			}
-			// at this point no more tiles can be conquered with the existing units --> buy
-			// some more or combine
-			int minimumRequiredStrengthForConquering = offenseTileScoreInfos
-					.stream().min((OffenseTileScoreInfo t1, OffenseTileScoreInfo t2) -> Integer
-							.compare(t1.requiredStrength, t2.requiredStrength))
-					.orElse(new OffenseTileScoreInfo(null, -1, -1)).requiredStrength;
-			if (!acquireUnit(gameState, gameState.getActiveKingdom(), pickedUpUnits,
-					minimumRequiredStrengthForConquering)) {
-				unableToConquerAnyMore = true;
-			}
-		}
-	}
-
-	private List<HexTile> determineNeighboringEnemyTiles(GameState gameState) {
-		List<HexTile> result = new ArrayList<>();
-		for (HexTile tile : gameState.getActiveKingdom().getTiles()) {
-			List<HexTile> neighborTiles = HexMapHelper.getNeighborTiles(gameState.getMap(), tile);
-			for (HexTile neighborTile : neighborTiles) {
-				if (neighborTile != null && neighborTile.getKingdom() != tile.getKingdom()) {
-					result.add(neighborTile);
+				// at this point no more tiles can be conquered with the existing units --> buy
+				// some more or combine
+				if (!acquireUnit(gameState, script, gameState.getActiveKingdom(), pickedUpUnits,
+						attackFrontier.getMinimumRequiredStrength())) {
+					unableToConquerAnyMore = true;
 				}
 			}
 		}
-		return result;
 	}
 
-	private boolean acquireUnit(GameState gameState, Kingdom kingdom, PickedUpUnits pickedUpUnits, int strength) {
+	private boolean acquireUnit(GameState gameState, BotTurnScript script, Kingdom kingdom,
+			PickedUpUnits pickedUpUnits, int strength) {
 		logger.debug("acquiring a new unit");
 		// this could probably be done in much less lines but be 5x less readable
 		// could try with recursion: acquire the next weaker unit first
 		switch (strength) {
 		case 1:
-			return acquirePeasant(gameState, kingdom, pickedUpUnits);
+			return acquirePeasant(gameState, script, kingdom, pickedUpUnits);
 		case 2:
-			return acquireSpearman(gameState, kingdom, pickedUpUnits);
+			return acquireSpearman(gameState, script, kingdom, pickedUpUnits);
 		case 3:
-			return acquireKnight(gameState, kingdom, pickedUpUnits);
+			return acquireKnight(gameState, script, kingdom, pickedUpUnits);
 		case 4:
-			return acquireBaron(gameState, kingdom, pickedUpUnits);
+			return acquireBaron(gameState, script, kingdom, pickedUpUnits);
 		default:
 			// the requested strength is greater than the strongest unit --> not possible
 			return false;
 		}
 	}
 
-	private boolean acquirePeasant(GameState gameState, Kingdom kingdom, PickedUpUnits pickedUpUnits) {
+	private boolean acquirePeasant(GameState gameState, BotTurnScript script, Kingdom kingdom,
+			PickedUpUnits pickedUpUnits) {
 		if (canKingdomSustainNewUnit(gameState, kingdom, pickedUpUnits, UnitTypes.PEASANT)) {
-			buyUnitDirectly(kingdom, pickedUpUnits, UnitTypes.PEASANT);
+			buyUnitDirectly(script, pickedUpUnits, UnitTypes.PEASANT);
 			return true;
 		}
 		return false;
 	}
 
-	private boolean acquireSpearman(GameState gameState, Kingdom kingdom, PickedUpUnits pickedUpUnits) {
+	private boolean acquireSpearman(GameState gameState, BotTurnScript script, Kingdom kingdom,
+			PickedUpUnits pickedUpUnits) {
 		if (pickedUpUnits.ofType(UnitTypes.PEASANT) >= 2) {
 			// combine 2 existing peasants
 			pickedUpUnits.removeUnit(UnitTypes.PEASANT, 2);
@@ -330,19 +339,20 @@ public class BotAi {
 						+ UnitTypes.PEASANT.salary() >= 0 || kingdom.getSavings() > UnitTypes.SPEARMAN.salary() * 3)
 				&& kingdom.getSavings() >= Unit.COST) {
 			// buy 1 peasant and combine with an existing one
-			kingdom.setSavings(kingdom.getSavings() - Unit.COST);
+			script.perform(BotAction.buyUnits(1));
 			pickedUpUnits.addUnit(UnitTypes.SPEARMAN);
 			pickedUpUnits.removeUnit(UnitTypes.PEASANT);
 			return true;
 		} else if (canKingdomSustainNewUnit(gameState, kingdom, pickedUpUnits, UnitTypes.SPEARMAN)) {
 			// buy 2 peasants = 1 spearman
-			buyUnitDirectly(kingdom, pickedUpUnits, UnitTypes.SPEARMAN);
+			buyUnitDirectly(script, pickedUpUnits, UnitTypes.SPEARMAN);
 			return true;
 		}
 		return false;
 	}
 
-	private boolean acquireKnight(GameState gameState, Kingdom kingdom, PickedUpUnits pickedUpUnits) {
+	private boolean acquireKnight(GameState gameState, BotTurnScript script, Kingdom kingdom,
+			PickedUpUnits pickedUpUnits) {
 		if (pickedUpUnits.ofType(UnitTypes.PEASANT) >= 1 && pickedUpUnits.ofType(UnitTypes.SPEARMAN) >= 1) {
 			// combine spearman and peasant
 			pickedUpUnits.removeUnit(UnitTypes.PEASANT);
@@ -355,19 +365,20 @@ public class BotAi {
 						+ UnitTypes.SPEARMAN.salary() >= 0 || kingdom.getSavings() > UnitTypes.KNIGHT.salary() * 3)
 				&& kingdom.getSavings() > Unit.COST) {
 			// buy 1 peasant and combine with an existing spearman
-			kingdom.setSavings(kingdom.getSavings() - Unit.COST);
+			script.perform(BotAction.buyUnits(1));
 			pickedUpUnits.removeUnit(UnitTypes.SPEARMAN);
 			pickedUpUnits.addUnit(UnitTypes.KNIGHT);
 			return true;
 		} else if (canKingdomSustainNewUnit(gameState, kingdom, pickedUpUnits, UnitTypes.KNIGHT)) {
 			// buy 3 peasants = 1 knight
-			buyUnitDirectly(kingdom, pickedUpUnits, UnitTypes.KNIGHT);
+			buyUnitDirectly(script, pickedUpUnits, UnitTypes.KNIGHT);
 			return true;
 		}
 		return false;
 	}
 
-	private boolean acquireBaron(GameState gameState, Kingdom kingdom, PickedUpUnits pickedUpUnits) {
+	private boolean acquireBaron(GameState gameState, BotTurnScript script, Kingdom kingdom,
+			PickedUpUnits pickedUpUnits) {
 		// this does not have all possible combination options to get a baron
 		if (pickedUpUnits.ofType(UnitTypes.PEASANT) >= 1 && pickedUpUnits.ofType(UnitTypes.KNIGHT) >= 1) {
 			// combine knight and peasant
@@ -381,13 +392,13 @@ public class BotAi {
 						+ UnitTypes.KNIGHT.salary() >= 0 || kingdom.getSavings() > UnitTypes.BARON.salary() * 3)
 				&& kingdom.getSavings() >= Unit.COST) {
 			// buy 1 peasant and combine with an existing knight
-			kingdom.setSavings(kingdom.getSavings() - Unit.COST);
+			script.perform(BotAction.buyUnits(1));
 			pickedUpUnits.removeUnit(UnitTypes.KNIGHT);
 			pickedUpUnits.addUnit(UnitTypes.BARON);
 			return true;
 		} else if (canKingdomSustainNewUnit(gameState, kingdom, pickedUpUnits, UnitTypes.BARON)) {
 			// buy 4 peasants = 1 baron
-			buyUnitDirectly(kingdom, pickedUpUnits, UnitTypes.BARON);
+			buyUnitDirectly(script, pickedUpUnits, UnitTypes.BARON);
 			return true;
 		}
 		return false;
@@ -402,44 +413,43 @@ public class BotAi {
 				&& kingdom.getSavings() >= Unit.COST * unitType.strength());
 	}
 
-	private void buyUnitDirectly(Kingdom kingdom, PickedUpUnits pickedUpUnits, UnitTypes unitType) {
-		kingdom.setSavings(kingdom.getSavings() - Unit.COST * unitType.strength());
+	private void buyUnitDirectly(BotTurnScript script, PickedUpUnits pickedUpUnits, UnitTypes unitType) {
+		script.perform(BotAction.buyUnits(unitType.strength()));
 		pickedUpUnits.addUnit(unitType);
 	}
 
-	private void protectWithLeftoverUnits(GameState gameState, Intelligence intelligence, PickedUpUnits pickedUpUnits) {
+	private void protectWithLeftoverUnits(GameState gameState, BotTurnScript script, Intelligence intelligence,
+			PickedUpUnits pickedUpUnits) {
 		logger.debug("protecting the kingdom with leftover units");
-		Set<HexTile> interestingProtectionTiles = getInterestingProtectionTiles(gameState);
-		TileScoreInfo bestDefenseTileScore = getBestDefenseTileScore(gameState, intelligence,
-				interestingProtectionTiles);
-		while (bestDefenseTileScore.score >= 0) {
-			if (pickedUpUnits.getTotalNoOfUnits() == 0) {
-				break;
-			}
-			// use the strongest units to protect the most important tiles --> use negative
-			// strength to get strongest units first
-			List<UnitTypes> orderedUnitTypes = Arrays.stream(UnitTypes.values())
-					.sorted(Comparator.comparingInt(type -> type.strength() * -1)).collect(Collectors.toList());
-			for (UnitTypes type : orderedUnitTypes) {
-				if (pickedUpUnits.ofType(type) > 0) {
-					gameState.setHeldObject(new Unit(type));
-					GameStateHelper.placeOwn(gameState, bestDefenseTileScore.tile);
-					pickedUpUnits.removeUnit(type);
+		try (DefenseScoreHeap defenseScores = createDefenseScoreHeap(gameState, intelligence)) {
+			TileScoreInfo bestDefenseTileScore = defenseScores.getBest();
+			while (bestDefenseTileScore.score >= 0) {
+				if (pickedUpUnits.getTotalNoOfUnits() == 0) {
 					break;
 				}
+				// use the strongest units to protect the most important tiles --> use
+				// negative strength to get strongest units first
+				List<UnitTypes> orderedUnitTypes = Arrays.stream(UnitTypes.values())
+						.sorted(Comparator.comparingInt(type -> type.strength() * -1)).collect(Collectors.toList());
+				for (UnitTypes type : orderedUnitTypes) {
+					if (pickedUpUnits.ofType(type) > 0) {
+						script.perform(BotAction.placeOwn(bestDefenseTileScore.tile, Unit.of(type, true)));
+						pickedUpUnits.removeUnit(type);
+						break;
+					}
+				}
+				bestDefenseTileScore = defenseScores.getBest();
 			}
-			bestDefenseTileScore = getBestDefenseTileScore(gameState, intelligence, interestingProtectionTiles);
 		}
-		placeLeftOverUnitsSomeWhere(gameState, pickedUpUnits);
+		placeLeftOverUnitsSomeWhere(gameState, script, pickedUpUnits);
 	}
 
-	private void placeLeftOverUnitsSomeWhere(GameState gameState, PickedUpUnits pickedUpUnits) {
+	private void placeLeftOverUnitsSomeWhere(GameState gameState, BotTurnScript script, PickedUpUnits pickedUpUnits) {
 		for (UnitTypes type : UnitTypes.values()) {
 			for (int i = 0; i < pickedUpUnits.ofType(type); i++) {
 				Optional<HexTile> emptyOrTreeTileOptional = findEmptyOrTreeTileInActiveKingdom(gameState);
 				if (emptyOrTreeTileOptional.isPresent()) {
-					gameState.setHeldObject(new Unit(type));
-					GameStateHelper.placeOwn(gameState, emptyOrTreeTileOptional.get());
+					script.perform(BotAction.placeOwn(emptyOrTreeTileOptional.get(), Unit.of(type, true)));
 				} else {
 					logger.error("Unable to place leftover unit because there are no available spaces.");
 				}
@@ -449,15 +459,14 @@ public class BotAi {
 
 	private Optional<HexTile> findEmptyOrTreeTileInActiveKingdom(GameState gameState) {
 		return gameState.getActiveKingdom().getTiles().stream().filter(tile -> tile.getContent() == null
-				|| ClassReflection.isAssignableFrom(Tree.class, tile.getContent().getClass())).findFirst();
+				|| tile.getContentKind() == MapObjectKind.TREE).findFirst();
 	}
 
-	private void sellCastles(Kingdom kingdom, Set<HexTile> placedCastleTiles) {
+	private void sellCastles(BotTurnScript script, Set<HexTile> placedCastleTiles) {
 		logger.debug("selling previously bought castles again");
 		// sell the castles bought earlier to re-assess the situation after conquering
 		for (HexTile tile : placedCastleTiles) {
-			tile.setContent(null);
-			kingdom.setSavings(kingdom.getSavings() + Castle.COST);
+			script.perform(BotAction.sellCastle(tile));
 		}
 	}
 
@@ -470,11 +479,11 @@ public class BotAi {
 	}
 
 	private Set<HexTile> getInterestingProtectionTiles(GameState gameState) {
-		HashSet<HexTile> interestingPlacementTiles = new HashSet<>();
+		Set<HexTile> interestingPlacementTiles = new TileSet(gameState.getMap());
 		for (HexTile tile : gameState.getActiveKingdom().getTiles()) {
 			// tile is interesting for placement if it is close to another kingdom
-			List<HexTile> neighborsNeighbors = HexMapHelper.getNeighborsNeighborTiles(gameState.getMap(), tile);
-			for (HexTile neighborsNeighbor : neighborsNeighbors) {
+			for (int i = 0; i < HexMapHelper.NEIGHBORS_NEIGHBOR_COUNT; i++) {
+				HexTile neighborsNeighbor = HexMapHelper.getNeighborsNeighborTile(gameState.getMap(), tile, i);
 				if (neighborsNeighbor != null && neighborsNeighbor.getKingdom() != gameState.getActiveKingdom()) {
 					interestingPlacementTiles.add(tile);
 					break;
@@ -486,33 +495,26 @@ public class BotAi {
 
 	private TileScoreInfo getBestBlockingObjectRemovalScore(GameState gameState,
 			Collection<HexTile> tilesWithBlockingObjects) {
-		Set<TileScoreInfo> scores = Collections.newSetFromMap(new ConcurrentHashMap<TileScoreInfo, Boolean>());
-		tilesWithBlockingObjects.parallelStream()
-				.forEach(tile -> scores.add(new TileScoreInfo(tile, getBlockingObjectRemovalScore(gameState, tile))));
-		return scores.stream().max((TileScoreInfo t1, TileScoreInfo t2) -> {
-			int result = Integer.compare(t1.score, t2.score);
-			// if the score is the same, use the coordinates to eliminate randomness
-			if (result == 0) {
-				result = t1.tile.compareTo(t2.tile);
-			}
-			return result;
-		}).orElse(new TileScoreInfo(null, -1));
+		return tileScorer.getBest(new ArrayList<>(tilesWithBlockingObjects),
+				tile -> getBlockingObjectRemovalScore(gameState, tile));
 	}
 
 	private int getBlockingObjectRemovalScore(GameState gameState, HexTile tile) {
-		if (PalmTree.class.isAssignableFrom(tile.getContent().getClass())) {
+		switch (tile.getContentKind()) {
+		case PALM_TREE:
 			return getPalmTreeRemovalScore(gameState, tile);
-		} else if (Tree.class.isAssignableFrom(tile.getContent().getClass())) {
+		case TREE:
 			return getRegularTreeRemovalScore(gameState, tile);
-		} else if (Gravestone.class.isAssignableFrom(tile.getContent().getClass())) {
+		case GRAVESTONE:
 			return getGraveStoneRemovalScore(gameState, tile);
-		} else {
-			throw new IllegalStateException("Tile content is unexpected class " + tile.getContent().getClass());
+		default:
+			throw new IllegalStateException("Tile content is unexpected kind " + tile.getContentKind());
 		}
 	}
 
 	private int getPalmTreeRemovalScore(GameState gameState, HexTile tile) {
-		for (HexTile neighborTile : HexMapHelper.getNeighborTiles(gameState.getMap(), tile)) {
+		for (int i = 0; i < HexMapHelper.NEIGHBOR_COUNT; i++) {
+			HexTile neighborTile = HexMapHelper.getNeighborTile(gameState.getMap(), tile, i);
 			if (neighborTile != null && !isTileBlockedForTreeSpreading(neighborTile)
 					&& areTilesInTheSameKingdom(tile, neighborTile) && isBeachTile(gameState, neighborTile)) {
 				return 9;
@@ -525,14 +527,14 @@ public class BotAi {
 	private int getRegularTreeRemovalScore(GameState gameState, HexTile tile) {
 		boolean hasPartnerTree = false;
 		boolean hasSpaceToSpread = false;
-		for (HexTile neighborTile : HexMapHelper.getNeighborTiles(gameState.getMap(), tile)) {
+		for (int i = 0; i < HexMapHelper.NEIGHBOR_COUNT; i++) {
+			HexTile neighborTile = HexMapHelper.getNeighborTile(gameState.getMap(), tile, i);
 			if (neighborTile != null) {
 				if (!isTileBlockedForTreeSpreading(neighborTile) && areTilesInTheSameKingdom(tile, neighborTile)
 						&& !isBeachTile(gameState, neighborTile)) {
 					hasSpaceToSpread = true;
 				}
-				if (neighborTile.getContent() != null
-						&& Tree.class.isAssignableFrom(neighborTile.getContent().getClass())) {
+				if (neighborTile.getContentKind() == MapObjectKind.TREE) {
 					hasPartnerTree = true;
 				}
 			}
@@ -556,7 +558,7 @@ public class BotAi {
 	}
 
 	private boolean isBeachTile(GameState gameState, HexTile tile) {
-		return HexMapHelper.getNeighborTiles(gameState.getMap(), tile).contains(null);
+		return HexMapHelper.isCoastTile(gameState.getMap(), tile);
 	}
 
 	private boolean areTilesInTheSameKingdom(HexTile tile1, HexTile tile2) {
@@ -567,19 +569,9 @@ public class BotAi {
 		return tile.getContent() != null;
 	}
 
-	private TileScoreInfo getBestDefenseTileScore(GameState gameState, Intelligence intelligence,
-			Set<HexTile> interestingProtectionTiles) {
-		Set<TileScoreInfo> results = Collections.newSetFromMap(new ConcurrentHashMap<TileScoreInfo, Boolean>());
-		interestingProtectionTiles.parallelStream().forEach(
-				tile -> results.add(new TileScoreInfo(tile, getTileDefenseScore(gameState, intelligence, tile))));
-		return results.stream().max((TileScoreInfo t1, TileScoreInfo t2) -> {
-			int result = Integer.compare(t1.score, t2.score);
-			// if the score is the same, use the coordinates to eliminate randomness
-			if (result == 0) {
-				result = t1.tile.compareTo(t2.tile);
-			}
-			return result;
-		}).orElse(new TileScoreInfo(null, -1));
+	private DefenseScoreHeap createDefenseScoreHeap(GameState gameState, Intelligence intelligence) {
+		return new DefenseScoreHeap(gameState, getInterestingProtectionTiles(gameState),
+				tile -> getTileDefenseScore(gameState, intelligence, tile), tileScorer);
 	}
 
 	/**
@@ -593,7 +585,7 @@ public class BotAi {
 	 * @param tile          tiles to calculate the score of
 	 * @return defense score
 	 */
-	private int getTileDefenseScore(GameState gameState, Intelligence intelligence, HexTile tile) {
+	int getTileDefenseScore(GameState gameState, Intelligence intelligence, HexTile tile) {
 		if (tile.getContent() != null) {
 			// already occupied
 			return -1;
@@ -602,8 +594,8 @@ public class BotAi {
 		boolean tileIsBorder = false;
 		boolean tileIsProtected = false;
 		int score = 0;
-		List<HexTile> neighborTiles = HexMapHelper.getNeighborTiles(gameState.getMap(), tile);
-		for (HexTile neighborTile : neighborTiles) {
+		for (int i = 0; i < HexMapHelper.NEIGHBOR_COUNT; i++) {
+			HexTile neighborTile = HexMapHelper.getNeighborTile(gameState.getMap(), tile, i);
 			boolean neighborIsBorder = false;
 			boolean neighborIsProtected = false;
 			if (neighborTile != null && neighborTile.getKingdom() != null) {
@@ -616,8 +608,8 @@ public class BotAi {
 						tileIsProtected = true;
 						neighborIsProtected = true;
 					}
-					List<HexTile> neighborsNeighbors = HexMapHelper.getNeighborTiles(gameState.getMap(), neighborTile);
-					for (HexTile neighborsNeighbor : neighborsNeighbors) {
+					for (int j = 0; j < HexMapHelper.NEIGHBOR_COUNT; j++) {
+						HexTile neighborsNeighbor = HexMapHelper.getNeighborTile(gameState.getMap(), neighborTile, j);
 						if (neighborsNeighbor != null) {
 							if (neighborsNeighbor.getKingdom() != null
 									&& neighborsNeighbor.getKingdom() != tile.getKingdom()) {
@@ -648,9 +640,9 @@ public class BotAi {
 		return score;
 	}
 
-	private OffenseTileScoreInfo getOffenseTileScoreInfo(GameState gameState, Intelligence intelligence, HexTile tile) {
+	OffenseTileScoreInfo getOffenseTileScoreInfo(GameState gameState, Intelligence intelligence, HexTile tile) {
 		int score;
-		int requiredStrength = tile.getContent() == null ? 1 : tile.getContent().getStrength() + 1;
+		int requiredStrength = GameStateHelper.getProtectionLevel(gameState, tile) + 1;
 		if (tile.getKingdom() == null) {
 			if (tile.getContent() == null) {
 				// conquering single tiles is not as good as stealing from enemy kingdoms
@@ -661,7 +653,7 @@ public class BotAi {
 			}
 		} else {
 			if (tile.getContent() != null) {
-				if (!ClassReflection.isAssignableFrom(Capital.class, tile.getContent().getClass())) {
+				if (tile.getContentKind() != MapObjectKind.CAPITAL) {
 					// destroying units or castles is better than conquering empty tiles
 					score = tile.getContent().getStrength() + 2;
 				} else {
@@ -671,16 +663,10 @@ public class BotAi {
 			} else {
 				score = 2;
 			}
-			// find out required strength and add some bonus for tiles next to multiple
-			// tiles of the own kingdom
-			ArrayList<HexTile> neighborTiles = new ArrayList<>(HexMapHelper.getNeighborTiles(gameState.getMap(), tile));
-			neighborTiles.add(tile);
-			for (HexTile neighborTile : neighborTiles) {
-				if (neighborTile != null && neighborTile.getKingdom() == tile.getKingdom()
-						&& neighborTile.getContent() != null
-						&& neighborTile.getContent().getStrength() >= requiredStrength) {
-					requiredStrength = neighborTile.getContent().getStrength() + 1;
-				} else if (neighborTile != null && neighborTile.getKingdom() == gameState.getActiveKingdom()) {
+			// add some bonus for tiles next to multiple tiles of the own kingdom
+			for (int i = 0; i < HexMapHelper.NEIGHBOR_COUNT; i++) {
+				HexTile neighborTile = HexMapHelper.getNeighborTile(gameState.getMap(), tile, i);
+				if (neighborTile != null && neighborTile.getKingdom() == gameState.getActiveKingdom()) {
 					score++;
 				}
 			}
@@ -691,32 +677,47 @@ public class BotAi {
 		return new OffenseTileScoreInfo(tile, score, requiredStrength);
 	}
 
-	private boolean conquerTileWithStoredUnit(GameState gameState, HexTile tile, Unit.UnitTypes unitType,
+	private boolean conquerTileWithStoredUnit(BotTurnScript script, HexTile tile, Unit.UnitTypes unitType,
 			Integer nrAvailableUnits) {
 		logger.debug("conquering tile '{}' with stored unit '{}'", tile, unitType);
 		if (nrAvailableUnits > 0) {
-			gameState.setHeldObject(new Unit(unitType));
-			GameStateHelper.conquer(gameState, tile);
+			script.perform(BotAction.conquer(tile, Unit.of(unitType, true)));
 			return true;
 		}
 		return false;
 	}
 
 	public Speed getCurrentSpeed() {
-		return currentSpeed;
+		return presenter.getCurrentSpeed();
 	}
 
 	public void setCurrentSpeed(Speed currentSpeed) {
-		this.currentSpeed = currentSpeed;
+		presenter.setCurrentSpeed(currentSpeed);
 		logger.debug("Bot turn speed set to " + currentSpeed);
 	}
 
+	/**
+	 * Returns whether the turns are currently shown to the player.
+	 * 
+	 * @return false if showing the enemy turns is disabled or the current turn is
+	 *         skipped
+	 */
+	public boolean isDisplayingTurns() {
+		return presenter.isDisplayingTurns();
+	}
+
 	public boolean isSkipDisplayingTurn() {
-		return skipDisplayingTurn;
+		return presenter.isSkipDisplayingTurn();
 	}
 
+	/**
+	 * Sets whether to skip displaying the current turn. If set while the turn is
+	 * being displayed, the remaining moves are done without delay.
+	 * 
+	 * @param skipDisplayingTurn whether to skip displaying the turn
+	 */
 	public void setSkipDisplayingTurn(boolean skipDisplayingTurn) {
-		this.skipDisplayingTurn = skipDisplayingTurn;
+		presenter.setSkipDisplayingTurn(skipDisplayingTurn);
 	}
 
 }
\ No newline at end of file
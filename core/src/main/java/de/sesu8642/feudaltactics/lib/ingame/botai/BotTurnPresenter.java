@@ -0,0 +1,89 @@
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package de.sesu8642.feudaltactics.lib.ingame.botai;
+
+import java.util.List;
+
+import com.google.common.eventbus.EventBus;
+
+import de.sesu8642.feudaltactics.events.GameStateChangeEvent;
+import de.sesu8642.feudaltactics.lib.gamestate.GameState;
+import de.sesu8642.feudaltactics.lib.gamestate.GameStateHelper;
+import de.sesu8642.feudaltactics.menu.preferences.MainPreferencesDao;
+
+/**
+ * Replays the recorded moves of a bot turn on the real game state, delaying
+ * after each step for the player to see what is happening. If the turn is
+ * skipped, the remaining moves are applied without any delay. The previews
+ * are copies because the real game state keeps changing while they are
+ * rendered.
+ */
+class BotTurnPresenter {
+
+	private final EventBus eventBus;
+	private final MainPreferencesDao mainPrefsDao;
+
+	/** Current speed. */
+	private volatile Speed currentSpeed = Speed.NORMAL;
+
+	/** Whether to skip displaying the current turn. */
+	private volatile boolean skipDisplayingTurn = false;
+
+	BotTurnPresenter(EventBus eventBus, MainPreferencesDao mainPrefsDao) {
+		this.eventBus = eventBus;
+		this.mainPrefsDao = mainPrefsDao;
+	}
+
+	/**
+	 * Applies all the moves of a turn.
+	 *
+	 * @param gameState game state to apply the moves to; must be equal to the one
+	 *                  the moves were recorded on
+	 * @param script    recorded moves
+	 * @throws InterruptedException if interrupted
+	 */
+	void present(GameState gameState, BotTurnScript script) throws InterruptedException {
+		for (List<BotAction> step : script.getSteps()) {
+			for (BotAction action : step) {
+				action.apply(gameState);
+			}
+			delayForPreview(gameState);
+		}
+	}
+
+	/**
+	 * Delays a little for the user to see what is happening.
+	 *
+	 * @param gameState intermediate gameState to display a copy of as a preview
+	 * @throws InterruptedException if interrupted
+	 */
+	private void delayForPreview(GameState gameState) throws InterruptedException {
+		// no need to update the game state if there is no delay to see it anyway
+		if (!isDisplayingTurns()) {
+			return;
+		}
+		eventBus.post(new GameStateChangeEvent(GameStateHelper.createSnapshot(gameState).toGameState()));
+		Thread.sleep(currentSpeed.tickDelayMs);
+	}
+
+	boolean isDisplayingTurns() {
+		return !skipDisplayingTurn && mainPrefsDao.getMainPreferences().isShowEnemyTurns();
+	}
+
+	Speed getCurrentSpeed() {
+		return currentSpeed;
+	}
+
+	void setCurrentSpeed(Speed currentSpeed) {
+		this.currentSpeed = currentSpeed;
+	}
+
+	boolean isSkipDisplayingTurn() {
+		return skipDisplayingTurn;
+	}
+
+	void setSkipDisplayingTurn(boolean skipDisplayingTurn) {
+		this.skipDisplayingTurn = skipDisplayingTurn;
+	}
+
+}
@@ -0,0 +1,82 @@
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package de.sesu8642.feudaltactics.lib.ingame.botai;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import de.sesu8642.feudaltactics.lib.gamestate.GameState;
+
+/**
+ * Moves of a bot turn. The moves are made on a private copy of the game state
+ * while they are recorded, so that the turn can be computed at full speed and
+ * shown to the player afterwards. The moves are grouped into steps; the player
+ * gets to see the game state after each one. If nobody will see the turn, the
+ * moves can be made without recording them.
+ */
+class BotTurnScript {
+
+	private final GameState gameState;
+	private final boolean recording;
+	private final List<List<BotAction>> steps = new ArrayList<>();
+	private List<BotAction> currentStep = new ArrayList<>();
+
+	/**
+	 * Constructor for a script that records the moves.
+	 *
+	 * @param gameState private game state to make the moves in
+	 */
+	BotTurnScript(GameState gameState) {
+		this(gameState, true);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param gameState game state to make the moves in
+	 * @param recording whether to record the moves; if not, they are only made
+	 */
+	BotTurnScript(GameState gameState, boolean recording) {
+		this.gameState = gameState;
+		this.recording = recording;
+	}
+
+	/**
+	 * Makes a move in the game state and records it if recording.
+	 *
+	 * @param action move to make
+	 */
+	void perform(BotAction action) {
+		action.apply(gameState);
+		if (recording) {
+			currentStep.add(action);
+		}
+	}
+
+	/** Ends the current step. The next moves will be in a new one. */
+	void endStep() {
+		if (!recording) {
+			return;
+		}
+		steps.add(currentStep);
+		currentStep = new ArrayList<>();
+	}
+
+	/**
+	 * Returns the recorded steps.
+	 *
+	 * @return unmodifiable list of steps, each consisting of the moves in the order
+	 *         they were made
+	 */
+	List<List<BotAction>> getSteps() {
+		if (!recording) {
+			throw new IllegalStateException("The moves were not recorded.");
+		}
+		if (!currentStep.isEmpty()) {
+			throw new IllegalStateException("The current step has not been ended.");
+		}
+		return Collections.unmodifiableList(steps);
+	}
+
+}
@@ -0,0 +1,167 @@
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package de.sesu8642.feudaltactics.lib.ingame.botai;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+import de.sesu8642.feudaltactics.lib.gamestate.GameState;
+import de.sesu8642.feudaltactics.lib.gamestate.HexMap;
+import de.sesu8642.feudaltactics.lib.gamestate.HexMapHelper;
+import de.sesu8642.feudaltactics.lib.gamestate.HexTile;
+import de.sesu8642.feudaltactics.lib.gamestate.TileSet;
+
+/**
+ * Max-heap of the defense scores of some tiles, indexed by the tile ids so that
+ * the score of any tile can be changed. The defense score of a tile only
+ * depends on the tiles up to two rings around it, so after a placement, only
+ * the tiles that close to a changed tile are scored again. The changes are
+ * collected by the map until the heap is closed.
+ */
+class DefenseScoreHeap implements AutoCloseable {
+
+	private final HexMap map;
+	private final ToIntFunction<HexTile> scorer;
+	private final Set<HexTile> changedTiles;
+	private final HexTile[] heap;
+	// score and heap position of every tile, indexed by the tile id; the position
+	// is -1 for tiles that are not in the heap
+	private final int[] tileScores;
+	private final int[] tilePositions;
+	private int size = 0;
+
+	/**
+	 * Constructor. Starts tracking the changes of the map.
+	 *
+	 * @param gameState  game state containing the tiles
+	 * @param tiles      tiles to score
+	 * @param scorer     function determining the defense score of a tile
+	 * @param tileScorer scorer for the initial scores
+	 */
+	public DefenseScoreHeap(GameState gameState, Collection<HexTile> tiles, ToIntFunction<HexTile> scorer,
+			TileScorer tileScorer) {
+		map = gameState.getMap();
+		this.scorer = scorer;
+		heap = new HexTile[tiles.size()];
+		tileScores = new int[map.size()];
+		tilePositions = new int[map.size()];
+		Arrays.fill(tilePositions, -1);
+		changedTiles = map.startTrackingChanges();
+		List<HexTile> tileList = new ArrayList<>(tiles);
+		List<Integer> scores = tileScorer.scoreAll(tileList, scorer::applyAsInt);
+		for (int i = 0; i < tileList.size(); i++) {
+			HexTile tile = tileList.get(i);
+			tileScores[tile.getId()] = scores.get(i);
+			tilePositions[tile.getId()] = size;
+			heap[size++] = tile;
+		}
+		for (int i = size / 2 - 1; i >= 0; i--) {
+			siftDown(i);
+		}
+	}
+
+	/**
+	 * Returns the tile with the best score. If the score is the same, the
+	 * coordinates decide to eliminate randomness.
+	 *
+	 * @return best tile and its score; the tile is null and the score is -1 if
+	 *         there are no tiles
+	 */
+	public TileScoreInfo getBest() {
+		update();
+		if (size == 0) {
+			return new TileScoreInfo(null, -1);
+		}
+		return new TileScoreInfo(heap[0], tileScores[heap[0].getId()]);
+	}
+
+	/** Stops tracking the changes of the map. */
+	@Override
+	public void close() {
+		map.stopTrackingChanges();
+	}
+
+	private void update() {
+		if (changedTiles.isEmpty()) {
+			return;
+		}
+		Set<HexTile> tilesToUpdate = new TileSet(map);
+		for (HexTile tile : changedTiles) {
+			addIfInHeap(tilesToUpdate, tile);
+			for (int i = 0; i < HexMapHelper.NEIGHBOR_COUNT; i++) {
+				addIfInHeap(tilesToUpdate, HexMapHelper.getNeighborTile(map, tile, i));
+			}
+			for (int i = 0; i < HexMapHelper.NEIGHBORS_NEIGHBOR_COUNT; i++) {
+				addIfInHeap(tilesToUpdate, HexMapHelper.getNeighborsNeighborTile(map, tile, i));
+			}
+		}
+		changedTiles.clear();
+		for (HexTile tile : tilesToUpdate) {
+			int oldScore = tileScores[tile.getId()];
+			int newScore = scorer.applyAsInt(tile);
+			tileScores[tile.getId()] = newScore;
+			if (newScore > oldScore) {
+				siftUp(tilePositions[tile.getId()]);
+			} else if (newScore < oldScore) {
+				siftDown(tilePositions[tile.getId()]);
+			}
+		}
+	}
+
+	private void addIfInHeap(Set<HexTile> tiles, HexTile tile) {
+		if (tile != null && tilePositions[tile.getId()] >= 0) {
+			tiles.add(tile);
+		}
+	}
+
+	private void siftUp(int position) {
+		while (position > 0) {
+			int parent = (position - 1) / 2;
+			if (!isBetter(heap[position], heap[parent])) {
+				return;
+			}
+			swap(position, parent);
+			position = parent;
+		}
+	}
+
+	private void siftDown(int position) {
+		while (true) {
+			int best = position;
+			int left = 2 * position + 1;
+			int right = left + 1;
+			if (left < size && isBetter(heap[left], heap[best])) {
+				best = left;
+			}
+			if (right < size && isBetter(heap[right], heap[best])) {
+				best = right;
+			}
+			if (best == position) {
+				return;
+			}
+			swap(position, best);
+			position = best;
+		}
+	}
+
+	private boolean isBetter(HexTile tile, HexTile otherTile) {
+		int result = Integer.compare(tileScores[tile.getId()], tileScores[otherTile.getId()]);
+		if (result == 0) {
+			result = tile.compareTo(otherTile);
+		}
+		return result > 0;
+	}
+
+	private void swap(int position, int otherPosition) {
+		HexTile tile = heap[position];
+		heap[position] = heap[otherPosition];
+		heap[otherPosition] = tile;
+		tilePositions[heap[position].getId()] = position;
+		tilePositions[tile.getId()] = otherPosition;
+	}
+
+}
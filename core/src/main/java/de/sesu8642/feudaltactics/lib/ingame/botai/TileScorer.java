@@ -0,0 +1,158 @@
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package de.sesu8642.feudaltactics.lib.ingame.botai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import de.sesu8642.feudaltactics.lib.gamestate.HexTile;
+
+/**
+ * Scores tiles for the bot. Many tiles are split into one chunk per thread of
+ * the compute executor. A few tiles are scored in the calling thread, because
+ * handing them over would take longer than scoring them. The scoring functions
+ * must not change anything.
+ */
+class TileScorer {
+
+	/** Minimum number of tiles to be scored by a single thread. */
+	static final int MIN_TILES_PER_CHUNK = 64;
+
+	private final ExecutorService executor;
+	private final int parallelism;
+
+	/** Constructor for a scorer that scores all the tiles in the calling thread. */
+	TileScorer() {
+		this(null, 1);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param executor    executor to score the tiles on; may be null if the
+	 *                    parallelism is 1
+	 * @param parallelism maximum number of chunks to score at the same time
+	 */
+	TileScorer(ExecutorService executor, int parallelism) {
+		if (parallelism < 1 || (executor == null && parallelism > 1)) {
+			throw new IllegalArgumentException(
+					String.format("Invalid parallelism %s for executor %s.", parallelism, executor));
+		}
+		this.executor = executor;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Scores all the tiles.
+	 *
+	 * @param <T>    type of the scores
+	 * @param tiles  tiles to score
+	 * @param scorer scoring function
+	 * @return scores in the order of the tiles
+	 */
+	<T> List<T> scoreAll(List<HexTile> tiles, Function<HexTile, T> scorer) {
+		List<List<T>> chunkResults = runInChunks(tiles, chunk -> {
+			List<T> scores = new ArrayList<>(chunk.size());
+			for (HexTile tile : chunk) {
+				scores.add(scorer.apply(tile));
+			}
+			return scores;
+		});
+		List<T> result = new ArrayList<>(tiles.size());
+		for (List<T> chunkResult : chunkResults) {
+			result.addAll(chunkResult);
+		}
+		return result;
+	}
+
+	/**
+	 * Finds the tile with the highest score. If the score is the same, the
+	 * coordinates decide to eliminate randomness.
+	 *
+	 * @param tiles  tiles to score
+	 * @param scorer scoring function
+	 * @return best tile and its score; the tile is null and the score is -1 if
+	 *         there are no tiles
+	 */
+	TileScoreInfo getBest(List<HexTile> tiles, ToIntFunction<HexTile> scorer) {
+		List<TileScoreInfo> chunkResults = runInChunks(tiles, chunk -> {
+			TileScoreInfo best = new TileScoreInfo(null, -1);
+			for (HexTile tile : chunk) {
+				TileScoreInfo candidate = new TileScoreInfo(tile, scorer.applyAsInt(tile));
+				if (isBetter(candidate, best)) {
+					best = candidate;
+				}
+			}
+			return best;
+		});
+		TileScoreInfo best = new TileScoreInfo(null, -1);
+		for (TileScoreInfo chunkResult : chunkResults) {
+			if (isBetter(chunkResult, best)) {
+				best = chunkResult;
+			}
+		}
+		return best;
+	}
+
+	private static boolean isBetter(TileScoreInfo candidate, TileScoreInfo best) {
+		if (candidate.tile == null) {
+			return false;
+		}
+		if (best.tile == null) {
+			return true;
+		}
+		int result = Integer.compare(candidate.score, best.score);
+		if (result == 0) {
+			result = candidate.tile.compareTo(best.tile);
+		}
+		return result > 0;
+	}
+
+	private <R> List<R> runInChunks(List<HexTile> tiles, Function<List<HexTile>, R> task) {
+		int chunkCount = Math.min(parallelism, tiles.size() / MIN_TILES_PER_CHUNK);
+		List<R> results = new ArrayList<>();
+		if (chunkCount <= 1) {
+			results.add(task.apply(tiles));
+			return results;
+		}
+		List<List<HexTile>> chunks = new ArrayList<>(chunkCount);
+		for (int i = 0; i < chunkCount; i++) {
+			chunks.add(tiles.subList(tiles.size() * i / chunkCount, tiles.size() * (i + 1) / chunkCount));
+		}
+		// the calling thread takes care of the first chunk instead of waiting
+		List<Future<R>> futures = new ArrayList<>(chunkCount - 1);
+		for (List<HexTile> chunk : chunks.subList(1, chunkCount)) {
+			futures.add(executor.submit(() -> task.apply(chunk)));
+		}
+		results.add(task.apply(chunks.get(0)));
+		for (int i = 0; i < futures.size(); i++) {
+			results.add(getResult(futures.get(i), task, chunks.get(i + 1)));
+		}
+		return results;
+	}
+
+	private static <R> R getResult(Future<R> future, Function<List<HexTile>, R> task, List<HexTile> chunk) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			// keep the interruption for the caller but complete the result
+			Thread.currentThread().interrupt();
+			future.cancel(true);
+			return task.apply(chunk);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new IllegalStateException("Scoring tiles failed.", e.getCause());
+		}
+	}
+
+}
@@ -21,16 +21,17 @@ import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
-import com.badlogic.gdx.utils.reflect.ClassReflection;
 
-import de.sesu8642.feudaltactics.lib.gamestate.Capital;
 import de.sesu8642.feudaltactics.lib.gamestate.GameState;
 import de.sesu8642.feudaltactics.lib.gamestate.GameStateHelper;
+import de.sesu8642.feudaltactics.lib.gamestate.HexMap;
 import de.sesu8642.feudaltactics.lib.gamestate.HexMapHelper;
 import de.sesu8642.feudaltactics.lib.gamestate.HexTile;
 import de.sesu8642.feudaltactics.lib.gamestate.InputValidationHelper;
+import de.sesu8642.feudaltactics.lib.gamestate.LegalMoves;
 import de.sesu8642.feudaltactics.lib.gamestate.MapDimensions;
 import de.sesu8642.feudaltactics.lib.gamestate.MapObject;
+import de.sesu8642.feudaltactics.lib.gamestate.MapObjectKind;
 import de.sesu8642.feudaltactics.lib.gamestate.Player.Type;
 import de.sesu8642.feudaltactics.lib.gamestate.Unit;
 
@@ -129,6 +130,11 @@ public class MapRenderer {
 		redLineStartPoints.clear();
 		redLineEndPoints.clear();
 		darkenBeaches = gameState.getHeldObject() != null;
+		// only needed while an object is held; determined at once instead of per tile
+		LegalMoves legalMoves = null;
+		if (gameState.getHeldObject() != null) {
+			legalMoves = InputValidationHelper.getLegalMoves(gameState, gameState.getActivePlayer());
+		}
 		for (Entry<Vector2, HexTile> hexTileEntry : gameState.getMap().entrySet()) {
 			Vector2 hexCoords = hexTileEntry.getKey();
 			Vector2 mapCoords = getMapCoordinatesFromHexCoordinates(hexCoords);
@@ -139,59 +145,47 @@ public class MapRenderer {
 			drawTile.mapCoords = mapCoords;
 			drawTile.color = tile.getPlayer().getColor();
 			// create beaches on the edges
-			List<HexTile> neighbors = HexMapHelper.getNeighborTiles(gameState.getMap(), tile);
-			if (neighbors.get(0) == null) {
-				// top left
-				drawTile.topLeftBeach = true;
-			}
-			if (neighbors.get(1) == null) {
-				// top
-				drawTile.topBeach = true;
-			}
-			if (neighbors.get(2) == null) {
-				// top right
-				drawTile.topRightBeach = true;
-			}
-			if (neighbors.get(3) == null) {
-				// bottom right
-				drawTile.bottomRightBeach = true;
-			}
-			if (neighbors.get(4) == null) {
-				// bottom
-				drawTile.bottomBeach = true;
-			}
-			if (neighbors.get(5) == null) {
-				// bottom left
-				drawTile.bottomLeftBeach = true;
-			}
+			HexMap map = gameState.getMap();
+			int waterEdges = HexMapHelper.getWaterEdges(map, tile);
+			// top left
+			drawTile.topLeftBeach = HexMapHelper.isWaterEdge(waterEdges, 0);
+			// top
+			drawTile.topBeach = HexMapHelper.isWaterEdge(waterEdges, 1);
+			// top right
+			drawTile.topRightBeach = HexMapHelper.isWaterEdge(waterEdges, 2);
+			// bottom right
+			drawTile.bottomRightBeach = HexMapHelper.isWaterEdge(waterEdges, 3);
+			// bottom
+			drawTile.bottomBeach = HexMapHelper.isWaterEdge(waterEdges, 4);
+			// bottom left
+			drawTile.bottomLeftBeach = HexMapHelper.isWaterEdge(waterEdges, 5);
 
 			// create lines for highlighting active kingdom
 			if (gameState.getActiveKingdom() != null && tile.getKingdom() != null
 					&& tile.getKingdom() == gameState.getActiveKingdom()) {
-				int index = 0;
-				for (HexTile neighborTile : HexMapHelper.getNeighborTiles(gameState.getMap(), tile)) {
+				for (int index = 0; index < HexMapHelper.NEIGHBOR_COUNT; index++) {
+					HexTile neighborTile = HexMapHelper.getNeighborTile(map, tile, index);
 					if (neighborTile == null || neighborTile.getKingdom() == null
 							|| neighborTile.getKingdom() != tile.getKingdom()) {
 						Line line = getNeighborLine(mapCoords, index);
 						whiteLineStartPoints.add(line.start);
 						whiteLineEndPoints.add(line.end);
 					}
-					index++;
 				}
 				// darken the tile if placing is impossible
 				if (gameState.getHeldObject() != null
-						&& !InputValidationHelper.checkPlaceOwn(gameState, gameState.getActivePlayer(), tile)
-						&& !InputValidationHelper.checkCombineUnits(gameState, gameState.getActivePlayer(), tile)) {
+						&& !legalMoves.getPlaceOwnTargets().contains(tile)
+						&& !legalMoves.getCombineUnitsTargets().contains(tile)) {
 					drawTile.darken = true;
 				}
 			} else if (gameState.getHeldObject() != null) {
 				// red lines for indicating if able to conquer
-				if (InputValidationHelper.checkConquer(gameState, gameState.getActivePlayer(), tile)) {
-					int index = 0;
-					for (HexTile neighborTile : HexMapHelper.getNeighborTiles(gameState.getMap(), tile)) {
+				if (legalMoves.getConquerTargets().contains(tile)) {
+					for (int index = 0; index < HexMapHelper.NEIGHBOR_COUNT; index++) {
+						HexTile neighborTile = HexMapHelper.getNeighborTile(map, tile, index);
 						if (neighborTile == null
-								|| (neighborTile.getKingdom() != gameState.getActiveKingdom() && !InputValidationHelper
-										.checkConquer(gameState, gameState.getActivePlayer(), neighborTile))) {
+								|| (neighborTile.getKingdom() != gameState.getActiveKingdom()
+										&& !legalMoves.getConquerTargets().contains(neighborTile))) {
 							Line line = getNeighborLine(mapCoords, index);
 							Collection<Line> dottedLineParts = lineToDottedLine(line);
 							for (Line linePart : dottedLineParts) {
@@ -199,7 +193,6 @@ public class MapRenderer {
 								redLineEndPoints.add(linePart.end);
 							}
 						}
-						index++;
 					}
 				} else {
 					drawTile.darken = true;
@@ -215,11 +208,11 @@ public class MapRenderer {
 			if (tileContent != null) {
 				boolean animate = false;
 				if (tile.getKingdom() != null && tile.getKingdom().getPlayer() == gameState.getActivePlayer()) {
-					if (ClassReflection.isAssignableFrom(Unit.class, tileContent.getClass())
+					if (tileContent.getKind() == MapObjectKind.UNIT
 							&& ((Unit) tileContent).isCanAct()) {
 						// animate units that can act
 						animate = true;
-					} else if (ClassReflection.isAssignableFrom(Capital.class, tileContent.getClass())
+					} else if (tileContent.getKind() == MapObjectKind.CAPITAL
 							&& gameState.getActivePlayer() == tile.getKingdom().getPlayer()
 							&& tile.getKingdom().getSavings() > Unit.COST) {
 						// animate capitals if they can buy something
@@ -244,7 +237,7 @@ public class MapRenderer {
 							// darken own units that have already acted
 							|| (tile.getPlayer() == gameState.getActivePlayer() && gameState.getHeldObject() == null
 									&& tile.getContent() != null
-									&& ClassReflection.isAssignableFrom(Unit.class, tileContent.getClass())
+									&& tileContent.getKind() == MapObjectKind.UNIT
 									&& !((Unit) tile.getContent()).isCanAct())) {
 						// darkened content
 						darkenedNonAnimatedContents.put(
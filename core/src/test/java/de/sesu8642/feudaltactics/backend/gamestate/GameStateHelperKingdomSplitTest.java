@@ -3,13 +3,16 @@
 package de.sesu8642.feudaltactics.backend.gamestate;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -27,6 +30,7 @@ import de.sesu8642.feudaltactics.lib.gamestate.Gravestone;
 import de.sesu8642.feudaltactics.lib.gamestate.HexTile;
 import de.sesu8642.feudaltactics.lib.gamestate.Kingdom;
 import de.sesu8642.feudaltactics.lib.gamestate.MapObject;
+import de.sesu8642.feudaltactics.lib.gamestate.MapObjectKind;
 import de.sesu8642.feudaltactics.lib.gamestate.PalmTree;
 import de.sesu8642.feudaltactics.lib.gamestate.Player;
 import de.sesu8642.feudaltactics.lib.gamestate.Tree;
@@ -150,4 +154,150 @@ class GameStateHelperKingdomSplitTest {
 				Arguments.of(Arrays.asList(null, new Capital(), null), 1, Arrays.asList(null, conqueringUnit, null)));
 	}
 
+	@Test
+	void conqueringBridgeTileSplitsKingdom() {
+		// line of 6 tiles with the capital on the second one; conquering the fourth one
+		// leaves two parts
+		GameState gameState = createGameState();
+		Kingdom attackedKingdom = createAttackedKingdom(gameState, 0, 0, 0, 1, 0, 2, 0, 3, 0, 4, 0, 5);
+		gameState.getMap().get(new Vector2(0, 1)).setContent(new Capital());
+		Kingdom attackingKingdom = createAttackingKingdom(gameState, 1, 2, 1, 3);
+
+		conquer(gameState, 0, 3);
+
+		// the tiles keep their order
+		assertKingdoms(gameState, Arrays.asList(attackedKingdom, attackingKingdom, null),
+				Arrays.asList(positions(0, 0, 0, 1, 0, 2), positions(1, 2, 1, 3, 0, 3), positions(0, 4, 0, 5)));
+		assertCapital(gameState, 0, 1);
+		assertCapital(gameState, 0, 4);
+		assertEquals(10, attackedKingdom.getSavings());
+		assertEquals(0, gameState.getKingdoms().get(2).getSavings());
+	}
+
+	@Test
+	void conqueringTileMovesKingdomStateWithCapitalInSmallerPart() {
+		GameState gameState = createGameState();
+		Kingdom attackedKingdom = createAttackedKingdom(gameState, 0, 0, 0, 1, 0, 2, 0, 3, 0, 4, 0, 5);
+		gameState.getMap().get(new Vector2(0, 0)).setContent(new Capital());
+		Kingdom attackingKingdom = createAttackingKingdom(gameState, 1, 2, 2, 2);
+
+		conquer(gameState, 0, 2);
+
+		// the bigger part stays in the old kingdom, but the smaller one takes over its
+		// place and savings
+		assertKingdoms(gameState, Arrays.asList(null, attackingKingdom, attackedKingdom),
+				Arrays.asList(positions(0, 0, 0, 1), positions(1, 2, 2, 2, 0, 2), positions(0, 3, 0, 4, 0, 5)));
+		assertCapital(gameState, 0, 0);
+		assertCapital(gameState, 0, 3);
+		assertEquals(10, gameState.getKingdoms().get(0).getSavings());
+		assertEquals(0, attackedKingdom.getSavings());
+	}
+
+	@Test
+	void conqueringCenterTileSplitsKingdomInThree() {
+		// three arms around the center with the capital at the end of the second one
+		GameState gameState = createGameState();
+		Kingdom attackedKingdom = createAttackedKingdom(gameState, 0, 0, 1, 0, 2, 0, 0, -1, 0, -2, -1, 1, -2, 2);
+		gameState.getMap().get(new Vector2(0, -2)).setContent(new Capital());
+		Kingdom attackingKingdom = createAttackingKingdom(gameState, 0, 1, 0, 2);
+
+		conquer(gameState, 0, 0);
+
+		// the new kingdoms are in the order of the neighbors of the conquered tile
+		assertKingdoms(gameState, Arrays.asList(attackedKingdom, attackingKingdom, null, null),
+				Arrays.asList(positions(0, -1, 0, -2), positions(0, 1, 0, 2, 0, 0), positions(1, 0, 2, 0),
+						positions(-1, 1, -2, 2)));
+		assertCapital(gameState, 0, -2);
+		assertCapital(gameState, 1, 0);
+		assertCapital(gameState, -1, 1);
+	}
+
+	@Test
+	void conqueringEdgeTileKeepsKingdomAsItIs() {
+		GameState gameState = createGameState();
+		// tiles intentionally not in breadth-first order
+		Kingdom attackedKingdom = createAttackedKingdom(gameState, 0, 2, 0, 0, 0, 1, 0, 3);
+		gameState.getMap().get(new Vector2(0, 0)).setContent(new Capital());
+		Kingdom attackingKingdom = createAttackingKingdom(gameState, 1, 2, 1, 3);
+
+		conquer(gameState, 0, 3);
+
+		assertKingdoms(gameState, Arrays.asList(attackedKingdom, attackingKingdom),
+				Arrays.asList(positions(0, 2, 0, 0, 0, 1), positions(1, 2, 1, 3, 0, 3)));
+		assertCapital(gameState, 0, 0);
+	}
+
+	private GameState createGameState() {
+		GameState gameState = new GameState();
+		gameState.setPlayers(players);
+		gameState.setPlayerTurn(1);
+		gameState.setKingdoms(new ArrayList<>());
+		return gameState;
+	}
+
+	private Kingdom createAttackedKingdom(GameState gameState, int... coords) {
+		Kingdom kingdom = new Kingdom(player1);
+		kingdom.setSavings(10);
+		for (int i = 0; i < coords.length; i += 2) {
+			addTile(gameState, kingdom, coords[i], coords[i + 1]);
+		}
+		gameState.getKingdoms().add(kingdom);
+		return kingdom;
+	}
+
+	private Kingdom createAttackingKingdom(GameState gameState, int... coords) {
+		Kingdom kingdom = new Kingdom(player2);
+		for (int i = 0; i < coords.length; i += 2) {
+			addTile(gameState, kingdom, coords[i], coords[i + 1]);
+		}
+		gameState.getKingdoms().add(kingdom);
+		gameState.setActiveKingdom(kingdom);
+		return kingdom;
+	}
+
+	private void addTile(GameState gameState, Kingdom kingdom, int q, int r) {
+		Vector2 position = new Vector2(q, r);
+		HexTile tile = new HexTile(kingdom.getPlayer(), position);
+		tile.setKingdom(kingdom);
+		gameState.getMap().put(position, tile);
+		kingdom.getTiles().add(tile);
+	}
+
+	private void conquer(GameState gameState, int q, int r) {
+		gameState.setHeldObject(new Unit(UnitTypes.BARON));
+		GameStateHelper.conquer(gameState, gameState.getMap().get(new Vector2(q, r)));
+	}
+
+	private List<Vector2> positions(int... coords) {
+		List<Vector2> result = new ArrayList<>();
+		for (int i = 0; i < coords.length; i += 2) {
+			result.add(new Vector2(coords[i], coords[i + 1]));
+		}
+		return result;
+	}
+
+	/**
+	 * Checks the kingdoms and the order of their tiles. Expected kingdoms that are
+	 * null are new ones.
+	 */
+	private void assertKingdoms(GameState gameState, List<Kingdom> expectedKingdoms,
+			List<List<Vector2>> expectedTilePositions) {
+		assertEquals(expectedKingdoms.size(), gameState.getKingdoms().size());
+		for (int i = 0; i < expectedKingdoms.size(); i++) {
+			Kingdom kingdom = gameState.getKingdoms().get(i);
+			if (expectedKingdoms.get(i) != null) {
+				assertSame(expectedKingdoms.get(i), kingdom);
+			}
+			assertEquals(expectedTilePositions.get(i),
+					kingdom.getTiles().stream().map(HexTile::getPosition).collect(Collectors.toList()));
+			for (HexTile tile : kingdom.getTiles()) {
+				assertSame(kingdom, tile.getKingdom());
+			}
+		}
+	}
+
+	private void assertCapital(GameState gameState, int q, int r) {
+		assertEquals(MapObjectKind.CAPITAL, gameState.getMap().get(new Vector2(q, r)).getContentKind());
+	}
+
 }
\ No newline at end of file
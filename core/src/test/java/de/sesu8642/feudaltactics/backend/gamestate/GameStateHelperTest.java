@@ -5,9 +5,13 @@ package de.sesu8642.feudaltactics.backend.gamestate;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -21,8 +25,18 @@ import com.badlogic.gdx.graphics.Color;
 
 import de.sesu8642.feudaltactics.lib.gamestate.GameState;
 import de.sesu8642.feudaltactics.lib.gamestate.GameStateHelper;
+import de.sesu8642.feudaltactics.lib.gamestate.GameStateJournal;
+import de.sesu8642.feudaltactics.lib.gamestate.HexMap;
+import de.sesu8642.feudaltactics.lib.gamestate.HexMapHelper;
+import de.sesu8642.feudaltactics.lib.gamestate.HexTile;
+import de.sesu8642.feudaltactics.lib.gamestate.Kingdom;
+import de.sesu8642.feudaltactics.lib.gamestate.MapGenerationMode;
+import de.sesu8642.feudaltactics.lib.gamestate.MapObjectKind;
 import de.sesu8642.feudaltactics.lib.gamestate.Player;
 import de.sesu8642.feudaltactics.lib.gamestate.Player.Type;
+import de.sesu8642.feudaltactics.lib.gamestate.TileSet;
+import de.sesu8642.feudaltactics.lib.gamestate.Unit;
+import de.sesu8642.feudaltactics.lib.gamestate.Unit.UnitTypes;
 
 /** Tests for GameStateHelper class. */
 class GameStateHelperTest {
@@ -48,6 +62,32 @@ class GameStateHelperTest {
 		assertEquals(original, copy);
 	}
 
+	@ParameterizedTest
+	@MethodSource("provideSeeds")
+	void rolledBackGameStateEqualsOriginal(long seed) {
+		GameState gameState = new GameState();
+		GameStateHelper.initializeMap(gameState, players, 200, 2, 0.2F, seed);
+		GameState original = GameStateHelper.getCopy(gameState);
+		long originalFingerprint = gameState.getFingerprint();
+
+		GameStateJournal journal = GameStateHelper.startJournal(gameState);
+		int mark = journal.mark();
+		// the moves a player can make, including conquests that split and combine
+		// kingdoms
+		playUnitMoves(gameState);
+		conquer(gameState, findConquest(gameState, true));
+		conquer(gameState, findConquest(gameState, false));
+		// a few rounds including tree spreading and payments
+		for (int i = 0; i < players.size() * 3; i++) {
+			GameStateHelper.endTurn(gameState);
+		}
+		journal.rollback(mark);
+		journal.stop();
+
+		assertEquals(original, gameState);
+		assertEquals(originalFingerprint, gameState.getFingerprint());
+	}
+
 	@ParameterizedTest
 	@MethodSource("provideMapSizesAndSeeds")
 	void initializedMapHasCorrectLandMass(int landMass, long seed) {
@@ -58,6 +98,72 @@ class GameStateHelperTest {
 		assertEquals(landMass, gameState.getMap().size());
 	}
 
+	@ParameterizedTest
+	@MethodSource("provideMapSizesAndSeeds")
+	void frontierGeneratedMapHasCorrectLandMass(int landMass, long seed) {
+		GameState gameState = new GameState();
+
+		GameStateHelper.initializeMap(gameState, players, landMass, 2, 0.2F, seed, MapGenerationMode.FRONTIER);
+
+		assertEquals(landMass, gameState.getMap().size());
+	}
+
+	@ParameterizedTest
+	@MethodSource("provideSeedsAndCompatibleMaps")
+	void compatibleGeneratedMapEqualsPreviouslyGeneratedOne(long seed, String expectedTiles) {
+		List<Player> originalPlayers = new ArrayList<>(players);
+		GameState gameState = new GameState();
+
+		GameStateHelper.initializeMap(gameState, players, 24, 2, 0.2F, seed, MapGenerationMode.COMPATIBLE);
+
+		// tiles as "q,r,player index,content;" in coordinate order
+		String tiles = gameState.getMap().values().stream().sorted().map(tile -> String.format("%s,%s,%s,%s;",
+				tile.getQ(), tile.getR(), originalPlayers.indexOf(tile.getPlayer()),
+				tile.getContent() == null ? "-" : tile.getContent().getClass().getSimpleName()))
+				.collect(Collectors.joining());
+		assertEquals(expectedTiles, tiles);
+	}
+
+	@ParameterizedTest
+	@MethodSource("provideMapSizesAndSeeds")
+	void frontierGeneratedMapIsConnected(int landMass, long seed) {
+		GameState gameState = new GameState();
+
+		GameStateHelper.initializeMap(gameState, players, landMass, 2, 0.2F, seed, MapGenerationMode.FRONTIER);
+
+		// search all tiles reachable from any one
+		HexMap map = gameState.getMap();
+		Set<HexTile> reachedTiles = new TileSet(map);
+		Deque<HexTile> tilesToVisit = new ArrayDeque<>();
+		tilesToVisit.add(map.values().iterator().next());
+		while (!tilesToVisit.isEmpty()) {
+			HexTile tile = tilesToVisit.poll();
+			if (!reachedTiles.add(tile)) {
+				continue;
+			}
+			for (long neighborCoords : HexMapHelper.getNeighborCoords(tile.getCoords())) {
+				HexTile neighbor = map.getTile(neighborCoords);
+				if (neighbor != null) {
+					tilesToVisit.add(neighbor);
+				}
+			}
+		}
+		assertEquals(landMass, reachedTiles.size());
+	}
+
+	@ParameterizedTest
+	@MethodSource("provideSeeds")
+	void frontierGeneratedMapHasAtLeastOneKingdomPerPlayer(long seed) {
+		GameState gameState = new GameState();
+
+		// use size of 6 for the lowest chance for every player to have a kingdom
+		GameStateHelper.initializeMap(gameState, players, 6, 2, 0.2F, seed, MapGenerationMode.FRONTIER);
+
+		players.forEach((player) -> {
+			assertTrue(gameState.getKingdoms().stream().anyMatch((kingdom) -> kingdom.getPlayer().equals(player)));
+		});
+	}
+
 	@ParameterizedTest
 	@MethodSource("provideSeeds")
 	void initializedMapHasAtLeastOneKingdomPerPlayer(long seed) {
@@ -113,6 +219,99 @@ class GameStateHelperTest {
 		}
 	}
 
+	/**
+	 * Buys, places, combines and picks up units and buys and places a castle in the
+	 * biggest kingdom.
+	 */
+	private void playUnitMoves(GameState gameState) {
+		Kingdom kingdom = gameState.getKingdoms().stream().max(Comparator.comparingInt(k -> k.getTiles().size()))
+				.get();
+		GameStateHelper.activateKingdom(gameState, kingdom);
+		kingdom.setSavings(100);
+		List<HexTile> emptyTiles = kingdom.getTiles().stream()
+				.filter(tile -> tile.getContentKind() == MapObjectKind.NONE).collect(Collectors.toList());
+		GameStateHelper.buyPeasant(gameState);
+		GameStateHelper.placeOwn(gameState, emptyTiles.get(0));
+		GameStateHelper.buyPeasant(gameState);
+		GameStateHelper.combineUnits(gameState, emptyTiles.get(0));
+		GameStateHelper.pickupObject(gameState, emptyTiles.get(0));
+		GameStateHelper.placeOwn(gameState, emptyTiles.get(1));
+		GameStateHelper.buyCastle(gameState);
+		GameStateHelper.placeOwn(gameState, emptyTiles.get(2));
+	}
+
+	/**
+	 * Finds a conquest by trying all of them on copies of the game state.
+	 * 
+	 * @param gameState game state
+	 * @param splitting whether to find a conquest that splits a kingdom; otherwise
+	 *                  one that combines kingdoms
+	 * @return index of the conquering kingdom and coordinates of the conquered tile
+	 */
+	private long[] findConquest(GameState gameState, boolean splitting) {
+		for (int i = 0; i < gameState.getKingdoms().size(); i++) {
+			Kingdom kingdom = gameState.getKingdoms().get(i);
+			for (HexTile tile : kingdom.getTiles()) {
+				for (long neighborCoords : HexMapHelper.getNeighborCoords(tile.getCoords())) {
+					HexTile neighbor = gameState.getMap().getTile(neighborCoords);
+					if (neighbor == null || neighbor.getPlayer() == kingdom.getPlayer()) {
+						continue;
+					}
+					long[] conquest = new long[] { i, neighborCoords };
+					GameState copy = GameStateHelper.getCopy(gameState);
+					Player player = splitting ? neighbor.getPlayer() : kingdom.getPlayer();
+					long kingdomCountBefore = countKingdoms(copy, player);
+					long kingdomTileCountBefore = countKingdomTiles(copy, player);
+					conquer(copy, conquest);
+					long kingdomCountAfter = countKingdoms(copy, player);
+					// a split off part might be too small to stay a kingdom
+					if (splitting ? kingdomCountAfter > kingdomCountBefore
+							|| countKingdomTiles(copy, player) < kingdomTileCountBefore - 1
+							: kingdomCountAfter < kingdomCountBefore) {
+						return conquest;
+					}
+				}
+			}
+		}
+		throw new AssertionError("No such conquest found.");
+	}
+
+	private long countKingdoms(GameState gameState, Player player) {
+		return gameState.getKingdoms().stream().filter(kingdom -> kingdom.getPlayer().equals(player)).count();
+	}
+
+	private long countKingdomTiles(GameState gameState, Player player) {
+		return gameState.getKingdoms().stream().filter(kingdom -> kingdom.getPlayer().equals(player))
+				.mapToInt(kingdom -> kingdom.getTiles().size()).sum();
+	}
+
+	private void conquer(GameState gameState, long[] conquest) {
+		GameStateHelper.activateKingdom(gameState, gameState.getKingdoms().get((int) conquest[0]));
+		gameState.setHeldObject(new Unit(UnitTypes.BARON));
+		GameStateHelper.conquer(gameState, gameState.getMap().getTile(conquest[1]));
+	}
+
+	static Stream<Arguments> provideSeedsAndCompatibleMaps() {
+		// generated before the map generation modes were introduced
+		return Stream.of(
+				Arguments.of(1L,
+						"0,-3,1,-;0,-1,0,-;0,0,2,PalmTree;1,-4,0,-;1,-3,2,Capital;1,-2,2,PalmTree;"
+						+ "1,-1,0,Capital;2,-4,1,-;2,-3,2,-;3,-5,0,Capital;3,-4,2,-;4,-5,0,PalmTree;"
+						+ "5,-6,2,PalmTree;5,-5,1,PalmTree;6,-5,2,PalmTree;7,-6,0,PalmTree;7,-5,1,-;"
+						+ "8,-7,1,Capital;9,-8,1,PalmTree;9,-7,2,-;10,-8,1,PalmTree;10,-7,0,Capital;"
+						+ "11,-9,1,PalmTree;11,-8,0,-;"),
+				Arguments.of(42L,
+						"-3,0,2,-;-3,1,1,-;-3,2,2,-;-2,-1,1,PalmTree;-2,1,2,Capital;-2,2,0,PalmTree;"
+						+ "-1,-5,1,-;-1,-2,0,-;-1,-1,2,Capital;-1,0,1,PalmTree;0,-6,1,Capital;0,-2,2,-;"
+						+ "0,0,1,Capital;1,-6,1,PalmTree;1,-5,0,-;1,-3,2,-;1,-2,0,Capital;1,-1,0,-;2,-6,0,-;"
+						+ "2,-5,0,Capital;2,-2,0,-;3,-5,1,PalmTree;3,-4,2,-;3,-3,2,Capital;"),
+				Arguments.of(1024L,
+						"-7,-2,2,-;-6,-5,2,-;-6,-4,1,PalmTree;-6,-3,2,-;-6,-2,2,Capital;-5,-7,0,PalmTree;"
+						+ "-5,-6,0,Capital;-5,-2,0,PalmTree;-5,-1,2,-;-5,0,1,-;-5,1,0,-;-5,3,1,-;"
+						+ "-4,-7,1,Capital;-4,0,0,Capital;-4,1,2,-;-4,2,1,Capital;-4,3,1,-;-3,-8,1,PalmTree;"
+						+ "-3,2,1,PalmTree;-2,1,0,-;-2,2,2,-;-1,2,0,-;0,0,2,-;0,1,0,Capital;"));
+	}
+
 	static Collection<Arguments> provideMapSizesAndSeeds() {
 		List<Integer> mapSizes = provideMapSizes().collect(Collectors.toList());
 		List<Long> seeds = provideSeeds().collect(Collectors.toList());
@@ -0,0 +1,155 @@
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package de.sesu8642.feudaltactics.backend.gamestate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+
+import de.sesu8642.feudaltactics.ApplicationStub;
+import de.sesu8642.feudaltactics.lib.gamestate.GameState;
+import de.sesu8642.feudaltactics.lib.gamestate.GameStateHelper;
+import de.sesu8642.feudaltactics.lib.gamestate.GameStateSnapshot;
+import de.sesu8642.feudaltactics.lib.gamestate.HexMapHelper;
+import de.sesu8642.feudaltactics.lib.gamestate.HexTile;
+import de.sesu8642.feudaltactics.lib.gamestate.Kingdom;
+import de.sesu8642.feudaltactics.lib.gamestate.MapObjectKind;
+import de.sesu8642.feudaltactics.lib.gamestate.Player;
+import de.sesu8642.feudaltactics.lib.gamestate.Player.Type;
+import de.sesu8642.feudaltactics.lib.gamestate.Unit;
+import de.sesu8642.feudaltactics.lib.gamestate.Unit.UnitTypes;
+
+/** Tests for GameStateSnapshot class. */
+class GameStateSnapshotTest {
+
+	List<Player> players;
+
+	@BeforeAll
+	static void initAll() {
+		Gdx.app = new ApplicationStub();
+	}
+
+	@BeforeEach
+	void init() {
+		players = new ArrayList<>();
+		players.add(new Player(new Color(1, 0, 0, 0), Type.LOCAL_BOT));
+		players.add(new Player(new Color(0, 1, 0, 0), Type.LOCAL_BOT));
+		players.add(new Player(new Color(0, 0, 1, 0), Type.LOCAL_PLAYER));
+	}
+
+	@ParameterizedTest
+	@MethodSource("provideSeeds")
+	void gameStateFromSnapshotEqualsOriginal(long seed) {
+		GameState gameState = createGameState(seed);
+		// mix up the order of the kingdom tiles
+		for (int i = 0; i < 5; i++) {
+			conquerAnyTile(gameState);
+		}
+
+		GameState restored = GameStateHelper.createSnapshot(gameState).toGameState();
+
+		assertEquals(gameState, restored);
+		assertEquals(getKingdomTileCoords(gameState), getKingdomTileCoords(restored));
+	}
+
+	@ParameterizedTest
+	@MethodSource("provideSeeds")
+	void snapshotIsNotAffectedByLaterChanges(long seed) {
+		GameState gameState = createGameState(seed);
+		GameStateSnapshot snapshot = GameStateHelper.createSnapshot(gameState);
+		GameState restoredBefore = snapshot.toGameState();
+
+		conquerAnyTile(gameState);
+		placeOwnOnAnyTile(gameState);
+		GameStateHelper.endTurn(gameState);
+		GameState restoredAfter = snapshot.toGameState();
+
+		assertEquals(restoredBefore, restoredAfter);
+		assertEquals(getKingdomTileCoords(restoredBefore), getKingdomTileCoords(restoredAfter));
+		assertNotEquals(gameState, restoredAfter);
+	}
+
+	@ParameterizedTest
+	@MethodSource("provideSeeds")
+	void snapshotsOfDifferentStatesAreDifferent(long seed) {
+		GameState gameState = createGameState(seed);
+		GameStateSnapshot firstSnapshot = GameStateHelper.createSnapshot(gameState);
+
+		conquerAnyTile(gameState);
+		GameStateSnapshot secondSnapshot = GameStateHelper.createSnapshot(gameState);
+
+		assertNotEquals(firstSnapshot.toGameState(), secondSnapshot.toGameState());
+		assertEquals(gameState, secondSnapshot.toGameState());
+	}
+
+	private GameState createGameState(long seed) {
+		GameState gameState = new GameState();
+		GameStateHelper.initializeMap(gameState, players, 200, 2, 0.2F, seed);
+		return gameState;
+	}
+
+	/** Lets the first kingdom of the active player conquer a neighboring tile. */
+	private void conquerAnyTile(GameState gameState) {
+		Player activePlayer = gameState.getActivePlayer();
+		for (Kingdom kingdom : gameState.getKingdoms()) {
+			if (kingdom.getPlayer() != activePlayer) {
+				continue;
+			}
+			for (HexTile tile : kingdom.getTiles()) {
+				for (long neighborCoords : HexMapHelper.getNeighborCoords(tile.getCoords())) {
+					HexTile neighbor = gameState.getMap().getTile(neighborCoords);
+					if (neighbor != null && neighbor.getPlayer() != activePlayer) {
+						GameStateHelper.activateKingdom(gameState, kingdom);
+						gameState.setHeldObject(new Unit(UnitTypes.BARON));
+						GameStateHelper.conquer(gameState, neighbor);
+						return;
+					}
+				}
+			}
+		}
+		throw new AssertionError("Active player cannot conquer anything.");
+	}
+
+	/** Places a peasant on an empty tile of the first kingdom of the active player. */
+	private void placeOwnOnAnyTile(GameState gameState) {
+		Player activePlayer = gameState.getActivePlayer();
+		for (Kingdom kingdom : gameState.getKingdoms()) {
+			if (kingdom.getPlayer() != activePlayer) {
+				continue;
+			}
+			for (HexTile tile : kingdom.getTiles()) {
+				if (tile.getContentKind() == MapObjectKind.NONE) {
+					GameStateHelper.activateKingdom(gameState, kingdom);
+					gameState.setHeldObject(new Unit(UnitTypes.PEASANT));
+					GameStateHelper.placeOwn(gameState, tile);
+					return;
+				}
+			}
+		}
+		throw new AssertionError("Active player has no empty tile.");
+	}
+
+	/** Returns the coordinates of the tiles of every kingdom in their order. */
+	private List<List<Long>> getKingdomTileCoords(GameState gameState) {
+		return gameState.getKingdoms().stream()
+				.map(kingdom -> kingdom.getTiles().stream().map(HexTile::getCoords).collect(Collectors.toList()))
+				.collect(Collectors.toList());
+	}
+
+	static Stream<Long> provideSeeds() {
+		return Stream.of(1L, 42L, 69L, 360L, 420L, 1024L, 9999L);
+	}
+
+}
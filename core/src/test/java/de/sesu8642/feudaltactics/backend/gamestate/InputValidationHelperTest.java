@@ -0,0 +1,90 @@
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package de.sesu8642.feudaltactics.backend.gamestate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.badlogic.gdx.graphics.Color;
+
+import de.sesu8642.feudaltactics.lib.gamestate.Castle;
+import de.sesu8642.feudaltactics.lib.gamestate.GameState;
+import de.sesu8642.feudaltactics.lib.gamestate.GameStateHelper;
+import de.sesu8642.feudaltactics.lib.gamestate.HexTile;
+import de.sesu8642.feudaltactics.lib.gamestate.InputValidationHelper;
+import de.sesu8642.feudaltactics.lib.gamestate.Kingdom;
+import de.sesu8642.feudaltactics.lib.gamestate.LegalMoves;
+import de.sesu8642.feudaltactics.lib.gamestate.MapObject;
+import de.sesu8642.feudaltactics.lib.gamestate.Player;
+import de.sesu8642.feudaltactics.lib.gamestate.Player.Type;
+import de.sesu8642.feudaltactics.lib.gamestate.Unit;
+import de.sesu8642.feudaltactics.lib.gamestate.Unit.UnitTypes;
+
+/** Tests for InputValidationHelper class. */
+class InputValidationHelperTest {
+
+	List<Player> players;
+
+	@BeforeEach
+	void init() {
+		players = new ArrayList<>();
+		players.add(new Player(new Color(1, 0, 0, 0), Type.LOCAL_PLAYER));
+		players.add(new Player(new Color(0, 1, 0, 0), Type.LOCAL_BOT));
+		players.add(new Player(new Color(0, 0, 1, 0), Type.LOCAL_BOT));
+	}
+
+	@ParameterizedTest
+	@MethodSource("provideSeeds")
+	void legalMovesMatchSingleChecks(long seed) {
+		GameState gameState = new GameState();
+		GameStateHelper.initializeMap(gameState, players, 200, 2, 0.2F, seed);
+		Player player = gameState.getActivePlayer();
+
+		assertLegalMovesMatchSingleChecks(gameState, player);
+		for (Kingdom kingdom : gameState.getKingdoms(player)) {
+			GameStateHelper.activateKingdom(gameState, kingdom);
+			List<MapObject> heldObjects = new ArrayList<>();
+			for (UnitTypes unitType : UnitTypes.values()) {
+				heldObjects.add(Unit.of(unitType, true));
+			}
+			heldObjects.add(Castle.INSTANCE);
+			for (MapObject heldObject : heldObjects) {
+				gameState.setHeldObject(heldObject);
+				assertLegalMovesMatchSingleChecks(gameState, player);
+				assertLegalMovesMatchSingleChecks(gameState, gameState.getPlayers().get(1));
+			}
+			gameState.setHeldObject(null);
+			assertLegalMovesMatchSingleChecks(gameState, player);
+		}
+	}
+
+	private void assertLegalMovesMatchSingleChecks(GameState gameState, Player player) {
+		LegalMoves legalMoves = InputValidationHelper.getLegalMoves(gameState, player);
+		for (HexTile tile : gameState.getMap().values()) {
+			assertEquals(InputValidationHelper.checkConquer(gameState, player, tile),
+					legalMoves.getConquerTargets().contains(tile));
+			assertEquals(InputValidationHelper.checkPlaceOwn(gameState, player, tile),
+					legalMoves.getPlaceOwnTargets().contains(tile));
+			assertEquals(InputValidationHelper.checkCombineUnits(gameState, player, tile),
+					legalMoves.getCombineUnitsTargets().contains(tile));
+			assertEquals(InputValidationHelper.checkPickupObject(gameState, player, tile),
+					legalMoves.getPickupObjectTargets().contains(tile));
+		}
+		assertEquals(InputValidationHelper.checkBuyObject(gameState, player, Unit.COST), legalMoves.isCanBuyPeasant());
+		assertEquals(InputValidationHelper.checkBuyObject(gameState, player, Castle.COST),
+				legalMoves.isCanBuyCastle());
+		assertEquals(InputValidationHelper.checkEndTurn(gameState, player), legalMoves.isCanEndTurn());
+	}
+
+	static Stream<Long> provideSeeds() {
+		return Stream.of(1L, 42L, 69L, 360L, 420L, 1024L, 9999L);
+	}
+
+}
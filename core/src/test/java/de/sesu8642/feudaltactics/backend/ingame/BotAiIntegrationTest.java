@@ -19,7 +19,6 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -60,7 +59,6 @@ class BotAiIntegrationTest {
 	// do not wait in tests
 	MainGamePreferences stubPreferences = new MainGamePreferences(false, false);;
 
-	@InjectMocks
 	private BotAi systemUnderTest;
 
 	@BeforeAll
@@ -72,6 +70,7 @@ class BotAiIntegrationTest {
 
 	@BeforeEach
 	void init() {
+		systemUnderTest = new BotAi(eventBusStub, prefsDaoStub);
 		when(prefsDaoStub.getMainPreferences()).thenReturn(stubPreferences);
 		doAnswer(new Answer<Object>() {
 			@Override
@@ -159,6 +158,32 @@ class BotAiIntegrationTest {
 		}
 	}
 
+	@ParameterizedTest
+	@MethodSource("provideMapParameters")
+	void instantBotRoundEqualsSingleTurns(Intelligence botIntelligence, Float landMass, Float density, Long seed)
+			throws Exception {
+		// the enemy turns are not shown, so the game controller does the turns of all
+		// the bots in one go on a copy of the game state
+		GameState gameState = createGameState(landMass, density, seed);
+
+		for (int i = 1; i <= 100; i++) {
+			if (gameState.getKingdoms().size() == 1) {
+				return;
+			}
+			GameState roundGameState = GameStateHelper.createSnapshot(gameState).toGameState();
+			for (int j = 0; j < gameState.getPlayers().size(); j++) {
+				systemUnderTest.doTurnInstantly(roundGameState, botIntelligence);
+				GameStateHelper.endTurn(roundGameState);
+			}
+			for (int j = 0; j < gameState.getPlayers().size(); j++) {
+				systemUnderTest.doTurn(gameState, botIntelligence);
+				gameState = resultingGameState;
+				GameStateHelper.endTurn(gameState);
+			}
+			assertEquals(gameState, roundGameState);
+		}
+	}
+
 	private String gameStateToJson(GameState gameState) {
 		Json json = new Json(OutputType.json);
 		json.setSerializer(GameState.class, new GameStateSerializer());
@@ -0,0 +1,110 @@
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package de.sesu8642.feudaltactics.lib.ingame.botai;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.google.common.eventbus.EventBus;
+
+import de.sesu8642.feudaltactics.ApplicationStub;
+import de.sesu8642.feudaltactics.lib.gamestate.GameState;
+import de.sesu8642.feudaltactics.lib.gamestate.GameStateHelper;
+import de.sesu8642.feudaltactics.lib.gamestate.Kingdom;
+import de.sesu8642.feudaltactics.lib.gamestate.Player;
+import de.sesu8642.feudaltactics.lib.gamestate.Player.Type;
+import de.sesu8642.feudaltactics.lib.gamestate.Unit;
+import de.sesu8642.feudaltactics.lib.gamestate.Unit.UnitTypes;
+
+/** Tests for AttackFrontier class. */
+class AttackFrontierTest {
+
+	List<Player> players;
+
+	BotAi botAi = new BotAi(new EventBus(), null);
+
+	@BeforeAll
+	static void initAll() {
+		Gdx.app = new ApplicationStub();
+	}
+
+	@BeforeEach
+	void init() {
+		players = new ArrayList<>();
+		players.add(new Player(new Color(1, 0, 0, 0), Type.LOCAL_BOT));
+		players.add(new Player(new Color(0, 1, 0, 0), Type.LOCAL_BOT));
+		players.add(new Player(new Color(0, 0, 1, 0), Type.LOCAL_BOT));
+	}
+
+	@ParameterizedTest
+	@MethodSource("provideSeeds")
+	void updatedFrontierEqualsNewOne(long seed) {
+		GameState gameState = new GameState();
+		GameStateHelper.initializeMap(gameState, players, 200, 2, 0.2F, seed);
+
+		// a few rounds in which every player conquers the best tiles with barons
+		for (int i = 0; i < players.size() * 3; i++) {
+			Optional<Kingdom> kingdom = gameState.getKingdoms(gameState.getActivePlayer()).stream()
+					.max(Comparator.comparingInt(k -> k.getTiles().size()));
+			if (kingdom.isPresent()) {
+				GameStateHelper.activateKingdom(gameState, kingdom.get());
+				try (AttackFrontier attackFrontier = createAttackFrontier(gameState)) {
+					for (int j = 0; j < 10; j++) {
+						Optional<OffenseTileScoreInfo> target = attackFrontier.getScoreInfos().stream()
+								.filter(scoreInfo -> scoreInfo.requiredStrength <= UnitTypes.BARON.strength())
+								.findFirst();
+						if (!target.isPresent()) {
+							break;
+						}
+						gameState.setHeldObject(Unit.of(UnitTypes.BARON, true));
+						GameStateHelper.conquer(gameState, target.get().tile);
+						attackFrontier.update();
+
+						assertEqualsNewAttackFrontier(gameState, attackFrontier);
+					}
+				}
+			}
+			GameStateHelper.endTurn(gameState);
+		}
+	}
+
+	private AttackFrontier createAttackFrontier(GameState gameState) {
+		return new AttackFrontier(gameState,
+				tile -> botAi.getOffenseTileScoreInfo(gameState, Intelligence.LEVEL_4, tile), new TileScorer());
+	}
+
+	/** Compares the frontier with a new one built on a copy of the game state. */
+	private void assertEqualsNewAttackFrontier(GameState gameState, AttackFrontier attackFrontier) {
+		GameState copy = GameStateHelper.createSnapshot(gameState).toGameState();
+		try (AttackFrontier newAttackFrontier = createAttackFrontier(copy)) {
+			assertEquals(describe(newAttackFrontier.getScoreInfos()), describe(attackFrontier.getScoreInfos()));
+			assertEquals(newAttackFrontier.getMinimumRequiredStrength(),
+					attackFrontier.getMinimumRequiredStrength());
+		}
+	}
+
+	/** Describes the score infos in their order as "q,r:score:required strength". */
+	private List<String> describe(Set<OffenseTileScoreInfo> scoreInfos) {
+		return scoreInfos.stream().map(scoreInfo -> String.format("%s,%s:%s:%s", scoreInfo.tile.getQ(),
+				scoreInfo.tile.getR(), scoreInfo.score, scoreInfo.requiredStrength)).collect(Collectors.toList());
+	}
+
+	static Stream<Long> provideSeeds() {
+		return Stream.of(1L, 42L, 69L, 360L, 420L, 1024L, 9999L);
+	}
+
+}
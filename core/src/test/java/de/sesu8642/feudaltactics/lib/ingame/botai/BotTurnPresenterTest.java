@@ -0,0 +1,90 @@
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package de.sesu8642.feudaltactics.lib.ingame.botai;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.google.common.eventbus.EventBus;
+
+import de.sesu8642.feudaltactics.ApplicationStub;
+import de.sesu8642.feudaltactics.lib.gamestate.GameState;
+import de.sesu8642.feudaltactics.lib.gamestate.GameStateHelper;
+import de.sesu8642.feudaltactics.lib.gamestate.HexTile;
+import de.sesu8642.feudaltactics.lib.gamestate.Kingdom;
+import de.sesu8642.feudaltactics.lib.gamestate.Player;
+import de.sesu8642.feudaltactics.lib.gamestate.Player.Type;
+
+/** Tests for BotTurnPresenter class. */
+class BotTurnPresenterTest {
+
+	List<Player> players;
+
+	BotAi botAi = new BotAi(new EventBus(), null);
+
+	@BeforeAll
+	static void initAll() {
+		Gdx.app = new ApplicationStub();
+	}
+
+	@BeforeEach
+	void init() {
+		players = new ArrayList<>();
+		players.add(new Player(new Color(1, 0, 0, 0), Type.LOCAL_BOT));
+		players.add(new Player(new Color(0, 1, 0, 0), Type.LOCAL_BOT));
+		players.add(new Player(new Color(0, 0, 1, 0), Type.LOCAL_BOT));
+	}
+
+	@ParameterizedTest
+	@MethodSource("provideMapParameters")
+	void presentedTurnEqualsComputedTurn(Intelligence intelligence, long seed) throws InterruptedException {
+		GameState gameState = new GameState();
+		GameStateHelper.initializeMap(gameState, players, 200, 2, 0.2F, seed);
+		// skipping the turns avoids needing any preferences
+		BotTurnPresenter presenter = new BotTurnPresenter(new EventBus(), null);
+		presenter.setSkipDisplayingTurn(true);
+
+		for (int i = 0; i < players.size() * 5; i++) {
+			GameState privateGameState = GameStateHelper.createSnapshot(gameState).toGameState();
+			BotTurnScript script = new BotTurnScript(privateGameState);
+			botAi.computeTurn(privateGameState, script, intelligence, new Random(gameState.getFingerprint()));
+			// only the private game state knows which kingdoms are done moving
+			for (Kingdom kingdom : privateGameState.getKingdoms()) {
+				kingdom.setDoneMoving(false);
+			}
+
+			presenter.present(gameState, script);
+
+			assertEquals(privateGameState, gameState);
+			assertEquals(getKingdomTileCoords(privateGameState), getKingdomTileCoords(gameState));
+			GameStateHelper.endTurn(gameState);
+		}
+	}
+
+	/** Returns the coordinates of the tiles of every kingdom in their order. */
+	private List<List<Long>> getKingdomTileCoords(GameState gameState) {
+		return gameState.getKingdoms().stream()
+				.map(kingdom -> kingdom.getTiles().stream().map(HexTile::getCoords).collect(Collectors.toList()))
+				.collect(Collectors.toList());
+	}
+
+	static Stream<Arguments> provideMapParameters() {
+		return Stream.of(Arguments.of(Intelligence.LEVEL_1, 1L), Arguments.of(Intelligence.LEVEL_2, 42L),
+				Arguments.of(Intelligence.LEVEL_3, 360L), Arguments.of(Intelligence.LEVEL_4, 1024L),
+				Arguments.of(Intelligence.LEVEL_4, 9999L));
+	}
+
+}
@@ -0,0 +1,92 @@
+// SPDX-License-Identifier: GPL-3.0-or-later
+
+package de.sesu8642.feudaltactics.lib.ingame.botai;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.google.common.eventbus.EventBus;
+
+import de.sesu8642.feudaltactics.ApplicationStub;
+import de.sesu8642.feudaltactics.lib.gamestate.Castle;
+import de.sesu8642.feudaltactics.lib.gamestate.GameState;
+import de.sesu8642.feudaltactics.lib.gamestate.GameStateHelper;
+import de.sesu8642.feudaltactics.lib.gamestate.HexTile;
+import de.sesu8642.feudaltactics.lib.gamestate.Kingdom;
+import de.sesu8642.feudaltactics.lib.gamestate.Player;
+import de.sesu8642.feudaltactics.lib.gamestate.Player.Type;
+import de.sesu8642.feudaltactics.lib.gamestate.Unit;
+import de.sesu8642.feudaltactics.lib.gamestate.Unit.UnitTypes;
+
+/** Tests for DefenseScoreHeap class. */
+class DefenseScoreHeapTest {
+
+	List<Player> players;
+
+	BotAi botAi = new BotAi(new EventBus(), null);
+
+	@BeforeAll
+	static void initAll() {
+		Gdx.app = new ApplicationStub();
+	}
+
+	@BeforeEach
+	void init() {
+		players = new ArrayList<>();
+		players.add(new Player(new Color(1, 0, 0, 0), Type.LOCAL_BOT));
+		players.add(new Player(new Color(0, 1, 0, 0), Type.LOCAL_BOT));
+		players.add(new Player(new Color(0, 0, 1, 0), Type.LOCAL_BOT));
+	}
+
+	@ParameterizedTest
+	@MethodSource("provideSeeds")
+	void bestTileIsBestScoredCandidate(long seed) {
+		GameState gameState = new GameState();
+		GameStateHelper.initializeMap(gameState, players, 200, 2, 0.2F, seed);
+
+		for (Kingdom kingdom : new ArrayList<>(gameState.getKingdoms())) {
+			GameStateHelper.activateKingdom(gameState, kingdom);
+			List<HexTile> candidates = new ArrayList<>(kingdom.getTiles());
+			try (DefenseScoreHeap defenseScores = new DefenseScoreHeap(gameState, candidates,
+					tile -> getDefenseScore(gameState, tile), new TileScorer())) {
+				for (int i = 0; i < candidates.size(); i++) {
+					TileScoreInfo best = defenseScores.getBest();
+
+					// the heap prefers the greater coordinates if the score is the same
+					HexTile expectedTile = candidates.stream().max(Comparator
+							.comparingInt((HexTile tile) -> getDefenseScore(gameState, tile))
+							.thenComparing(Comparator.naturalOrder())).get();
+					assertSame(expectedTile, best.tile);
+					assertEquals(getDefenseScore(gameState, expectedTile), best.score);
+					if (best.score < 0) {
+						break;
+					}
+					// alternate between units and castles, which both protect the tiles around
+					gameState.setHeldObject(i % 2 == 0 ? Unit.of(UnitTypes.PEASANT, true) : Castle.INSTANCE);
+					GameStateHelper.placeOwn(gameState, best.tile);
+				}
+			}
+		}
+	}
+
+	private int getDefenseScore(GameState gameState, HexTile tile) {
+		return botAi.getTileDefenseScore(gameState, Intelligence.LEVEL_4, tile);
+	}
+
+	static Stream<Long> provideSeeds() {
+		return Stream.of(1L, 42L, 69L, 360L, 420L, 1024L, 9999L);
+	}
+
+}